@@ -0,0 +1,46 @@
+package frc.molib;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Cost of logging a message to the {@link Console}, with output discarded so only formatting is measured. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ConsoleBenchmark {
+	/** Constant, so only the Console's own work is measured. */
+	private static final String MESSAGE = "Benchmark message";
+
+	private PrintStream mOriginalOut;
+
+	@Setup public void setup() {
+		mOriginalOut = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+	}
+
+	@TearDown public void tearDown() { System.setOut(mOriginalOut); }
+
+	@Benchmark public void logMsg() { Console.logMsg(MESSAGE); }
+
+	@Benchmark public void logMsgMuted() {
+		Console.setMuted(true);
+		Console.logMsg(MESSAGE);
+		Console.setMuted(false);
+	}
+}
@@ -0,0 +1,60 @@
+package frc.molib;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import frc.molib.drive.CurvatureDrive;
+
+/**
+ * Cost of turning driver input into drive power, step by step and as the whole Teleoperated drive path:
+ * deadzone, shaping curve, scale and slew rate on each axis, then curvature drive.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DriveInputBenchmark {
+	private final InputShaper shpThrottle = new InputShaper();
+	private final InputShaper shpSteering = new InputShaper();
+	private final CurvatureDrive drvCurvature = new CurvatureDrive();
+	private double mInput = -1.0;
+
+	@Setup public void setup() {
+		shpThrottle.configDeadzone(0.1);
+		shpThrottle.configCurve(InputShaper.Curve.SQUARED);
+		shpThrottle.configSlewRate(5.0);
+		shpSteering.configDeadzone(0.1);
+		shpSteering.configExpoCurve(0.6);
+	}
+
+	/** Sweeps the input across the full range so every branch is exercised. */
+	private double nextInput() {
+		mInput += 0.013;
+		if(mInput > 1.0) mInput = -1.0;
+		return mInput;
+	}
+
+	@Benchmark public double deadenAxis() { return Utility.deadenAxis(nextInput(), 0.1); }
+
+	@Benchmark public double shapeAxis() { return shpThrottle.calculate(nextInput()); }
+
+	@Benchmark public void processDriveInput(Blackhole blackhole) {
+		double input = nextInput();
+		drvCurvature.calculate(shpThrottle.calculate(input), shpSteering.calculate(-input), input > 0.9);
+		blackhole.consume(drvCurvature.getLeftPower());
+		blackhole.consume(drvCurvature.getRightPower());
+	}
+}
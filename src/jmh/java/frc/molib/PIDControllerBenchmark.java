@@ -0,0 +1,42 @@
+package frc.molib;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Cost of a {@link PIDController} update, as run by every Subsystem each loop. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PIDControllerBenchmark {
+	private PIDController pidController;
+	private double mMeasurement = 0.0;
+
+	@Setup public void setup() {
+		pidController = new PIDController(0.05, 0.001, 0.002);
+		pidController.setTolerance(0.5);
+		pidController.configOutputRange(-0.5, 0.5);
+		pidController.configAtSetpointTime(0.25);
+		pidController.setSetpoint(12.0);
+		pidController.enable();
+	}
+
+	@Benchmark public double calculate() {
+		mMeasurement = (mMeasurement + 0.01) % 24.0;
+		return pidController.calculate(mMeasurement);
+	}
+
+	@Benchmark public boolean atSetpoint() { return pidController.atSetpoint(); }
+}
@@ -0,0 +1,65 @@
+package frc.molib.buttons;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.hal.HAL;
+
+/** Cost of updating every {@link Button} and dispatching their Bindings, as the {@link ButtonManager} does each loop. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ButtonBenchmark {
+	@Param({"8", "32", "128"})
+	public int buttonCount;
+
+	private Button[] mButtons;
+	private int mLoop = 0;
+	private int mActionCount = 0;
+
+	@Setup(Level.Trial) public void setup() {
+		HAL.initialize(500, 0);
+		ButtonManager.removeAll();
+		mButtons = new Button[buttonCount];
+		for(int index = 0; index < buttonCount; index++) {
+			final int offset = index;
+			//Each Button toggles at a different rate, so edges happen throughout
+			mButtons[index] = new Button("Benchmark" + index) {
+				@Override public boolean get() { return ((mLoop + offset) / (offset % 7 + 1)) % 2 == 0; }
+			};
+			mButtons[index].onPress(() -> mActionCount++).onRelease(() -> mActionCount--);
+		}
+		ButtonManager.enableBindings();
+	}
+
+	@TearDown(Level.Trial) public void tearDown() { ButtonManager.removeAll(); }
+
+	@Benchmark public int updateButtons() {
+		mLoop++;
+		double timestamp = mLoop * 0.02;
+		for(Button button : mButtons) button.updateValues(timestamp);
+		return mActionCount;
+	}
+
+	@Benchmark public int updateManager() {
+		mLoop++;
+		ButtonManager.updateValues();
+		return mActionCount;
+	}
+}
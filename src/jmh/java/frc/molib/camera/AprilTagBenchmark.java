@@ -0,0 +1,151 @@
+package frc.molib.camera;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.apriltag.AprilTag;
+import edu.wpi.first.cscore.OpenCvLoader;
+import edu.wpi.first.util.RawFrame;
+
+/** 
+ * Cost of finding AprilTags in one Driver Camera frame, as run by the {@link AprilTagThread}.
+ * <p>Frames are recorded images read from the directory in the <i>apriltag.images</i> property.
+ * If there are none, frames are generated instead: tag36h11 tags at several sizes and angles over a noisy background,
+ * and one frame with no tag. These exercise detection and decoding, but not real lighting, blur or perspective.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AprilTagBenchmark {
+	private static final String IMAGES_PROPERTY = "apriltag.images";
+	private static final int FRAME_WIDTH = 160;
+	private static final int FRAME_HEIGHT = 120;
+
+	/** Tags drawn into each generated frame, as ID, size in pixels, center X, center Y and angle in degrees. */
+	private static final double[][][] GENERATED_FRAMES = {
+		{{7, 48, 80, 60, 0}},
+		{{18, 32, 50, 50, 15}, {19, 24, 120, 70, -10}},
+		{{3, 20, 100, 40, 30}},
+		{}
+	};
+
+	private AprilTagProcessor mProcessor;
+	private final AprilTagResult mResult = new AprilTagResult();
+	private final List<Mat> mFrames = new ArrayList<Mat>();
+	private int mFrameIndex = 0;
+
+	@Setup public void setup() {
+		OpenCvLoader.forceStaticLoad();
+		mProcessor = new AprilTagProcessor("tag36h11", 0.1651, 160, 120, 139.0, 139.0, 80.0, 60.0);
+
+		File[] files = new File(System.getProperty(IMAGES_PROPERTY, "src/jmh/resources/apriltag")).listFiles();
+		if(files != null) {
+			Arrays.sort(files);
+			for(File file : files) {
+				Mat frame = Imgcodecs.imread(file.getAbsolutePath());
+				if(frame.empty()) frame.release();
+				else mFrames.add(frame);
+			}
+		}
+
+		if(mFrames.isEmpty()) {
+			System.out.println("No recorded images found, using generated frames. Set -D" + IMAGES_PROPERTY + " to a directory of images.");
+			for(double[][] tags : GENERATED_FRAMES) mFrames.add(generateFrame(tags));
+		}
+
+		//Report what is being measured, since a frame with nothing found costs far less
+		int tagCount = 0;
+		for(Mat frame : mFrames) {
+			mProcessor.process(frame, 0.0, mResult);
+			tagCount += mResult.getCount();
+		}
+		System.out.println(mFrames.size() + " frames, " + tagCount + " tags found.");
+	}
+
+	/** Draw tags over a noisy background, as a color frame like the Driver Camera's. */
+	private static Mat generateFrame(double[][] tags) {
+		Mat gray = new Mat(FRAME_HEIGHT, FRAME_WIDTH, CvType.CV_8UC1);
+		Core.randn(gray, 128.0, 20.0);
+
+		for(double[] tag : tags) {
+			Mat image = generateTag((int)tag[0]);
+			int size = (int)tag[1];
+			Mat scaled = new Mat();
+			Imgproc.resize(image, scaled, new Size(size, size), 0.0, 0.0, Imgproc.INTER_NEAREST);
+
+			//Rotate about the tag's center, then move it into place; pixels outside the tag keep the background
+			Mat transform = Imgproc.getRotationMatrix2D(new Point(size / 2.0, size / 2.0), tag[4], 1.0);
+			transform.put(0, 2, transform.get(0, 2)[0] + tag[2] - size / 2.0);
+			transform.put(1, 2, transform.get(1, 2)[0] + tag[3] - size / 2.0);
+			Imgproc.warpAffine(scaled, gray, transform, gray.size(), Imgproc.INTER_LINEAR, Core.BORDER_TRANSPARENT, new Scalar(0));
+
+			transform.release();
+			scaled.release();
+			image.release();
+		}
+
+		Mat frame = new Mat();
+		Imgproc.cvtColor(gray, frame, Imgproc.COLOR_GRAY2BGR);
+		gray.release();
+		return frame;
+	}
+
+	/** Image of a tag36h11 tag, one pixel per cell, with a white quiet zone around it. */
+	private static Mat generateTag(int id) {
+		try(RawFrame raw = new RawFrame()) {
+			AprilTag.generate36h11AprilTagImage(raw, id);
+			ByteBuffer data = raw.getData();
+			Mat tag = new Mat(raw.getHeight(), raw.getWidth(), CvType.CV_8UC1);
+			byte[] row = new byte[raw.getWidth()];
+			for(int y = 0; y < raw.getHeight(); y++) {
+				data.position(y * raw.getStride());
+				data.get(row);
+				tag.put(y, 0, row);
+			}
+
+			Mat padded = new Mat();
+			Core.copyMakeBorder(tag, padded, 2, 2, 2, 2, Core.BORDER_CONSTANT, new Scalar(255));
+			tag.release();
+			return padded;
+		}
+	}
+
+	@TearDown public void tearDown() {
+		for(Mat frame : mFrames) frame.release();
+		mProcessor.close();
+	}
+
+	@Benchmark public int process() {
+		Mat frame = mFrames.get(mFrameIndex);
+		mFrameIndex = (mFrameIndex + 1) % mFrames.size();
+		mProcessor.process(frame, 0.0, mResult);
+		return mResult.getCount();
+	}
+}
@@ -0,0 +1,69 @@
+package frc.molib.dashboard;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/** Cost of writing {@link DashboardValue}s and updating {@link DashboardSelector}s against an in-process NetworkTables instance. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DashboardBenchmark {
+	private enum Option implements DashboardOptionBase {
+		FIRST("First"),
+		SECOND("Second"),
+		THIRD("Third");
+
+		private final String LABEL;
+		private Option(String label) { LABEL = label; }
+		public String getLabel() { return LABEL; }
+	}
+
+	private static final int SELECTOR_COUNT = 3;
+
+	private NetworkTableInstance mInstance;
+	private DashboardValue<Double> dshDouble;
+	private DashboardValue<Boolean> dshBoolean;
+	private double mValue = 0.0;
+
+	@Setup(Level.Trial) public void setup() {
+		mInstance = NetworkTableInstance.create();
+		mInstance.startLocal();
+		NetworkTable tblBenchmark = mInstance.getTable("Benchmark");
+
+		dshDouble = new DashboardValue<Double>(tblBenchmark, "Double");
+		dshBoolean = new DashboardValue<Boolean>(tblBenchmark, "Boolean");
+
+		DashboardManager.removeAll();
+		for(int index = 0; index < SELECTOR_COUNT; index++)
+			new DashboardSelector<Option>(tblBenchmark, "Selector " + index, Option.FIRST).init();
+	}
+
+	@TearDown(Level.Trial) public void tearDown() {
+		DashboardManager.removeAll();
+		mInstance.close();
+	}
+
+	@Benchmark public void setDouble() { dshDouble.set(mValue += 0.5); }
+
+	@Benchmark public void setBoolean() { dshBoolean.set((mValue += 1.0) % 2.0 == 0.0); }
+
+	@Benchmark public void updateSelectors() { DashboardManager.updateValues(); }
+}
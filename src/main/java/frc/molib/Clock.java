@@ -0,0 +1,43 @@
+package frc.molib;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * The time Autonomous Actions and Trajectories run on.
+ * <p>Normally this is the FPGA time. It can be switched to a virtual time that only moves when stepped, so a routine can be run
+ * many loops at once against a simulated plant and still see the same time the plant does.</p>
+ * <p><i>Only for use from the main loop thread.</i></p>
+ */
+public final class Clock {
+	private static boolean mIsVirtual = false;
+	private static double mVirtualTime = 0.0;
+
+	private Clock() { throw new AssertionError("Utility Class"); }
+
+	/**
+	 * Get the current time.
+	 * @return Virtual time while virtual, otherwise FPGA time, in seconds
+	 */
+	public static double getTimestamp() { return mIsVirtual ? mVirtualTime : Timer.getFPGATimestamp(); }
+
+	/** True if time only moves when stepped. */
+	public static boolean isVirtual() { return mIsVirtual; }
+
+	/**
+	 * Set the virtual time, such as before starting a routine on it.
+	 * @param time Time in seconds
+	 */
+	public static void resetVirtual(double time) { mVirtualTime = time; }
+
+	/**
+	 * Switch between virtual and FPGA time. The virtual time carries on from where it was left.
+	 * @param virtual True to use virtual time
+	 */
+	public static void setVirtual(boolean virtual) { mIsVirtual = virtual; }
+
+	/**
+	 * Move the virtual time forward.
+	 * @param period Time in seconds
+	 */
+	public static void step(double period) { mVirtualTime += period; }
+}
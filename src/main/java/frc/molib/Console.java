@@ -7,18 +7,36 @@ import java.util.Date;
 public class Console {
 	private Console() { throw new AssertionError("Utility Class"); }
 
+	private static final ThreadLocal<Boolean> mIsMuted = ThreadLocal.withInitial(() -> Boolean.FALSE);
+	private static final SimpleDateFormat mTimestampFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+	private static final Date mTimestampDate = new Date();
+
+	/**
+	 * Stop or resume printing to the Console from the calling thread, such as while code is being exercised rather than actually run.
+	 * <p><i>Messages from other threads are still printed.</i></p>
+	 * @param muted True to discard messages from this thread
+	 */
+	public static void setMuted(boolean muted) { mIsMuted.set(muted ? Boolean.TRUE : Boolean.FALSE); }
+
+	/** True if messages from the calling thread are being discarded. */
+	private static boolean isMuted() { return mIsMuted.get(); }
+
 	/**
 	 * Gets a formatted timestamp at the current time
 	 * to be appended to messages logged in the console.
 	 * @return Formatted timestamp
 	 */
-	private static String getTimestamp() { return new SimpleDateFormat("HH:mm:ss.SSS").format(new Date()); }
+	private static synchronized String getTimestamp() {
+		mTimestampDate.setTime(System.currentTimeMillis());
+		return mTimestampFormat.format(mTimestampDate);
+	}
 
 	/** Prints a standard line separating other logs to the Console. */
-	public static void printSeparator() { System.out.println("--------------------------------------------------"); }
+	public static void printSeparator() { if(!isMuted()) System.out.println("--------------------------------------------------"); }
 
 	/** Prints a standardized header, creating a new section of logs to the Console. */
 	public static void printHeader(String title) { 
+		if(isMuted()) return;
 		Console.printSeparator();
 		System.out.println(title);
 		Console.printSeparator();
@@ -28,11 +46,11 @@ public class Console {
 	 * Prints a formatted message to the Console.
 	 * @param message Message to be logged
 	 */
-	public static void logMsg(String message) { System.out.println("[Log][" + getTimestamp() + "] " + message); }
+	public static void logMsg(String message) { if(!isMuted()) System.out.println("[Log][" + getTimestamp() + "] " + message); }
 
 	/**
 	 * Prints a formatted error message to the Console.
 	 * @param message Message to be logged
 	 */
-	public static void logErr(String message) { System.err.println("[Err][" + getTimestamp() + "] " + message); }
+	public static void logErr(String message) { if(!isMuted()) System.err.println("[Err][" + getTimestamp() + "] " + message); }
 }
\ No newline at end of file
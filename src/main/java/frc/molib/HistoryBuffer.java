@@ -0,0 +1,153 @@
+package frc.molib;
+
+/**
+ * A fixed-capacity ring buffer of timestamped samples, each holding one or more values.
+ * <p>Stored in primitive arrays, so adding and sampling never allocate.
+ * Samples can be read back at any timestamp within the buffer, interpolating between neighbors.</p>
+ * <p><i>Angles should be stored continuously (not wrapped) so they interpolate correctly.</i></p>
+ */
+public class HistoryBuffer {
+	private final int CAPACITY;
+	private final int CHANNELS;
+
+	private final double[] mTimestamps;
+	private final double[] mValues;
+
+	private int mHead = 0;
+	private int mSize = 0;
+
+	/**
+	 * Constructor
+	 * @param capacity	Most samples kept before the oldest are overwritten
+	 * @param channels	Number of values in each sample
+	 */
+	public HistoryBuffer(int capacity, int channels) {
+		CAPACITY = capacity;
+		CHANNELS = channels;
+		mTimestamps = new double[capacity];
+		mValues = new double[capacity * channels];
+	}
+
+	/** Number of values in each sample. */
+	public int getChannels() { return CHANNELS; }
+	/** Number of samples currently held. */
+	public int getSize() { return mSize; }
+	/** Remove all samples. */
+	public void clear() { mHead = 0; mSize = 0; }
+
+	/** Timestamp of the newest sample, or NaN if empty. */
+	public double getNewestTimestamp() { return mSize == 0 ? Double.NaN : mTimestamps[index(mSize - 1)]; }
+	/** Timestamp of the oldest sample, or NaN if empty. */
+	public double getOldestTimestamp() { return mSize == 0 ? Double.NaN : mTimestamps[index(0)]; }
+
+	/**
+	 * Add a single-value sample.
+	 * @param timestamp Time of the sample in seconds. Samples not newer than the last are ignored.
+	 * @param value		Sample value
+	 */
+	public void add(double timestamp, double value) {
+		int slot = reserve(timestamp);
+		if(slot >= 0) mValues[slot * CHANNELS] = value;
+	}
+
+	/**
+	 * Add a sample, copying one value for each channel.
+	 * @param timestamp Time of the sample in seconds. Samples not newer than the last are ignored.
+	 * @param values	Sample values, at least one per channel. The array is not kept.
+	 */
+	public void add(double timestamp, double[] values) {
+		int slot = reserve(timestamp);
+		if(slot >= 0) System.arraycopy(values, 0, mValues, slot * CHANNELS, CHANNELS);
+	}
+
+	/**
+	 * Add an offset to every stored sample.
+	 * <p><i>Used to carry a correction back through history so later reads stay consistent.</i></p>
+	 * @param offsets Amount to add to each channel, at least one per channel
+	 */
+	public void shift(double[] offsets) {
+		for(int position = 0; position < mSize; position++) {
+			int slot = index(position) * CHANNELS;
+			for(int channel = 0; channel < CHANNELS; channel++)
+				mValues[slot + channel] += offsets[channel];
+		}
+	}
+
+	/**
+	 * Read every channel at a timestamp, interpolating between the nearest samples.
+	 * <p>Timestamps outside the buffer read the oldest or newest sample.</p>
+	 * @param timestamp Time to read in seconds
+	 * @param output	Array to fill, at least one per channel
+	 * @return False if the buffer is empty and nothing was read
+	 */
+	public boolean sample(double timestamp, double[] output) {
+		if(mSize == 0) return false;
+		int older = findOlder(timestamp);
+		int newer = Math.min(older + 1, mSize - 1);
+		double fraction = fraction(older, newer, timestamp);
+		int olderSlot = index(older) * CHANNELS;
+		int newerSlot = index(newer) * CHANNELS;
+		for(int channel = 0; channel < CHANNELS; channel++)
+			output[channel] = mValues[olderSlot + channel] + (mValues[newerSlot + channel] - mValues[olderSlot + channel]) * fraction;
+		return true;
+	}
+
+	/**
+	 * Read one channel at a timestamp, interpolating between the nearest samples.
+	 * @param timestamp Time to read in seconds
+	 * @param channel 	Channel to read
+	 * @return Interpolated value, or NaN if the buffer is empty
+	 */
+	public double sample(double timestamp, int channel) {
+		if(mSize == 0) return Double.NaN;
+		int older = findOlder(timestamp);
+		int newer = Math.min(older + 1, mSize - 1);
+		double olderValue = mValues[index(older) * CHANNELS + channel];
+		return olderValue + (mValues[index(newer) * CHANNELS + channel] - olderValue) * fraction(older, newer, timestamp);
+	}
+
+	/**
+	 * Read one channel of the newest sample.
+	 * @param channel Channel to read
+	 * @return Newest value, or NaN if the buffer is empty
+	 */
+	public double getNewest(int channel) {
+		return mSize == 0 ? Double.NaN : mValues[index(mSize - 1) * CHANNELS + channel];
+	}
+
+	/** Converts a position from oldest (0) to newest (size - 1) into an array slot. */
+	private int index(int position) {
+		return (mHead - mSize + position + CAPACITY) % CAPACITY;
+	}
+
+	/** Claims the slot for a new sample, or returns -1 if the timestamp is out of order. */
+	private int reserve(double timestamp) {
+		if(mSize > 0 && timestamp <= mTimestamps[index(mSize - 1)]) return -1;
+		int slot = mHead;
+		mTimestamps[slot] = timestamp;
+		mHead = (mHead + 1) % CAPACITY;
+		if(mSize < CAPACITY) mSize++;
+		return slot;
+	}
+
+	/** Binary search for the newest sample at or before the timestamp, clamped to the oldest sample. */
+	private int findOlder(double timestamp) {
+		int low = 0;
+		int high = mSize - 1;
+		if(timestamp <= mTimestamps[index(low)]) return low;
+		if(timestamp >= mTimestamps[index(high)]) return high;
+		while(high - low > 1) {
+			int middle = (low + high) >>> 1;
+			if(mTimestamps[index(middle)] <= timestamp) low = middle;
+			else high = middle;
+		}
+		return low;
+	}
+
+	private double fraction(int older, int newer, double timestamp) {
+		if(older == newer) return 0.0;
+		double olderTime = mTimestamps[index(older)];
+		double span = mTimestamps[index(newer)] - olderTime;
+		return span > 0.0 ? Math.max(0.0, Math.min(1.0, (timestamp - olderTime) / span)) : 0.0;
+	}
+}
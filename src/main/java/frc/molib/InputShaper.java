@@ -0,0 +1,169 @@
+package frc.molib;
+
+import edu.wpi.first.math.filter.SlewRateLimiter;
+
+/**
+ * Shapes a raw driver axis by applying a deadzone, a response curve, a scale, and a slew rate limit, in that order.
+ * <p>The response curve is precomputed into an interpolated lookup table whenever it is configured,
+ * so shaping an axis each loop only costs a few array reads.</p>
+ * <p><i>Configure outside of the loop, such as when a Dashboard selection changes.</i></p>
+ */
+public class InputShaper {
+	/** Predefined response curves. */
+	public enum Curve {
+		/** Output matches input. */
+		LINEAR,
+		/** Input is squared for more precise movements at low speeds. */
+		SQUARED,
+		/** Input is cubed for the most precision at low speeds. */
+		CUBED
+	}
+
+	/** Number of segments in the lookup table. */
+	private static final int TABLE_RESOLUTION = 256;
+
+	private final double[] mTable = new double[TABLE_RESOLUTION + 1];
+
+	private double mDeadzoneThreshold = 0.0;
+	private double mScale = 1.0;
+	private SlewRateLimiter mSlewRateLimiter = null;
+
+	/** Constructor. Starts as a linear curve with no deadzone, full scale, and no slew rate limit. */
+	public InputShaper() { configCurve(Curve.LINEAR); }
+
+	/**
+	 * Configure how much of the axis range around the center should be ignored.
+	 * @param value Axis range to be ignored [Absolute Value]
+	 */
+	public void configDeadzone(double value) { mDeadzoneThreshold = Math.abs(value); }
+
+	/**
+	 * Configure the value the shaped output is multiplied by.
+	 * <p><i>Cheap enough to change every loop.</i></p>
+	 * @param scale Output scale
+	 */
+	public void configScale(double scale) { mScale = scale; }
+
+	/**
+	 * Configure how quickly the output is allowed to change.
+	 * @param rate Most change in output per second. Use {@link Double#POSITIVE_INFINITY} for no limit.
+	 */
+	public void configSlewRate(double rate) {
+		mSlewRateLimiter = Double.isFinite(rate) ? new SlewRateLimiter(Math.abs(rate)) : null;
+	}
+
+	/**
+	 * Configure one of the predefined response curves.
+	 * @param curve Response curve
+	 */
+	public void configCurve(Curve curve) {
+		for(int index = 0; index <= TABLE_RESOLUTION; index++) {
+			double input = (double)index / TABLE_RESOLUTION;
+			switch(curve) {
+				case SQUARED: mTable[index] = input * input; break;
+				case CUBED: mTable[index] = input * input * input; break;
+				default: mTable[index] = input;
+			}
+		}
+	}
+
+	/**
+	 * Configure an exponential response curve, blending between linear and cubed.
+	 * @param weight 0.0 is fully linear, 1.0 is fully cubed
+	 */
+	public void configExpoCurve(double weight) {
+		weight = Math.max(0.0, Math.min(1.0, weight));
+		for(int index = 0; index <= TABLE_RESOLUTION; index++) {
+			double input = (double)index / TABLE_RESOLUTION;
+			mTable[index] = (1.0 - weight) * input + weight * input * input * input;
+		}
+	}
+
+	/**
+	 * Configure a custom response curve passing smoothly through a set of points.
+	 * <p>Uses a monotone cubic spline, so the curve never overshoots between points.
+	 * The curve is mirrored for negative inputs.</p>
+	 * @param inputs	Input values from 0.0 to 1.0, in increasing order
+	 * @param outputs	Output values at each input
+	 */
+	public void configSplineCurve(double[] inputs, double[] outputs) {
+		int count = inputs.length;
+		if(count < 2 || outputs.length != count)
+			throw new IllegalArgumentException("Spline curve needs at least two points with matching inputs and outputs");
+		for(int index = 1; index < count; index++)
+			if(inputs[index] <= inputs[index - 1])
+				throw new IllegalArgumentException("Spline curve inputs must be strictly increasing");
+
+		//Secant slopes between points
+		double[] secants = new double[count - 1];
+		for(int index = 0; index < count - 1; index++)
+			secants[index] = (outputs[index + 1] - outputs[index]) / (inputs[index + 1] - inputs[index]);
+
+		//Tangents at each point
+		double[] tangents = new double[count];
+		tangents[0] = secants[0];
+		tangents[count - 1] = secants[count - 2];
+		for(int index = 1; index < count - 1; index++)
+			tangents[index] = (secants[index - 1] * secants[index] <= 0.0) ? 0.0 : (secants[index - 1] + secants[index]) / 2.0;
+
+		//Fritsch-Carlson limiting to keep the curve monotone
+		for(int index = 0; index < count - 1; index++) {
+			if(secants[index] == 0.0) {
+				tangents[index] = 0.0;
+				tangents[index + 1] = 0.0;
+			} else {
+				double alpha = tangents[index] / secants[index];
+				double beta = tangents[index + 1] / secants[index];
+				double magnitude = alpha * alpha + beta * beta;
+				if(magnitude > 9.0) {
+					double tau = 3.0 / Math.sqrt(magnitude);
+					tangents[index] = tau * alpha * secants[index];
+					tangents[index + 1] = tau * beta * secants[index];
+				}
+			}
+		}
+
+		int segment = 0;
+		for(int index = 0; index <= TABLE_RESOLUTION; index++) {
+			double input = (double)index / TABLE_RESOLUTION;
+			if(input <= inputs[0]) {
+				mTable[index] = outputs[0];
+			} else if(input >= inputs[count - 1]) {
+				mTable[index] = outputs[count - 1];
+			} else {
+				while(input > inputs[segment + 1]) segment++;
+				double width = inputs[segment + 1] - inputs[segment];
+				double t = (input - inputs[segment]) / width;
+				double t2 = t * t;
+				double t3 = t2 * t;
+				mTable[index] = (2.0 * t3 - 3.0 * t2 + 1.0) * outputs[segment]
+					+ (t3 - 2.0 * t2 + t) * width * tangents[segment]
+					+ (-2.0 * t3 + 3.0 * t2) * outputs[segment + 1]
+					+ (t3 - t2) * width * tangents[segment + 1];
+			}
+		}
+	}
+
+	/**
+	 * Shape a raw axis value.
+	 * @param value Raw axis value, -1.0 to 1.0
+	 * @return Shaped output
+	 */
+	public double calculate(double value) {
+		value = Utility.deadenAxis(value, mDeadzoneThreshold);
+
+		double position = Math.min(Math.abs(value), 1.0) * TABLE_RESOLUTION;
+		int index = (int)position;
+		double shaped;
+		if(index >= TABLE_RESOLUTION)
+			shaped = mTable[TABLE_RESOLUTION];
+		else
+			shaped = mTable[index] + (mTable[index + 1] - mTable[index]) * (position - index);
+
+		double output = Math.copySign(shaped, value) * mScale;
+		return mSlewRateLimiter != null ? mSlewRateLimiter.calculate(output) : output;
+	}
+
+	/** Reset the slew rate limit so the next output is not limited by the last. */
+	public void reset() { if(mSlewRateLimiter != null) mSlewRateLimiter.reset(0.0); }
+}
@@ -0,0 +1,176 @@
+package frc.molib;
+
+import java.util.Arrays;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.molib.dashboard.DashboardValue;
+
+/**
+ * Measures how long it takes for a new input to reach a motor, one control path at a time.
+ * <p>Each path is timestamped at three points: when the input changed, when the Subsystem was commanded,
+ * and when the motor was written. Latencies between them are kept in fixed-size histograms.</p>
+ */
+public class LatencyMonitor {
+	/** A fixed-bucket histogram of latencies. Records without allocating. */
+	public static class Histogram {
+		/** Width of each bucket in milliseconds. */
+		private static final double BUCKET_WIDTH = 0.5;
+		/** Number of buckets. The last bucket also holds everything beyond it. */
+		private static final int BUCKETS = 200;
+
+		private final long[] mCounts = new long[BUCKETS];
+		private long mCount = 0;
+		private double mSum = 0.0;
+		private double mMax = 0.0;
+
+		/**
+		 * Add a measurement to the histogram.
+		 * @param latency Latency in milliseconds
+		 */
+		public void record(double latency) {
+			if(latency < 0.0) latency = 0.0;
+			int bucket = (int)(latency / BUCKET_WIDTH);
+			mCounts[bucket < BUCKETS ? bucket : BUCKETS - 1]++;
+			mCount++;
+			mSum += latency;
+			if(latency > mMax) mMax = latency;
+		}
+
+		/** Number of measurements recorded. */
+		public long getCount() { return mCount; }
+		/** Average latency in milliseconds. */
+		public double getMean() { return mCount > 0 ? mSum / mCount : 0.0; }
+		/** Largest latency in milliseconds. */
+		public double getMax() { return mMax; }
+
+		/**
+		 * Estimate a percentile of the recorded latencies.
+		 * @param percentile Percentile from 0.0 to 1.0
+		 * @return Upper edge of the bucket holding the percentile, in milliseconds
+		 */
+		public double getPercentile(double percentile) {
+			if(mCount == 0) return 0.0;
+			long target = (long)Math.ceil(percentile * mCount);
+			long seen = 0;
+			for(int bucket = 0; bucket < BUCKETS; bucket++) {
+				seen += mCounts[bucket];
+				if(seen >= target) return Math.min((bucket + 1) * BUCKET_WIDTH, mMax);
+			}
+			return mMax;
+		}
+
+		/** Clear all measurements. */
+		public void reset() {
+			Arrays.fill(mCounts, 0L);
+			mCount = 0;
+			mSum = 0.0;
+			mMax = 0.0;
+		}
+	}
+
+	private final String NAME;
+
+	private final Histogram mInputToCommand = new Histogram();
+	private final Histogram mCommandToActuation = new Histogram();
+	private final Histogram mInputToActuation = new Histogram();
+
+	private final DashboardValue<Double> dshInputToActuation_Mean;
+	private final DashboardValue<Double> dshInputToActuation_P95;
+	private final DashboardValue<Double> dshInputToActuation_Max;
+	private final DashboardValue<Double> dshInputToCommand_P95;
+	private final DashboardValue<Double> dshCommandToActuation_P95;
+	private final DashboardValue<Double> dshSamples;
+
+	private long mLastInputTime = 0;
+	private long mPendingInputTime = 0;
+	private long mPendingCommandTime = 0;
+
+	/**
+	 * Constructor
+	 * @param parentTable	Parent NetworkTable
+	 * @param name			Name of the control path, such as "Drive"
+	 */
+	public LatencyMonitor(NetworkTable parentTable, String name) {
+		NAME = name;
+		NetworkTable tblLatency = parentTable.getSubTable(name + " Latency");
+		dshInputToActuation_Mean = new DashboardValue<Double>(tblLatency, "Input to Motor Mean (ms)");
+		dshInputToActuation_P95 = new DashboardValue<Double>(tblLatency, "Input to Motor P95 (ms)");
+		dshInputToActuation_Max = new DashboardValue<Double>(tblLatency, "Input to Motor Max (ms)");
+		dshInputToCommand_P95 = new DashboardValue<Double>(tblLatency, "Input to Command P95 (ms)");
+		dshCommandToActuation_P95 = new DashboardValue<Double>(tblLatency, "Command to Motor P95 (ms)");
+		dshSamples = new DashboardValue<Double>(tblLatency, "Samples");
+	}
+
+	/**
+	 * Mark when the input feeding this path last changed.
+	 * <p><i>Only a newer timestamp than the last one starts a new measurement.</i></p>
+	 * @param timestamp FPGA time the input arrived in seconds, such as the Driver Station packet time from {@link frc.molib.hid.HIDSnapshot}
+	 */
+	public void markInput(double timestamp) {
+		long inputTime = (long)(timestamp * 1.0e6);
+		if(inputTime > mLastInputTime) {
+			mLastInputTime = inputTime;
+			mPendingInputTime = inputTime;
+			if(mPendingCommandTime < inputTime) mPendingCommandTime = 0;
+		}
+	}
+
+	/** Mark that the Subsystem was given a new command. Call from the Subsystem's setter. */
+	public void markCommand() {
+		if(mPendingCommandTime == 0) mPendingCommandTime = RobotController.getFPGATime();
+	}
+
+	/** Mark that the command was written to the motor. Call right after the motor is set. */
+	public void markActuation() {
+		if(mPendingCommandTime == 0) return;
+		long actuationTime = RobotController.getFPGATime();
+
+		mCommandToActuation.record((actuationTime - mPendingCommandTime) * 1.0e-3);
+		if(mPendingInputTime != 0) {
+			mInputToCommand.record((mPendingCommandTime - mPendingInputTime) * 1.0e-3);
+			mInputToActuation.record((actuationTime - mPendingInputTime) * 1.0e-3);
+		}
+
+		mPendingInputTime = 0;
+		mPendingCommandTime = 0;
+	}
+
+	/** Input to motor latency histogram. */
+	public Histogram getInputToActuation() { return mInputToActuation; }
+	/** Input to command latency histogram. */
+	public Histogram getInputToCommand() { return mInputToCommand; }
+	/** Command to motor latency histogram. */
+	public Histogram getCommandToActuation() { return mCommandToActuation; }
+
+	/** Push the latest latency statistics to the Dashboard. */
+	public void publish() {
+		dshInputToActuation_Mean.set(mInputToActuation.getMean());
+		dshInputToActuation_P95.set(mInputToActuation.getPercentile(0.95));
+		dshInputToActuation_Max.set(mInputToActuation.getMax());
+		dshInputToCommand_P95.set(mInputToCommand.getPercentile(0.95));
+		dshCommandToActuation_P95.set(mCommandToActuation.getPercentile(0.95));
+		dshSamples.set((double)mInputToActuation.getCount());
+	}
+
+	/** Print a summary of the latency statistics to the Console, if any were recorded. */
+	public void logSummary() {
+		if(mInputToActuation.getCount() == 0) return;
+		Console.logMsg(NAME + " Latency [" + mInputToActuation.getCount() + " samples]"
+			+ " Input to Motor: mean " + String.format("%.2f", mInputToActuation.getMean())
+			+ "ms, p50 " + String.format("%.2f", mInputToActuation.getPercentile(0.50))
+			+ "ms, p95 " + String.format("%.2f", mInputToActuation.getPercentile(0.95))
+			+ "ms, max " + String.format("%.2f", mInputToActuation.getMax()) + "ms"
+			+ " | Input to Command p95 " + String.format("%.2f", mInputToCommand.getPercentile(0.95))
+			+ "ms | Command to Motor p95 " + String.format("%.2f", mCommandToActuation.getPercentile(0.95)) + "ms");
+	}
+
+	/** Clear all measurements. */
+	public void reset() {
+		mInputToCommand.reset();
+		mCommandToActuation.reset();
+		mInputToActuation.reset();
+		mPendingInputTime = 0;
+		mPendingCommandTime = 0;
+	}
+}
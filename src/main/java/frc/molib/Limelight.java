@@ -1,11 +1,19 @@
 package frc.molib;
 
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.DoubleEntry;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableInstance;
-import frc.molib.dashboard.DashboardValue;
+import edu.wpi.first.networktables.PubSubOption;
+import edu.wpi.first.networktables.TimestampedDoubleArray;
+import edu.wpi.first.wpilibj.RobotController;
 
 /**
- * Interface for the Limelight table on NetworkTables
+ * Interface for a Limelight camera on NetworkTables. Any number of cameras can be used, each by its own name.
+ * <p>Results are read a whole frame at a time, from the Limelight's <i>t2d</i> and <i>botpose_wpiblue</i> arrays,
+ * so values from different frames are never mixed. Every frame received since the last {@link #update()} is queued
+ * by NetworkTables, so none are missed between loops.</p>
+ * <p><i>Call {@link #update()} once per loop, then read the results. Nothing is allocated unless a new frame arrived.</i></p>
  */
 public final class Limelight {
 	public enum LEDMode {
@@ -21,7 +29,7 @@ public final class Limelight {
 	public enum CamMode {
 		kVisionProcessor(0),
 		kDriverCam(1);
-		
+
 		public final int value;
 		private CamMode(int value) { this.value = value; }
 	}
@@ -34,37 +42,198 @@ public final class Limelight {
 		public final int value;
 		private StreamMode(int value){ this.value = value; }
 	}
-	
-	private static final NetworkTable tblLimelight = NetworkTableInstance.getDefault().getTable("limelight");
-
-	private static final DashboardValue<Double>		dshHasTarget = new DashboardValue<Double>(tblLimelight, "tv");
-	private static final DashboardValue<Double> 	dshPosX = new DashboardValue<Double>(tblLimelight, "tx");
-	private static final DashboardValue<Double> 	dshPosY = new DashboardValue<Double>(tblLimelight, "ty");
-	private static final DashboardValue<Double> 	dshWidth = new DashboardValue<Double>(tblLimelight, "thor");
-	private static final DashboardValue<Double> 	dshHeight = new DashboardValue<Double>(tblLimelight, "tver");
-	private static final DashboardValue<Double> 	dshArea = new DashboardValue<Double>(tblLimelight, "ta");
-	
-	private static final DashboardValue<Integer>	dshLEDMode = new DashboardValue<Integer>(tblLimelight, "ledMode");
-	private static final DashboardValue<Integer>	dshCamMode = new DashboardValue<Integer>(tblLimelight, "camMode");
-	private static final DashboardValue<Integer>	dshPipeline = new DashboardValue<Integer>(tblLimelight, "pipeline");
-	private static final DashboardValue<Integer>	dshStreamMode = new DashboardValue<Integer>(tblLimelight, "stream");
-
-	private Limelight() {}
-
-	public static boolean hasTarget() { return dshHasTarget.get() == 1; }
-	public static double getPosX() { return dshPosX.get(); }
-	public static double getPosY() { return dshPosY.get(); }
-	public static double getWidth() { return dshWidth.get(); }
-	public static double getHeight() { return dshHeight.get(); }
-	public static double getArea() { return dshArea.get(); }
-	
-	public static void setLEDMode(LEDMode mode) { dshLEDMode.set(mode.value); }
-	public static void setCamMode(CamMode mode) { dshCamMode.set(mode.value); }
-	public static void setPipeline(int pipeline) { dshPipeline.set(pipeline); }
-	public static void setStream(StreamMode mode) { dshStreamMode.set(mode.value); }
-
-	public static LEDMode getLEDMode() { return LEDMode.values()[dshLEDMode.get()]; }
-	public static CamMode getCamMode() { return CamMode.values()[dshCamMode.get()]; }
-	public static int getPipeline() { return dshPipeline.get(); }
-	public static StreamMode getStreamMode() { return StreamMode.values()[dshStreamMode.get()]; }	
-}
\ No newline at end of file
+
+	/** A single AprilTag field pose from the Limelight. <i>Reused by the next update; copy out anything that must be kept.</i> */
+	public static final class BotPose {
+		private final double[] mValues = new double[BOTPOSE_LENGTH];
+		private double mTimestamp = 0.0;
+
+		private BotPose() {}
+
+		/** Field X position of the robot, in meters from the blue alliance origin. */
+		public double getX() { return mValues[BOTPOSE_X]; }
+		/** Field Y position of the robot, in meters from the blue alliance origin. */
+		public double getY() { return mValues[BOTPOSE_Y]; }
+		/** Field heading of the robot, in degrees counter-clockwise positive. */
+		public double getYaw() { return mValues[BOTPOSE_YAW]; }
+		/** FPGA time the image was captured, in seconds. */
+		public double getTimestamp() { return mTimestamp; }
+		/** Number of AprilTags used. */
+		public int getTagCount() { return (int)mValues[BOTPOSE_TAG_COUNT]; }
+		/** Distance between the farthest apart AprilTags used, in meters. */
+		public double getTagSpan() { return mValues[BOTPOSE_TAG_SPAN]; }
+		/** Average distance from the camera to the AprilTags used, in meters. */
+		public double getAverageDistance() { return mValues[BOTPOSE_AVG_DISTANCE]; }
+	}
+
+	/** Default name of a Limelight's table. */
+	public static final String DEFAULT_NAME = "limelight";
+
+	/** Most frames kept by NetworkTables between updates. */
+	private static final int QUEUE_DEPTH = 10;
+
+	//Cached enum values, so reading them does not allocate
+	private static final LEDMode[] LED_MODES = LEDMode.values();
+	private static final CamMode[] CAM_MODES = CamMode.values();
+	private static final StreamMode[] STREAM_MODES = StreamMode.values();
+
+	//Target 2D array layout
+	private static final int T2D_VALID = 0;
+	private static final int T2D_TARGET_LATENCY = 2;
+	private static final int T2D_CAPTURE_LATENCY = 3;
+	private static final int T2D_X = 4;
+	private static final int T2D_Y = 5;
+	private static final int T2D_AREA = 8;
+	private static final int T2D_ID = 9;
+	private static final int T2D_WIDTH = 14;
+	private static final int T2D_HEIGHT = 15;
+	private static final int T2D_LENGTH = 17;
+
+	//Bot Pose array layout
+	private static final int BOTPOSE_X = 0;
+	private static final int BOTPOSE_Y = 1;
+	private static final int BOTPOSE_YAW = 5;
+	private static final int BOTPOSE_LATENCY = 6;
+	private static final int BOTPOSE_TAG_COUNT = 7;
+	private static final int BOTPOSE_TAG_SPAN = 8;
+	private static final int BOTPOSE_AVG_DISTANCE = 9;
+	private static final int BOTPOSE_LENGTH = 11;
+
+	private static final double[] EMPTY_ARRAY = new double[0];
+
+	private final String NAME;
+
+	private final DoubleArraySubscriber subTarget;
+	private final DoubleArraySubscriber subBotPose;
+
+	private final DoubleEntry entLEDMode;
+	private final DoubleEntry entCamMode;
+	private final DoubleEntry entPipeline;
+	private final DoubleEntry entStreamMode;
+
+	//Latest Target, copied out of NetworkTables
+	private final double[] mTarget = new double[T2D_LENGTH];
+	private long mTargetLastChange = 0;
+	private double mTargetTimestamp = 0.0;
+
+	//Bot Poses received during the last update
+	private final BotPose[] mBotPoses = new BotPose[QUEUE_DEPTH];
+	private int mBotPoseCount = 0;
+	private long mBotPoseLastChange = 0;
+
+	/**
+	 * Constructor
+	 * @param name Name of the Limelight, as set in its web interface
+	 */
+	public Limelight(String name) { this(NetworkTableInstance.getDefault(), name); }
+
+	/**
+	 * Constructor
+	 * @param instance	NetworkTables instance the Limelight publishes to
+	 * @param name		Name of the Limelight, as set in its web interface
+	 */
+	public Limelight(NetworkTableInstance instance, String name) {
+		NAME = name;
+		NetworkTable tblLimelight = instance.getTable(name);
+
+		subTarget = tblLimelight.getDoubleArrayTopic("t2d").subscribe(EMPTY_ARRAY, PubSubOption.pollStorage(QUEUE_DEPTH), PubSubOption.sendAll(true));
+		subBotPose = tblLimelight.getDoubleArrayTopic("botpose_wpiblue").subscribe(EMPTY_ARRAY, PubSubOption.pollStorage(QUEUE_DEPTH), PubSubOption.sendAll(true));
+
+		entLEDMode = tblLimelight.getDoubleTopic("ledMode").getEntry(0.0);
+		entCamMode = tblLimelight.getDoubleTopic("camMode").getEntry(0.0);
+		entPipeline = tblLimelight.getDoubleTopic("pipeline").getEntry(0.0);
+		entStreamMode = tblLimelight.getDoubleTopic("stream").getEntry(0.0);
+
+		for(int index = 0; index < QUEUE_DEPTH; index++) mBotPoses[index] = new BotPose();
+	}
+
+	/** Name of the Limelight. */
+	public String getName() { return NAME; }
+
+	/**
+	 * Determine if the Limelight is still sending frames.
+	 * @param timeout Longest time without a frame, in seconds
+	 * @return True if a frame arrived within the timeout
+	 */
+	public boolean isAlive(double timeout) {
+		long lastChange = subTarget.getLastChange();
+		return lastChange != 0 && RobotController.getFPGATime() - lastChange < (long)(timeout * 1.0e6);
+	}
+
+	/** True if the Limelight has sent at least one frame since startup. */
+	public boolean wasSeen() { return subTarget.getLastChange() != 0; }
+
+	/**
+	 * Read every frame received since the last update.
+	 * The newest target replaces the last one, and every valid Bot Pose is kept until the next update.
+	 * @return True if any new frame arrived
+	 */
+	public boolean update() {
+		boolean isNewTarget = false;
+		long targetLastChange = subTarget.getLastChange();
+		if(targetLastChange != mTargetLastChange) {
+			mTargetLastChange = targetLastChange;
+			for(TimestampedDoubleArray frame : subTarget.readQueue()) {
+				if(frame.value.length < T2D_LENGTH) continue;
+				System.arraycopy(frame.value, 0, mTarget, 0, T2D_LENGTH);
+				mTargetTimestamp = frame.timestamp / 1.0e6 - (mTarget[T2D_TARGET_LATENCY] + mTarget[T2D_CAPTURE_LATENCY]) / 1.0e3;
+				isNewTarget = true;
+			}
+		}
+
+		mBotPoseCount = 0;
+		long botPoseLastChange = subBotPose.getLastChange();
+		if(botPoseLastChange != mBotPoseLastChange) {
+			mBotPoseLastChange = botPoseLastChange;
+			for(TimestampedDoubleArray frame : subBotPose.readQueue()) {
+				if(frame.value.length < BOTPOSE_LENGTH || frame.value[BOTPOSE_TAG_COUNT] < 1.0 || mBotPoseCount == QUEUE_DEPTH) continue;
+				BotPose botPose = mBotPoses[mBotPoseCount++];
+				System.arraycopy(frame.value, 0, botPose.mValues, 0, BOTPOSE_LENGTH);
+
+				//Capture time is when NetworkTables received it, less the pipeline and capture latency
+				botPose.mTimestamp = frame.timestamp / 1.0e6 - botPose.mValues[BOTPOSE_LATENCY] / 1.0e3;
+			}
+		}
+
+		return isNewTarget || mBotPoseCount > 0;
+	}
+
+	/** True if the latest frame has a target. */
+	public boolean hasTarget() { return mTarget[T2D_VALID] == 1.0; }
+	/** Horizontal offset to the target in the latest frame, in degrees. Positive is to the right. */
+	public double getPosX() { return mTarget[T2D_X]; }
+	/** Vertical offset to the target in the latest frame, in degrees. Positive is up. */
+	public double getPosY() { return mTarget[T2D_Y]; }
+	/** Width of the target in the latest frame, in pixels. */
+	public double getWidth() { return mTarget[T2D_WIDTH]; }
+	/** Height of the target in the latest frame, in pixels. */
+	public double getHeight() { return mTarget[T2D_HEIGHT]; }
+	/** Area of the target in the latest frame, in percent of the image. */
+	public double getArea() { return mTarget[T2D_AREA]; }
+	/** AprilTag ID of the target in the latest frame, or -1 if it is not an AprilTag. */
+	public int getTargetID() { return (int)mTarget[T2D_ID]; }
+	/** FPGA time the image for the latest frame was captured, in seconds. */
+	public double getTargetTimestamp() { return mTargetTimestamp; }
+
+	/** Number of Bot Poses received during the last update. */
+	public int getBotPoseCount() { return mBotPoseCount; }
+
+	/**
+	 * Get a Bot Pose received during the last update, oldest first.
+	 * @param index Index from 0 to {@link #getBotPoseCount()}
+	 * @return Bot Pose, reused by the next update
+	 */
+	public BotPose getBotPose(int index) { return mBotPoses[index]; }
+
+	public void setLEDMode(LEDMode mode) { entLEDMode.set(mode.value); }
+	public void setCamMode(CamMode mode) { entCamMode.set(mode.value); }
+	public void setPipeline(int pipeline) { entPipeline.set(pipeline); }
+	public void setStream(StreamMode mode) { entStreamMode.set(mode.value); }
+
+	public LEDMode getLEDMode() { return LED_MODES[clampIndex(entLEDMode.get(), LED_MODES.length)]; }
+	public CamMode getCamMode() { return CAM_MODES[clampIndex(entCamMode.get(), CAM_MODES.length)]; }
+	public int getPipeline() { return (int)entPipeline.get(); }
+	public StreamMode getStreamMode() { return STREAM_MODES[clampIndex(entStreamMode.get(), STREAM_MODES.length)]; }
+
+	private static int clampIndex(double value, int length) { return Math.max(0, Math.min(length - 1, (int)value)); }
+}
@@ -0,0 +1,297 @@
+package frc.molib;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.ThreadMXBean;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.wpilibj.Alert;
+import edu.wpi.first.wpilibj.Alert.AlertType;
+import frc.molib.dashboard.DashboardValue;
+
+/**
+ * Measures how many bytes the main loop allocates, which part of the loop allocates them,
+ * and how often garbage collection pauses line up with loop overruns.
+ * <p>The loop is split into phases by calling {@link #mark(int)} at the end of each one. Allocations are read from the
+ * main thread's allocation counter, so they cost nothing to measure and ignore other threads.
+ * Garbage collection pauses are reported by the JVM on its own thread, and are counted against the loop that follows them.</p>
+ * <p>Alerts are raised when a loop allocates more than its budget, or the heap fills past its budget after collection.</p>
+ */
+public class LoopMonitor {
+	/** Number of loops between reads of heap usage, which allocates. */
+	private static final int HEAP_SAMPLE_LOOPS = 50;
+	/** Weight of each loop in the recent overrun rate. */
+	private static final double PRESSURE_SMOOTHING = 0.02;
+	/** Recent overrun rate above which the loop is considered under pressure. */
+	private static final double PRESSURE_THRESHOLD = 0.1;
+
+	private final String NAME;
+	private final String[] PHASE_NAMES;
+
+	private final ThreadMXBean mThreadBean;
+	private final MemoryMXBean mMemoryBean = ManagementFactory.getMemoryMXBean();
+	private final long mThreadId = Thread.currentThread().getId();
+	private final boolean mIsAllocationSupported;
+
+	//Written by the JVM's notification thread
+	private final AtomicLong mPendingGCCount = new AtomicLong();
+	private final AtomicLong mPendingGCTime = new AtomicLong();
+
+	//Configuration
+	private double mLoopPeriod = 0.02;
+	private long mAllocationBudget = 64 * 1024;
+	private double mHeapBudget = 0.8;
+
+	//Current Loop
+	private long mLoopStartTime = 0;
+	private long mLastMarkBytes = 0;
+	private long mLoopStartBytes = 0;
+	private final long[] mPhaseBytes;
+	/** Bytes of each phase of the last completed loop, which is what is published. */
+	private final long[] mLastPhaseBytes;
+
+	//Statistics
+	private final long[] mMaxPhaseBytes;
+	private final LatencyMonitor.Histogram mLoopTimes = new LatencyMonitor.Histogram();
+	private long mLoopCount = 0;
+	private long mLoopBytes = 0;
+	private long mMaxLoopBytes = 0;
+	private long mTotalBytes = 0;
+	private long mOverBudgetCount = 0;
+	private long mOverrunCount = 0;
+	private long mOverrunWithGCCount = 0;
+	private long mGCCount = 0;
+	private long mGCTime = 0;
+	private long mMaxGCTime = 0;
+	private double mMaxLoopTime = 0.0;
+	private double mHeapUsage = 0.0;
+	private double mOverrunRate = 0.0;
+
+	//Alerts
+	private final Alert altAllocation;
+	private final Alert altHeap;
+
+	//Dashboard Objects
+	private final DashboardValue<Double> dshLoopBytes;
+	private final DashboardValue<Double> dshMaxLoopBytes;
+	private final DashboardValue<Double> dshHeapUsage;
+	private final DashboardValue<Double> dshGCCount;
+	private final DashboardValue<Double> dshMaxGCTime;
+	private final DashboardValue<Double> dshOverruns;
+	private final DashboardValue<Double> dshOverrunsWithGC;
+	private final DashboardValue<Double>[] dshPhaseBytes;
+
+	/**
+	 * Constructor. <i>Must be constructed on the thread running the main loop.</i>
+	 * @param parentTable	Parent NetworkTable
+	 * @param name			Name of the loop, such as "Robot"
+	 * @param phaseNames	Names of each phase of the loop, in the order they run
+	 */
+	@SuppressWarnings("unchecked")
+	public LoopMonitor(NetworkTable parentTable, String name, String... phaseNames) {
+		NAME = name;
+		PHASE_NAMES = phaseNames.clone();
+		mPhaseBytes = new long[PHASE_NAMES.length];
+		mLastPhaseBytes = new long[PHASE_NAMES.length];
+		mMaxPhaseBytes = new long[PHASE_NAMES.length];
+
+		java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		mThreadBean = threadBean instanceof ThreadMXBean ? (ThreadMXBean)threadBean : null;
+		mIsAllocationSupported = mThreadBean != null && mThreadBean.isThreadAllocatedMemorySupported();
+		if(mIsAllocationSupported) mThreadBean.setThreadAllocatedMemoryEnabled(true);
+		else Console.logErr(NAME + " Loop Monitor: Thread allocation counting is not supported on this JVM!");
+
+		for(GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			if(!(gcBean instanceof NotificationEmitter)) continue;
+			((NotificationEmitter)gcBean).addNotificationListener((notification, handback) -> {
+				if(!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) return;
+				GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData)notification.getUserData());
+				mPendingGCCount.incrementAndGet();
+				mPendingGCTime.addAndGet(info.getGcInfo().getDuration());
+			}, null, null);
+		}
+
+		altAllocation = new Alert(NAME + " loop is allocating over budget", AlertType.kWarning);
+		altHeap = new Alert(NAME + " heap usage is over budget", AlertType.kWarning);
+
+		NetworkTable tblMonitor = parentTable.getSubTable(name + " Loop");
+		dshLoopBytes = new DashboardValue<Double>(tblMonitor, "Bytes per Loop");
+		dshMaxLoopBytes = new DashboardValue<Double>(tblMonitor, "Max Bytes per Loop");
+		dshHeapUsage = new DashboardValue<Double>(tblMonitor, "Heap Usage");
+		dshGCCount = new DashboardValue<Double>(tblMonitor, "GC Count");
+		dshMaxGCTime = new DashboardValue<Double>(tblMonitor, "Max GC Pause (ms)");
+		dshOverruns = new DashboardValue<Double>(tblMonitor, "Overruns");
+		dshOverrunsWithGC = new DashboardValue<Double>(tblMonitor, "Overruns with GC");
+		dshPhaseBytes = new DashboardValue[PHASE_NAMES.length];
+		for(int phase = 0; phase < PHASE_NAMES.length; phase++)
+			dshPhaseBytes[phase] = new DashboardValue<Double>(tblMonitor, "Bytes in " + PHASE_NAMES[phase]);
+	}
+
+	/**
+	 * Configure the expected loop period. Loops taking longer are counted as overruns.
+	 * @param period Loop period in seconds
+	 */
+	public void configLoopPeriod(double period) { mLoopPeriod = period; }
+
+	/**
+	 * Configure how many bytes a single loop may allocate before an alert is raised.
+	 * @param bytes Allocation budget per loop in bytes
+	 */
+	public void configAllocationBudget(long bytes) { mAllocationBudget = bytes; }
+
+	/**
+	 * Configure how full the heap may be before an alert is raised.
+	 * @param fraction Fraction of the maximum heap, from 0.0 to 1.0
+	 */
+	public void configHeapBudget(double fraction) { mHeapBudget = fraction; }
+
+	private long getAllocatedBytes() { return mIsAllocationSupported ? mThreadBean.getThreadAllocatedBytes(mThreadId) : 0; }
+
+	/** Call at the very start of each loop. */
+	public void startLoop() {
+		mLoopStartTime = System.nanoTime();
+		mLoopStartBytes = getAllocatedBytes();
+		mLastMarkBytes = mLoopStartBytes;
+		Arrays.fill(mPhaseBytes, 0L);
+	}
+
+	/**
+	 * Call at the end of a phase of the loop. Everything allocated since the last mark is counted against it.
+	 * @param phase Index of the phase, in the order given to the constructor
+	 */
+	public void mark(int phase) {
+		long bytes = getAllocatedBytes();
+		mPhaseBytes[phase] += bytes - mLastMarkBytes;
+		mLastMarkBytes = bytes;
+	}
+
+	/**
+	 * Call at the very end of each loop, after the last phase is marked.
+	 * Records the loop's allocations, checks for overruns and garbage collection, and updates the alerts.
+	 */
+	public void endLoop() {
+		double loopTime = (System.nanoTime() - mLoopStartTime) * 1.0e-9;
+		mLoopBytes = getAllocatedBytes() - mLoopStartBytes;
+		mLoopCount++;
+		mTotalBytes += mLoopBytes;
+		if(mLoopBytes > mMaxLoopBytes) mMaxLoopBytes = mLoopBytes;
+		if(loopTime > mMaxLoopTime) mMaxLoopTime = loopTime;
+		mLoopTimes.record(loopTime * 1.0e3);
+		for(int phase = 0; phase < mPhaseBytes.length; phase++) {
+			if(mPhaseBytes[phase] > mMaxPhaseBytes[phase]) mMaxPhaseBytes[phase] = mPhaseBytes[phase];
+		}
+		System.arraycopy(mPhaseBytes, 0, mLastPhaseBytes, 0, mPhaseBytes.length);
+
+		long gcCount = mPendingGCCount.getAndSet(0);
+		long gcTime = mPendingGCTime.getAndSet(0);
+		mGCCount += gcCount;
+		mGCTime += gcTime;
+		if(gcTime > mMaxGCTime) mMaxGCTime = gcTime;
+
+		boolean isOverrun = loopTime > mLoopPeriod;
+		if(isOverrun) {
+			mOverrunCount++;
+			if(gcCount > 0) mOverrunWithGCCount++;
+		}
+		mOverrunRate += ((isOverrun ? 1.0 : 0.0) - mOverrunRate) * PRESSURE_SMOOTHING;
+
+		boolean isOverBudget = mLoopBytes > mAllocationBudget;
+		if(isOverBudget) mOverBudgetCount++;
+		altAllocation.set(isOverBudget);
+
+		//Heap usage only means something right after a collection, and reading it allocates
+		if(gcCount > 0 || mLoopCount % HEAP_SAMPLE_LOOPS == 0) {
+			MemoryUsage heap = mMemoryBean.getHeapMemoryUsage();
+			mHeapUsage = heap.getMax() > 0 ? (double)heap.getUsed() / heap.getMax() : 0.0;
+			if(gcCount > 0) altHeap.set(mHeapUsage > mHeapBudget);
+		}
+	}
+
+	/** Bytes allocated by the last loop. */
+	public long getLoopBytes() { return mLoopBytes; }
+	/** Most bytes allocated by a single loop. */
+	public long getMaxLoopBytes() { return mMaxLoopBytes; }
+	/** Average bytes allocated per loop. */
+	public double getMeanLoopBytes() { return mLoopCount > 0 ? (double)mTotalBytes / mLoopCount : 0.0; }
+	/** Number of loops measured. */
+	public long getLoopCount() { return mLoopCount; }
+	/**
+	 * Estimate a percentile of the time spent running each loop.
+	 * @param percentile Percentile from 0.0 to 1.0
+	 * @return Loop time in milliseconds
+	 */
+	public double getLoopTimePercentile(double percentile) { return mLoopTimes.getPercentile(percentile); }
+	/** Number of loops that took longer than the loop period. */
+	public long getOverrunCount() { return mOverrunCount; }
+	/** Number of overruns during which the garbage collector ran. */
+	public long getOverrunWithGCCount() { return mOverrunWithGCCount; }
+	/** Fraction of the maximum heap in use, as of the last sample. */
+	public double getHeapUsage() { return mHeapUsage; }
+	/**
+	 * Determine if the loop is struggling to keep up, so optional work can be scaled back.
+	 * @return True if more than a tenth of recent loops overran the loop period
+	 */
+	public boolean isUnderPressure() { return mOverrunRate > PRESSURE_THRESHOLD; }
+	/** True if the last loop allocated more than its budget. */
+	public boolean isOverBudget() { return mLoopBytes > mAllocationBudget; }
+
+	/** 
+	 * Push the latest statistics to the Dashboard. 
+	 * <p><i>Bytes per loop and per phase are from the last completed loop, so they are consistent wherever in the loop this is called.</i></p>
+	 */
+	public void publish() {
+		dshLoopBytes.set((double)mLoopBytes);
+		dshMaxLoopBytes.set((double)mMaxLoopBytes);
+		dshHeapUsage.set(mHeapUsage);
+		dshGCCount.set((double)mGCCount);
+		dshMaxGCTime.set((double)mMaxGCTime);
+		dshOverruns.set((double)mOverrunCount);
+		dshOverrunsWithGC.set((double)mOverrunWithGCCount);
+		for(int phase = 0; phase < mPhaseBytes.length; phase++)
+			dshPhaseBytes[phase].set((double)mLastPhaseBytes[phase]);
+	}
+
+	/** Print a summary of the loop statistics to the Console, if any loops were measured. */
+	public void logSummary() {
+		if(mLoopCount == 0) return;
+		StringBuilder phases = new StringBuilder();
+		for(int phase = 0; phase < PHASE_NAMES.length; phase++)
+			phases.append(phase == 0 ? "" : ", ").append(PHASE_NAMES[phase]).append(' ').append(mMaxPhaseBytes[phase]);
+		Console.logMsg(NAME + " Loop [" + mLoopCount + " loops]"
+			+ " Allocated: mean " + String.format("%.0f", getMeanLoopBytes())
+			+ "B, max " + mMaxLoopBytes + "B, over budget " + mOverBudgetCount
+			+ " | Max per phase: " + phases
+			+ " | GC: " + mGCCount + " pauses, " + mGCTime + "ms total, max " + mMaxGCTime + "ms"
+			+ " | Overruns: " + mOverrunCount + ", " + mOverrunWithGCCount + " with GC, p50 loop " + String.format("%.1f", getLoopTimePercentile(0.5))
+			+ "ms, max loop " + String.format("%.1f", mMaxLoopTime * 1.0e3) + "ms"
+			+ " | Heap " + String.format("%.0f", mHeapUsage * 100.0) + "%");
+	}
+
+	/** Clear all statistics. */
+	public void reset() {
+		Arrays.fill(mPhaseBytes, 0L);
+		Arrays.fill(mLastPhaseBytes, 0L);
+		Arrays.fill(mMaxPhaseBytes, 0L);
+		mLoopTimes.reset();
+		mLoopCount = 0;
+		mLoopBytes = 0;
+		mMaxLoopBytes = 0;
+		mTotalBytes = 0;
+		mOverBudgetCount = 0;
+		mOverrunCount = 0;
+		mOverrunWithGCCount = 0;
+		mGCCount = 0;
+		mGCTime = 0;
+		mMaxGCTime = 0;
+		mMaxLoopTime = 0.0;
+	}
+}
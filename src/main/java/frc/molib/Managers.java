@@ -2,20 +2,28 @@ package frc.molib;
 
 import frc.molib.buttons.ButtonManager;
 import frc.molib.dashboard.DashboardManager;
+import frc.molib.hid.HIDSnapshot;
+import frc.molib.sensors.SensorManager;
 
 /** 
  * Handle the growing list of 'Manager' classes in MOLib
  * 
+ * @see HIDSnapshot
  * @see ButtonManager
  * @see DashboardManager
+ * @see SensorManager
  */
 public class Managers {
     private Managers() { throw new AssertionError("Utility Class"); }
 
     /**
      * Calls an update to all 'Manager' classes
+     * <p><i>Controller inputs are captured first so Buttons are evaluated against this loop's snapshot.
+     * Sensors are read next, so every Subsystem and Binding sees the same readings.</i></p>
      */
     public static void update() {
+        HIDSnapshot.update();
+        SensorManager.updateValues();
         ButtonManager.updateValues();
         DashboardManager.updateValues();
     }
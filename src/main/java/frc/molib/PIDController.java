@@ -31,9 +31,21 @@ public class PIDController extends edu.wpi.first.math.controller.PIDController {
 	}
 
 	public boolean isEnabled() { return mEnabled; }
-	public void enable() { mEnabled = true; }
 	public void disable() { mEnabled = false; }
 
+	/**
+	 * Enable the controller. If it was disabled, the accumulated integral and previous error are cleared first, 
+	 * so nothing built up before it was disabled carries into the new run.
+	 * <p><i>Calling again while already enabled, such as to move the setpoint, keeps the accumulated state.</i></p>
+	 */
+	public void enable() {
+		if(!mEnabled) {
+			reset();
+			tmrAtSetpoint.reset();
+		}
+		mEnabled = true;
+	}
+
 	/**
 	 * Configure the time requirement for being on target.
 	 * @param time Time requirement in seconds
@@ -0,0 +1,78 @@
+package frc.molib.auto;
+
+import frc.molib.Clock;
+
+/**
+ * A single step of an autonomous routine, which can be combined with others into groups.
+ * <p>Actions are built once, ahead of time, and can be started again without allocating.
+ * Subclasses override {@link #initialize()}, {@link #execute()}, {@link #isFinished()} and {@link #end(boolean)}.</p>
+ * <p>Any Action can be given a timeout, after which it is ended as though interrupted. Time is read from the {@link Clock}.</p>
+ */
+public abstract class Action {
+	private double mTimeout = Double.POSITIVE_INFINITY;
+	private double mStartTime = 0.0;
+	private boolean mIsRunning = false;
+	private boolean mIsTimedOut = false;
+
+	/** Called once when the Action starts. */
+	protected void initialize() {}
+	/** Called every loop while the Action is running. */
+	protected void execute() {}
+	/** Called every loop after {@link #execute()}. Actions that never finish on their own return false. */
+	protected boolean isFinished() { return true; }
+	/**
+	 * Called once when the Action stops.
+	 * @param interrupted True if the Action was cancelled or timed out rather than finishing
+	 */
+	protected void end(boolean interrupted) {}
+
+	/**
+	 * End the Action as interrupted if it runs too long.
+	 * @param timeout Time in seconds
+	 * @return This Action, for chaining
+	 */
+	public Action withTimeout(double timeout) {
+		mTimeout = timeout;
+		return this;
+	}
+
+	/** Start the Action from the beginning. */
+	public final void start() {
+		mStartTime = Clock.getTimestamp();
+		mIsTimedOut = false;
+		mIsRunning = true;
+		initialize();
+	}
+
+	/**
+	 * Run the Action for one loop, ending it if it is finished or timed out.
+	 * @return True once the Action has stopped
+	 */
+	public final boolean update() {
+		if(!mIsRunning) return true;
+		execute();
+		if(isFinished()) {
+			mIsRunning = false;
+			end(false);
+		} else if(getElapsedTime() >= mTimeout) {
+			mIsRunning = false;
+			mIsTimedOut = true;
+			end(true);
+		}
+		return !mIsRunning;
+	}
+
+	/** Stop the Action early, if it is running. */
+	public final void cancel() {
+		if(!mIsRunning) return;
+		mIsRunning = false;
+		end(true);
+	}
+
+	/** True between starting and stopping. */
+	public final boolean isRunning() { return mIsRunning; }
+	/** True if the Action was stopped by its timeout. */
+	public final boolean isTimedOut() { return mIsTimedOut; }
+	/** Time since the Action started, in seconds. */
+	public final double getElapsedTime() { return Clock.getTimestamp() - mStartTime; }
+}
@@ -0,0 +1,34 @@
+package frc.molib.auto;
+
+/** Runs Actions alongside a deadline Action, finishing when the deadline does and cancelling the rest. */
+public class DeadlineAction extends Action {
+	private final Action DEADLINE;
+	private final Action[] ACTIONS;
+
+	/**
+	 * Constructor
+	 * @param deadline	Action that decides when the group finishes
+	 * @param actions	Actions to run until then
+	 */
+	public DeadlineAction(Action deadline, Action... actions) {
+		DEADLINE = deadline;
+		ACTIONS = actions;
+	}
+
+	@Override protected void initialize() {
+		DEADLINE.start();
+		for(Action action : ACTIONS) action.start();
+	}
+
+	@Override protected void execute() {
+		for(Action action : ACTIONS) action.update();
+		DEADLINE.update();
+	}
+
+	@Override protected boolean isFinished() { return !DEADLINE.isRunning(); }
+
+	@Override protected void end(boolean interrupted) {
+		DEADLINE.cancel();
+		for(Action action : ACTIONS) action.cancel();
+	}
+}
@@ -0,0 +1,14 @@
+package frc.molib.auto;
+
+/** Runs once and finishes immediately, such as to enable a PID or log a message. */
+public class InstantAction extends Action {
+	private final Runnable ACTION;
+
+	/**
+	 * Constructor
+	 * @param action Run once when the Action starts
+	 */
+	public InstantAction(Runnable action) { ACTION = action; }
+
+	@Override protected void initialize() { ACTION.run(); }
+}
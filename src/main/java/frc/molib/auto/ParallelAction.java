@@ -0,0 +1,30 @@
+package frc.molib.auto;
+
+/** Runs Actions at the same time, finishing when all of them have. */
+public class ParallelAction extends Action {
+	private final Action[] ACTIONS;
+
+	/**
+	 * Constructor
+	 * @param actions Actions to run together
+	 */
+	public ParallelAction(Action... actions) { ACTIONS = actions; }
+
+	@Override protected void initialize() {
+		for(Action action : ACTIONS) action.start();
+	}
+
+	@Override protected void execute() {
+		for(Action action : ACTIONS) action.update();
+	}
+
+	@Override protected boolean isFinished() {
+		for(Action action : ACTIONS)
+			if(action.isRunning()) return false;
+		return true;
+	}
+
+	@Override protected void end(boolean interrupted) {
+		for(Action action : ACTIONS) action.cancel();
+	}
+}
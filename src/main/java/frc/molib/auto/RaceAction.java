@@ -0,0 +1,29 @@
+package frc.molib.auto;
+
+/** Runs Actions at the same time, finishing as soon as any one of them does and cancelling the rest. */
+public class RaceAction extends Action {
+	private final Action[] ACTIONS;
+	private boolean mIsAnyFinished = false;
+
+	/**
+	 * Constructor
+	 * @param actions Actions to race
+	 */
+	public RaceAction(Action... actions) { ACTIONS = actions; }
+
+	@Override protected void initialize() {
+		mIsAnyFinished = false;
+		for(Action action : ACTIONS) action.start();
+	}
+
+	@Override protected void execute() {
+		for(Action action : ACTIONS)
+			if(action.update()) mIsAnyFinished = true;
+	}
+
+	@Override protected boolean isFinished() { return mIsAnyFinished || ACTIONS.length == 0; }
+
+	@Override protected void end(boolean interrupted) {
+		for(Action action : ACTIONS) action.cancel();
+	}
+}
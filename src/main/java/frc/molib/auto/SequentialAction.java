@@ -0,0 +1,32 @@
+package frc.molib.auto;
+
+/** Runs Actions one after another, finishing when the last one does. */
+public class SequentialAction extends Action {
+	private final Action[] ACTIONS;
+	private int mIndex = 0;
+
+	/**
+	 * Constructor
+	 * @param actions Actions to run, in order
+	 */
+	public SequentialAction(Action... actions) { ACTIONS = actions; }
+
+	@Override protected void initialize() {
+		mIndex = 0;
+		if(ACTIONS.length > 0) ACTIONS[0].start();
+	}
+
+	@Override protected void execute() {
+		//Move on within the same loop, so instant Actions do not cost a loop each
+		while(mIndex < ACTIONS.length && ACTIONS[mIndex].update()) {
+			mIndex++;
+			if(mIndex < ACTIONS.length) ACTIONS[mIndex].start();
+		}
+	}
+
+	@Override protected boolean isFinished() { return mIndex >= ACTIONS.length; }
+
+	@Override protected void end(boolean interrupted) {
+		if(interrupted && mIndex < ACTIONS.length) ACTIONS[mIndex].cancel();
+	}
+}
@@ -0,0 +1,24 @@
+package frc.molib.auto;
+
+import java.util.function.DoubleSupplier;
+
+/** Does nothing for a period of time. */
+public class WaitAction extends Action {
+	private final DoubleSupplier TIME;
+	private double mTime = 0.0;
+
+	/**
+	 * Constructor
+	 * @param time Time to wait, in seconds, read each time the Action starts
+	 */
+	public WaitAction(DoubleSupplier time) { TIME = time; }
+
+	/**
+	 * Constructor
+	 * @param time Time to wait, in seconds
+	 */
+	public WaitAction(double time) { this(() -> time); }
+
+	@Override protected void initialize() { mTime = TIME.getAsDouble(); }
+	@Override protected boolean isFinished() { return getElapsedTime() >= mTime; }
+}
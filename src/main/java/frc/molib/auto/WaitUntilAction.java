@@ -0,0 +1,16 @@
+package frc.molib.auto;
+
+import java.util.function.BooleanSupplier;
+
+/** Does nothing until a condition is true, such as a Subsystem reaching its target. */
+public class WaitUntilAction extends Action {
+	private final BooleanSupplier CONDITION;
+
+	/**
+	 * Constructor
+	 * @param condition Checked every loop; the Action finishes once it is true
+	 */
+	public WaitUntilAction(BooleanSupplier condition) { CONDITION = condition; }
+
+	@Override protected boolean isFinished() { return CONDITION.getAsBoolean(); }
+}
@@ -0,0 +1,108 @@
+package frc.molib.buttons;
+
+/**
+ * An action tied to a {@link Button} event.
+ * <p>Created through the binding methods on {@link Button} and dispatched by {@link ButtonManager} once per loop.</p>
+ */
+final class Binding {
+	/** The Button event that triggers the action. */
+	enum Type {
+		/** Runs once when the Button is pressed. */
+		PRESS,
+		/** Runs once when the Button is released. */
+		RELEASE,
+		/** Runs every loop while the Button is held, then the end action once on release. */
+		WHILE_HELD,
+		/** Alternates between the action and the end action on each press. */
+		TOGGLE,
+		/** Runs once after the Button has been held for the configured time. */
+		LONG_PRESS,
+		/** Runs once when the Button is pressed twice within the configured time. */
+		DOUBLE_TAP
+	}
+
+	private final Button mButton;
+	private final Type mType;
+	private final Runnable mAction;
+	private final Runnable mEndAction;
+	private final double mTime;
+
+	private boolean mActive = false;
+	private double mLastTapTime = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * Constructor
+	 * @param button	Button to watch
+	 * @param type		Event that triggers the action
+	 * @param action	Action to run
+	 * @param endAction	Action to run when a held or toggled action ends, may be null
+	 * @param time		Hold time or double-tap window in seconds, if used by the type
+	 */
+	Binding(Button button, Type type, Runnable action, Runnable endAction, double time) {
+		mButton = button;
+		mType = type;
+		mAction = action;
+		mEndAction = endAction;
+		mTime = time;
+	}
+
+	/** The Button this binding watches. */
+	Button getButton() { return mButton; }
+
+	/**
+	 * Checks the Button's latest state and runs the action if its event occurred.
+	 * @param timestamp Current FPGA time in seconds
+	 */
+	void dispatch(double timestamp) {
+		switch(mType) {
+			case PRESS:
+				if(mButton.wasPressed()) mAction.run();
+				break;
+			case RELEASE:
+				if(mButton.wasReleased()) mAction.run();
+				break;
+			case WHILE_HELD:
+				if(mButton.isHeld()) {
+					mActive = true;
+					mAction.run();
+				} else if(mActive) {
+					cancel();
+				}
+				break;
+			case TOGGLE:
+				if(mButton.wasPressed()) {
+					mActive = !mActive;
+					if(mActive) mAction.run();
+					else runEndAction();
+				}
+				break;
+			case LONG_PRESS:
+				if(!mButton.isHeld()) {
+					mActive = false;
+				} else if(!mActive && mButton.getHeldTime(timestamp) >= mTime) {
+					mActive = true;
+					mAction.run();
+				}
+				break;
+			case DOUBLE_TAP:
+				if(mButton.wasPressed()) {
+					if(timestamp - mLastTapTime <= mTime) {
+						mLastTapTime = Double.NEGATIVE_INFINITY;
+						mAction.run();
+					} else {
+						mLastTapTime = timestamp;
+					}
+				}
+				break;
+		}
+	}
+
+	/** Ends any held or toggled action and clears tracked state. */
+	void cancel() {
+		if(mActive && (mType == Type.WHILE_HELD || mType == Type.TOGGLE)) runEndAction();
+		mActive = false;
+		mLastTapTime = Double.NEGATIVE_INFINITY;
+	}
+
+	private void runEndAction() { if(mEndAction != null) mEndAction.run(); }
+}
@@ -5,26 +5,33 @@ import edu.wpi.first.util.sendable.SendableBuilder;
 import edu.wpi.first.util.sendable.SendableRegistry;
 
 /**
- * A non-command based Button class. 
+ * A non-command based Button class.
  * <p>Sub-class this and override the {@link #get()} method to determine how the button value is read.</p>
+ * <p>Actions can be bound to Button events, such as {@link #onPress(Runnable)},
+ * and are run by the {@link ButtonManager} while bindings are enabled.</p>
  * @see edu.wpi.first.wpilibj2.command.button.
  */
 public class Button implements Sendable {
 	protected volatile boolean mSendableValue;
 	private static int mInstanceCount;
 
-	protected boolean mLastPressed = grab();
-	protected boolean mLastReleased = !grab();
-
-	protected boolean mLastGrab = grab();
 	protected boolean mPressed = false;
 	protected boolean mReleased = false;
 
+	private double mDebounceTime = 0.0;
+	private boolean mRawState = false;
+	private double mRawChangeTime = Double.NEGATIVE_INFINITY;
+
+	private boolean mState = false;
+	private boolean mRisingEdge = false;
+	private boolean mFallingEdge = false;
+	private double mPressTime = 0.0;
+
 	/**
 	 * Constructor
 	 * <p>Uses the default method of naming the Button</p>
 	 */
-	public Button() { 
+	public Button() {
 		mInstanceCount++;
 		SendableRegistry.addLW(this, "Button[" + mInstanceCount + "]");
 		ButtonManager.addButton(this);
@@ -50,13 +57,19 @@ public class Button implements Sendable {
 		SendableRegistry.addLW(this, subsystem, "Button[" + name + "]");
 		ButtonManager.addButton(this);
 	}
-	
+
 	/**
 	 * Default implementation simply returns the LiveWindow 'value' property. Override this method to change how the value is read.
 	 * @return True when the LiveWindow 'value' reads true.
 	 */
 	public boolean get() { return mSendableValue; }
 
+	/**
+	 * Configure how long the value must stay unchanged before a press or release is registered.
+	 * @param time Debounce time in seconds
+	 */
+	public void configDebounce(double time) { mDebounceTime = Math.abs(time); }
+
 	/**
 	 * Whether the button was pressed since the last check.
 	 * @return True if the button has been pressed.
@@ -83,15 +96,113 @@ public class Button implements Sendable {
 		}
 	}
 
+	/**
+	 * The debounced state of the button as of the last update.
+	 * <p><i>Does not consume anything, any number of readers may check it.</i></p>
+	 * @return True if the button is held.
+	 */
+	public final boolean isHeld() { return mState; }
+
+	/** Reads true only during the update the button was pressed. Does not consume the press. */
+	public final boolean wasPressed() { return mRisingEdge; }
+
+	/** Reads true only during the update the button was released. Does not consume the release. */
+	public final boolean wasReleased() { return mFallingEdge; }
+
+	/**
+	 * How long the button has been held.
+	 * @param timestamp Current FPGA time in seconds
+	 * @return Seconds since the button was pressed, or 0.0 if not held
+	 */
+	public final double getHeldTime(double timestamp) { return mState ? timestamp - mPressTime : 0.0; }
+
+	/**
+	 * Run an action once each time the button is pressed.
+	 * @param action Action to run
+	 * @return This button, for chaining bindings
+	 */
+	public final Button onPress(Runnable action) {
+		return bind(Binding.Type.PRESS, action, null, 0.0);
+	}
+
+	/**
+	 * Run an action once each time the button is released.
+	 * @param action Action to run
+	 * @return This button, for chaining bindings
+	 */
+	public final Button onRelease(Runnable action) {
+		return bind(Binding.Type.RELEASE, action, null, 0.0);
+	}
+
+	/**
+	 * Run an action every update while the button is held.
+	 * @param action 	Action to run while held
+	 * @param endAction Action to run once on release, may be null
+	 * @return This button, for chaining bindings
+	 */
+	public final Button whileHeld(Runnable action, Runnable endAction) {
+		return bind(Binding.Type.WHILE_HELD, action, endAction, 0.0);
+	}
+
+	/**
+	 * Alternate between two actions each time the button is pressed.
+	 * @param onAction 	Action to run on the first press
+	 * @param offAction Action to run on the next press
+	 * @return This button, for chaining bindings
+	 */
+	public final Button toggle(Runnable onAction, Runnable offAction) {
+		return bind(Binding.Type.TOGGLE, onAction, offAction, 0.0);
+	}
+
+	/**
+	 * Run an action once after the button has been held long enough.
+	 * @param time 		Time the button must be held in seconds
+	 * @param action 	Action to run
+	 * @return This button, for chaining bindings
+	 */
+	public final Button onLongPress(double time, Runnable action) {
+		return bind(Binding.Type.LONG_PRESS, action, null, time);
+	}
+
+	/**
+	 * Run an action once when the button is pressed twice in quick succession.
+	 * @param window 	Most time allowed between presses in seconds
+	 * @param action 	Action to run
+	 * @return This button, for chaining bindings
+	 */
+	public final Button onDoubleTap(double window, Runnable action) {
+		return bind(Binding.Type.DOUBLE_TAP, action, null, window);
+	}
+
+	private Button bind(Binding.Type type, Runnable action, Runnable endAction, double time) {
+		ButtonManager.addBinding(new Binding(this, type, action, endAction, time));
+		return this;
+	}
+
 	private boolean grab() { return get() || mSendableValue; }
 
-	protected void updateValues() {
+	/**
+	 * Reads the button and updates its debounced state and edges.
+	 * @param timestamp Current FPGA time in seconds
+	 */
+	protected void updateValues(double timestamp) {
 		boolean currentGrab = grab();
 
-		if (currentGrab && !mLastGrab) mPressed = true;
-        if (!currentGrab && mLastGrab) mReleased = true;
-        
-        mLastGrab = grab();
+		if (currentGrab != mRawState) {
+			mRawState = currentGrab;
+			mRawChangeTime = timestamp;
+		}
+
+		boolean state = (timestamp - mRawChangeTime >= mDebounceTime) ? mRawState : mState;
+		mRisingEdge = state && !mState;
+		mFallingEdge = !state && mState;
+		mState = state;
+
+		if (mRisingEdge) {
+			mPressed = true;
+			mPressTime = timestamp;
+		}
+		if (mFallingEdge) mReleased = true;
 	}
 
 	@Override
@@ -99,7 +210,7 @@ public class Button implements Sendable {
 		builder.setSmartDashboardType("MOLib Button");
 		builder.setSafeState(() -> mSendableValue = false);
 		builder.addBooleanProperty("value", this::get, value -> mSendableValue = value);
-		builder.addBooleanProperty("pressed", () -> mLastPressed, null);
-		builder.addBooleanProperty("released", () -> mLastReleased, null);
+		builder.addBooleanProperty("pressed", () -> mRisingEdge, null);
+		builder.addBooleanProperty("released", () -> mFallingEdge, null);
 	}
-}
\ No newline at end of file
+}
@@ -1,13 +1,22 @@
 package frc.molib.buttons;
 
-import java.util.Vector;
+import java.util.Arrays;
+
+import edu.wpi.first.wpilibj.Timer;
 
 /**
- * Utility class for managing instances of {@link frc.molib.buttons.Button}. 
+ * Utility class for managing instances of {@link frc.molib.buttons.Button}.
  * <p>Update frequently to maintain the most updated values.</p>
+ * <p>Buttons and their bindings are kept in flat arrays, updated and dispatched in a single pass each loop.</p>
  */
 public final class ButtonManager {
-	private static Vector<Button> mButtonList = new Vector<Button>();
+	private static Button[] mButtons = new Button[16];
+	private static int mButtonCount = 0;
+
+	private static Binding[] mBindings = new Binding[16];
+	private static int mBindingCount = 0;
+
+	private static boolean mBindingsEnabled = false;
 
 	private ButtonManager() { throw new AssertionError("Utility Class"); }
 
@@ -15,25 +24,77 @@ public final class ButtonManager {
 	 * Adds a new button to the manager
 	 * @param button New button
 	 */
-	protected static void addButton(Button button) { mButtonList.addElement(button); }
+	protected static void addButton(Button button) {
+		if (mButtonCount == mButtons.length) mButtons = Arrays.copyOf(mButtons, mButtonCount * 2);
+		mButtons[mButtonCount++] = button;
+	}
 
 	/**
-	 * Removes a specific button
+	 * Removes a specific button, along with any of its bindings
 	 * @param button Button to remove
 	 */
-	protected static void removeButton(Button button) { mButtonList.remove(button); }
+	protected static void removeButton(Button button) {
+		for (int index = 0; index < mButtonCount; index++) {
+			if (mButtons[index] == button) {
+				System.arraycopy(mButtons, index + 1, mButtons, index, mButtonCount - index - 1);
+				mButtons[--mButtonCount] = null;
+				break;
+			}
+		}
+
+		int kept = 0;
+		for (int index = 0; index < mBindingCount; index++)
+			if (mBindings[index].getButton() != button) mBindings[kept++] = mBindings[index];
+		Arrays.fill(mBindings, kept, mBindingCount, null);
+		mBindingCount = kept;
+	}
 
 	/**
-	 * Removes all buttons 
+	 * Adds a new binding to be dispatched each update
+	 * @param binding New binding
 	 */
-	public static void removeAll() { mButtonList.clear(); }
+	static void addBinding(Binding binding) {
+		if (mBindingCount == mBindings.length) mBindings = Arrays.copyOf(mBindings, mBindingCount * 2);
+		mBindings[mBindingCount++] = binding;
+	}
 
 	/**
-	 * Grabs new values for all registered buttons
+	 * Removes all buttons and bindings
+	 */
+	public static void removeAll() {
+		Arrays.fill(mButtons, null);
+		Arrays.fill(mBindings, null);
+		mButtonCount = 0;
+		mBindingCount = 0;
+	}
+
+	/**
+	 * Start running button bindings each update.
+	 * <p><i>Typically called at the start of a Control Period that uses them.</i></p>
+	 */
+	public static void enableBindings() { mBindingsEnabled = true; }
+
+	/**
+	 * Stop running button bindings. Any held or toggled actions are ended.
+	 */
+	public static void disableBindings() {
+		mBindingsEnabled = false;
+		for (int index = 0; index < mBindingCount; index++)
+			mBindings[index].cancel();
+	}
+
+	/**
+	 * Grabs new values for all registered buttons, then runs any bindings whose event occurred
 	 */
 	public static void updateValues() {
-		for (Button btnTemp : mButtonList)
-			btnTemp.updateValues();
+		double timestamp = Timer.getFPGATimestamp();
+
+		for (int index = 0; index < mButtonCount; index++)
+			mButtons[index].updateValues(timestamp);
+
+		if (mBindingsEnabled)
+			for (int index = 0; index < mBindingCount; index++)
+				mBindings[index].dispatch(timestamp);
 	}
 
 	/**
@@ -41,9 +102,9 @@ public final class ButtonManager {
 	 * <p><i>Useful to run at the start of each game period to avoid flags raised while disabled.</i></p>
 	 */
 	public static void clearFlags() {
-		for(Button btnTemp : mButtonList){
-			btnTemp.getPressed();
-			btnTemp.getReleased();
+		for (int index = 0; index < mButtonCount; index++) {
+			mButtons[index].getPressed();
+			mButtons[index].getReleased();
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,27 @@
+package frc.molib.buttons;
+
+/**
+ * A {@link Button} that reads as held only while every one of its member Buttons is held,
+ * such as a bumper plus a face button.
+ * <p>Bind actions to it the same as any other Button.</p>
+ */
+public class ChordButton extends Button {
+	private final Button[] mButtons;
+
+	/**
+	 * Constructor
+	 * @param buttons Buttons that must all be held together
+	 */
+	public ChordButton(Button... buttons) {
+		super();
+		mButtons = buttons;
+	}
+
+	@Override
+	public boolean get() {
+		if (mButtons == null) return false;
+		for (int index = 0; index < mButtons.length; index++)
+			if (!mButtons[index].get()) return false;
+		return true;
+	}
+}
@@ -0,0 +1,133 @@
+package frc.molib.camera;
+
+import org.opencv.core.Mat;
+import org.opencv.imgproc.Imgproc;
+
+import edu.wpi.first.apriltag.AprilTagDetection;
+import edu.wpi.first.apriltag.AprilTagDetector;
+import edu.wpi.first.apriltag.AprilTagPoseEstimator;
+import edu.wpi.first.cscore.OpenCvLoader;
+import edu.wpi.first.math.geometry.Transform3d;
+
+/**
+ * Finds AprilTags in a camera frame and locates each one relative to the robot.
+ * <p>Not thread-safe; each thread needs its own. Used by the {@link AprilTagThread}, and directly to benchmark recorded frames.</p>
+ */
+public class AprilTagProcessor {
+	/** Lowest decision margin a detection needs to be kept. */
+	private static final double MIN_DECISION_MARGIN = 20.0;
+
+	private final AprilTagDetector mDetector = new AprilTagDetector();
+	private final Mat mGray;
+
+	//Camera
+	private final double TAG_SIZE;
+	private final int REFERENCE_WIDTH;
+	private final int REFERENCE_HEIGHT;
+	private final double FOCAL_X;
+	private final double FOCAL_Y;
+	private final double CENTER_X;
+	private final double CENTER_Y;
+
+	//Camera Mounting, relative to the robot's center
+	private double mCameraX = 0.0;
+	private double mCameraY = 0.0;
+	private double mCameraYaw = 0.0;
+
+	private AprilTagPoseEstimator mPoseEstimator = null;
+	private int mPoseEstimatorWidth = 0;
+	private int mPoseEstimatorHeight = 0;
+
+	/**
+	 * Constructor. Camera intrinsics are given at a reference resolution, and scaled to the size of each frame:
+	 * horizontal values by its width, vertical values by its height.
+	 * @param family			AprilTag family, such as "tag36h11"
+	 * @param tagSize			Width of the black square of the AprilTag, in meters
+	 * @param referenceWidth	Image width the intrinsics were measured at, in pixels
+	 * @param referenceHeight	Image height the intrinsics were measured at, in pixels
+	 * @param focalX			Horizontal focal length, in pixels
+	 * @param focalY			Vertical focal length, in pixels
+	 * @param centerX			Horizontal optical center, in pixels
+	 * @param centerY			Vertical optical center, in pixels
+	 */
+	public AprilTagProcessor(String family, double tagSize, int referenceWidth, int referenceHeight, double focalX, double focalY, double centerX, double centerY) {
+		OpenCvLoader.forceStaticLoad();
+		mGray = new Mat();
+
+		TAG_SIZE = tagSize;
+		REFERENCE_WIDTH = referenceWidth;
+		REFERENCE_HEIGHT = referenceHeight;
+		FOCAL_X = focalX;
+		FOCAL_Y = focalY;
+		CENTER_X = centerX;
+		CENTER_Y = centerY;
+
+		mDetector.addFamily(family);
+		AprilTagDetector.Config config = mDetector.getConfig();
+		config.numThreads = 1;
+		config.quadDecimate = 1.0f;
+		mDetector.setConfig(config);
+	}
+
+	/**
+	 * Configure where the camera is mounted on the robot.
+	 * @param x		Distance in front of the robot's center, in meters
+	 * @param y		Distance to the left of the robot's center, in meters
+	 * @param yaw	Angle the camera faces, in radians counter-clockwise from forward
+	 */
+	public void configMounting(double x, double y, double yaw) {
+		mCameraX = x;
+		mCameraY = y;
+		mCameraYaw = yaw;
+	}
+
+	/**
+	 * Find every AprilTag in a frame.
+	 * @param frame		Color or grayscale frame. Not modified.
+	 * @param timestamp	FPGA time the frame was captured, in seconds
+	 * @param result	Result to fill; anything already in it is replaced
+	 */
+	public void process(Mat frame, double timestamp, AprilTagResult result) {
+		Mat gray = frame;
+		if(frame.channels() != 1) {
+			Imgproc.cvtColor(frame, mGray, Imgproc.COLOR_BGR2GRAY);
+			gray = mGray;
+		}
+
+		//Intrinsics scale with resolution, which changes with the camera's profile, and not always at the same aspect ratio
+		if(mPoseEstimator == null || mPoseEstimatorWidth != gray.cols() || mPoseEstimatorHeight != gray.rows()) {
+			double scaleX = (double)gray.cols() / REFERENCE_WIDTH;
+			double scaleY = (double)gray.rows() / REFERENCE_HEIGHT;
+			mPoseEstimator = new AprilTagPoseEstimator(new AprilTagPoseEstimator.Config(TAG_SIZE, FOCAL_X * scaleX, FOCAL_Y * scaleY, CENTER_X * scaleX, CENTER_Y * scaleY));
+			mPoseEstimatorWidth = gray.cols();
+			mPoseEstimatorHeight = gray.rows();
+		}
+
+		result.mTimestamp = timestamp;
+		result.mCount = 0;
+		double cos = Math.cos(mCameraYaw);
+		double sin = Math.sin(mCameraYaw);
+		for(AprilTagDetection detection : mDetector.detect(gray)) {
+			if(result.mCount == AprilTagResult.MAX_TAGS) break;
+			if(detection.getHamming() > 0 || detection.getDecisionMargin() < MIN_DECISION_MARGIN) continue;
+
+			//Camera frame is x right, y down, z forward
+			Transform3d cameraToTag = mPoseEstimator.estimate(detection);
+			double forward = cameraToTag.getZ();
+			double left = -cameraToTag.getX();
+
+			int index = result.mCount++;
+			result.mIDs[index] = detection.getId();
+			result.mDecisionMargins[index] = detection.getDecisionMargin();
+			result.mRobotX[index] = mCameraX + forward * cos - left * sin;
+			result.mRobotY[index] = mCameraY + forward * sin + left * cos;
+			result.mDistances[index] = cameraToTag.getTranslation().getNorm();
+		}
+	}
+
+	/** Free the detector and image memory. */
+	public void close() {
+		mDetector.close();
+		mGray.release();
+	}
+}
@@ -0,0 +1,38 @@
+package frc.molib.camera;
+
+/**
+ * The AprilTags found in a single camera frame, each as a position relative to the robot.
+ * <p>Held in fixed-size arrays and reused from frame to frame, so passing results between threads does not allocate.</p>
+ */
+public final class AprilTagResult {
+	/** Most AprilTags kept from a single frame. */
+	public static final int MAX_TAGS = 16;
+
+	long mSequence = 0;
+	double mTimestamp = 0.0;
+	int mCount = 0;
+
+	final int[] mIDs = new int[MAX_TAGS];
+	final double[] mDecisionMargins = new double[MAX_TAGS];
+	final double[] mRobotX = new double[MAX_TAGS];
+	final double[] mRobotY = new double[MAX_TAGS];
+	final double[] mDistances = new double[MAX_TAGS];
+
+	/** Increases with every frame processed, to tell new results from old. */
+	public long getSequence() { return mSequence; }
+	/** FPGA time the frame was captured, in seconds. */
+	public double getTimestamp() { return mTimestamp; }
+	/** Number of AprilTags found. */
+	public int getCount() { return mCount; }
+
+	/** ID of a found AprilTag. */
+	public int getID(int index) { return mIDs[index]; }
+	/** How confidently a found AprilTag was decoded. Higher is better. */
+	public double getDecisionMargin(int index) { return mDecisionMargins[index]; }
+	/** Distance of a found AprilTag in front of the robot's center, in meters. */
+	public double getRobotX(int index) { return mRobotX[index]; }
+	/** Distance of a found AprilTag to the left of the robot's center, in meters. */
+	public double getRobotY(int index) { return mRobotY[index]; }
+	/** Straight-line distance from the camera to a found AprilTag, in meters. */
+	public double getDistance(int index) { return mDistances[index]; }
+}
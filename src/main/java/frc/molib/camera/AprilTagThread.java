@@ -0,0 +1,114 @@
+package frc.molib.camera;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.opencv.core.Mat;
+
+import edu.wpi.first.cameraserver.CameraServer;
+import edu.wpi.first.cscore.CvSink;
+import edu.wpi.first.cscore.VideoSource;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Finds AprilTags in camera frames on its own thread, so the main loop is never held up by image processing.
+ * <p>Only the newest frame is processed: frames that arrive while one is being processed are dropped, and so are frames
+ * that were already too old by the time they were grabbed. Results are handed to the main loop through three rotating
+ * {@link AprilTagResult}s, so neither thread waits on the other and nothing is allocated.</p>
+ * <p><i>Call {@link #update()} once per loop, then read {@link #getResult()}.</i></p>
+ */
+public class AprilTagThread {
+	/** Longest wait for a frame before checking whether to keep running, in seconds. */
+	private static final double FRAME_TIMEOUT = 0.5;
+	/** Oldest a frame may be when grabbed to still be processed, in seconds. */
+	private static final double MAX_FRAME_AGE = 0.2;
+	/** Time between checks while not enabled, in milliseconds. */
+	private static final long IDLE_PERIOD = 100;
+
+	private final CvSink mSink;
+	private final AprilTagProcessor mProcessor;
+	private final Mat mFrame;
+	private final Thread mThread;
+
+	//Results: written by the worker into the back, read by the main loop from the front, swapped through the middle
+	private final AtomicReference<AprilTagResult> mMiddle = new AtomicReference<AprilTagResult>(new AprilTagResult());
+	private AprilTagResult mBack = new AprilTagResult();
+	private AprilTagResult mFront = new AprilTagResult();
+	private long mSequence = 0;
+
+	private volatile boolean mIsEnabled = false;
+	private volatile long mProcessedCount = 0;
+	private volatile long mDroppedCount = 0;
+
+	/**
+	 * Constructor. Starts the thread, but does not process frames until enabled.
+	 * @param source	Camera to grab frames from
+	 * @param processor	Processor to find AprilTags with, used only by this thread from now on
+	 */
+	public AprilTagThread(VideoSource source, AprilTagProcessor processor) {
+		mSink = CameraServer.getVideo(source);
+		mSink.setEnabled(false);
+		mProcessor = processor;
+		mFrame = new Mat();
+
+		mThread = new Thread(this::run, "AprilTag " + source.getName());
+		mThread.setDaemon(true);
+		mThread.start();
+	}
+
+	/**
+	 * Start or stop processing frames. <i>While enabled, the camera is kept open.</i>
+	 * @param enabled True to process frames
+	 */
+	public void setEnabled(boolean enabled) {
+		if(enabled == mIsEnabled) return;
+		mIsEnabled = enabled;
+		mSink.setEnabled(enabled);
+	}
+
+	/** True if frames are being processed. */
+	public boolean isEnabled() { return mIsEnabled; }
+	/** Number of frames processed. */
+	public long getProcessedCount() { return mProcessedCount; }
+	/** Number of frames dropped for being too old. */
+	public long getDroppedCount() { return mDroppedCount; }
+
+	private void run() {
+		while(!Thread.currentThread().isInterrupted()) {
+			if(!mIsEnabled) {
+				try {
+					Thread.sleep(IDLE_PERIOD);
+				} catch(InterruptedException e) {
+					return;
+				}
+				continue;
+			}
+
+			long frameTime = mSink.grabFrame(mFrame, FRAME_TIMEOUT);
+			if(frameTime == 0) continue;
+
+			double timestamp = frameTime / 1.0e6;
+			if(Timer.getFPGATimestamp() - timestamp > MAX_FRAME_AGE) {
+				mDroppedCount++;
+				continue;
+			}
+
+			mProcessor.process(mFrame, timestamp, mBack);
+			mBack.mSequence = ++mSequence;
+			mBack = mMiddle.getAndSet(mBack);
+			mProcessedCount++;
+		}
+	}
+
+	/**
+	 * Take the newest result from the thread, if there is one the main loop has not seen.
+	 * @return True if a new result is available from {@link #getResult()}
+	 */
+	public boolean update() {
+		if(mMiddle.get().mSequence <= mFront.mSequence) return false;
+		mFront = mMiddle.getAndSet(mFront);
+		return true;
+	}
+
+	/** Newest result taken by {@link #update()}. <i>Only valid until the next update.</i> */
+	public AprilTagResult getResult() { return mFront; }
+}
@@ -0,0 +1,252 @@
+package frc.molib.camera;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import com.sun.management.OperatingSystemMXBean;
+
+import edu.wpi.first.cameraserver.CameraServer;
+import edu.wpi.first.cscore.CameraServerJNI;
+import edu.wpi.first.cscore.MjpegServer;
+import edu.wpi.first.cscore.VideoSource;
+import edu.wpi.first.cscore.VideoSource.ConnectionStrategy;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.wpilibj.Timer;
+import frc.molib.Console;
+import frc.molib.dashboard.DashboardValue;
+
+/**
+ * Streams a camera to the Dashboard only while someone is watching, at a {@link CameraProfile} chosen for each Control Period.
+ * <p>The camera is only opened while a client is connected to the stream, or another sink such as AprilTag detection is enabled, 
+ * so no frames are captured or sent otherwise. Dashboard clients are counted from the kernel's table of TCP connections to the
+ * stream's port, since the camera being open does not mean anyone is watching. The stream's share of roboRIO CPU is estimated 
+ * by comparing process CPU load while streaming against while not.</p>
+ * <p>When the robot loop is under pressure, quality is stepped down: first frame rate, then resolution, then the camera is closed.
+ * Quality steps back up once the pressure has cleared for a while. <i>Closing the camera also stops every other sink on it,
+ * such as AprilTag detection, until quality recovers.</i></p>
+ * <p>Any {@link VideoSource} can be managed, such as a {@link edu.wpi.first.cscore.CvSource} fed with test frames in simulation.
+ * <i>A CvSource should only put frames while {@link VideoSource#isEnabled()}.</i></p>
+ */
+public class CameraManager {
+	/** Lowest frame rate a degraded stream will run at. */
+	private static final int MIN_FPS = 5;
+	/** Most steps quality can be degraded. The last step stops the stream. */
+	private static final int MAX_DEGRADE_LEVEL = 3;
+	/** Time the loop must be under pressure before quality is stepped down, in seconds. */
+	private static final double DEGRADE_TIME = 2.0;
+	/** Time the loop must be clear of pressure before quality is stepped up, in seconds. */
+	private static final double RECOVER_TIME = 10.0;
+	/** Time between CPU load samples, in seconds. */
+	private static final double CPU_SAMPLE_PERIOD = 1.0;
+	/** Weight of each new CPU load sample in its average. */
+	private static final double CPU_SMOOTHING = 0.2;
+	/** Time between counts of stream clients, in seconds. */
+	private static final double CLIENT_CHECK_PERIOD = 1.0;
+	/** Kernel tables of TCP sockets, IPv4 then IPv6. */
+	private static final String[] TCP_TABLES = { "/proc/net/tcp", "/proc/net/tcp6" };
+	/** Socket state of an established connection in the kernel's tables. */
+	private static final String TCP_ESTABLISHED = "01";
+
+	private final VideoSource mSource;
+	private final MjpegServer mServer;
+	private final OperatingSystemMXBean mOperatingSystemBean;
+
+	private CameraProfile mProfile = null;
+	private int mDegradeLevel = 0;
+	private boolean mIsModeApplied = false;
+	private boolean mIsStreaming = false;
+	/** Written by the client counting thread. */
+	private volatile int mClientCount = 0;
+
+	private double mPressureStartTime = Double.NaN;
+	private double mClearStartTime = Double.NaN;
+
+	private double mLastCpuSampleTime = 0.0;
+	private double mStreamingCpuLoad = Double.NaN;
+	private double mIdleCpuLoad = Double.NaN;
+
+	//Dashboard Objects
+	private final DashboardValue<Boolean> dshStreaming;
+	private final DashboardValue<String> dshProfile;
+	private final DashboardValue<Double> dshDegradeLevel;
+	private final DashboardValue<Double> dshActualFPS;
+	private final DashboardValue<Double> dshDataRate;
+	private final DashboardValue<Double> dshCpuCost;
+
+	/**
+	 * Constructor. Publishes the stream so Dashboards can find it, but does not open the camera.
+	 * @param parentTable	Parent NetworkTable
+	 * @param source		Camera or other video source to stream
+	 */
+	public CameraManager(NetworkTable parentTable, VideoSource source) {
+		mSource = source;
+		mSource.setConnectionStrategy(ConnectionStrategy.kAutoManage);
+
+		CameraServer.addCamera(mSource);
+		mServer = CameraServer.addServer("serve_" + mSource.getName());
+		mServer.setSource(mSource);
+
+		//Measure actual frame rate and data rate
+		CameraServerJNI.setTelemetryPeriod(1.0);
+
+		//Reading the socket tables allocates, so keep it off the main loop
+		Thread clientCounter = new Thread(this::runClientCounter, mSource.getName() + " Client Counter");
+		clientCounter.setDaemon(true);
+		clientCounter.setPriority(Thread.MIN_PRIORITY);
+		clientCounter.start();
+
+		java.lang.management.OperatingSystemMXBean operatingSystemBean = ManagementFactory.getOperatingSystemMXBean();
+		mOperatingSystemBean = operatingSystemBean instanceof OperatingSystemMXBean ? (OperatingSystemMXBean)operatingSystemBean : null;
+
+		NetworkTable tblCamera = parentTable.getSubTable(mSource.getName());
+		dshStreaming = new DashboardValue<Boolean>(tblCamera, "Streaming");
+		dshProfile = new DashboardValue<String>(tblCamera, "Profile");
+		dshDegradeLevel = new DashboardValue<Double>(tblCamera, "Degrade Level");
+		dshActualFPS = new DashboardValue<Double>(tblCamera, "Actual FPS");
+		dshDataRate = new DashboardValue<Double>(tblCamera, "Data Rate (kB per s)");
+		dshCpuCost = new DashboardValue<Double>(tblCamera, "CPU Cost (%)");
+	}
+
+	/**
+	 * Switch to a new resolution and frame rate. <i>Applied on the next update, only if it changed.</i>
+	 * @param profile Profile to stream at
+	 */
+	public void setProfile(CameraProfile profile) {
+		if(profile == mProfile) return;
+		mProfile = profile;
+		mIsModeApplied = false;
+		dshProfile.set(profile.getName());
+	}
+
+	/** True if a Dashboard client is currently receiving the stream. */
+	public boolean isStreaming() { return mIsStreaming; }
+	/** Number of clients connected to the stream at the last check, or -1 if they cannot be counted on this system. */
+	public int getClientCount() { return mClientCount; }
+	/** Number of steps quality is currently degraded by. */
+	public int getDegradeLevel() { return mDegradeLevel; }
+
+	/**
+	 * Estimated share of the roboRIO CPU used by the stream.
+	 * @return CPU load from 0.0 to 1.0, or NaN until it has been measured both streaming and not
+	 */
+	public double getCpuCost() { return Math.max(0.0, mStreamingCpuLoad - mIdleCpuLoad); }
+
+	/**
+	 * Call periodically to follow Dashboard connections, apply the profile, and adjust quality.
+	 * @param isUnderPressure True if the robot loop is currently struggling to keep up, such as from the {@link frc.molib.LoopMonitor}
+	 */
+	public void update(boolean isUnderPressure) {
+		double timestamp = Timer.getFPGATimestamp();
+		//Without a socket table to read, fall back on the camera being open at all
+		boolean isOpen = mSource.isEnabled() && mSource.isConnected();
+		mIsStreaming = isOpen && mClientCount != 0;
+
+		updateDegradeLevel(isUnderPressure, timestamp);
+		if(!mIsModeApplied && mProfile != null) applyMode();
+		if(timestamp - mLastCpuSampleTime >= CPU_SAMPLE_PERIOD) sampleCpuLoad(timestamp);
+	}
+
+	/** Step quality down after sustained pressure, and back up after sustained relief. */
+	private void updateDegradeLevel(boolean isUnderPressure, double timestamp) {
+		if(isUnderPressure) {
+			mClearStartTime = Double.NaN;
+			if(Double.isNaN(mPressureStartTime)) mPressureStartTime = timestamp;
+			if(timestamp - mPressureStartTime >= DEGRADE_TIME && mDegradeLevel < MAX_DEGRADE_LEVEL) {
+				mDegradeLevel++;
+				mPressureStartTime = timestamp;
+				mIsModeApplied = false;
+				Console.logErr("Robot loop under pressure! Degrading " + mSource.getName() + " to level " + mDegradeLevel
+					+ (mDegradeLevel >= MAX_DEGRADE_LEVEL ? ", closing the camera for every sink." : "."));
+			}
+		} else {
+			mPressureStartTime = Double.NaN;
+			if(Double.isNaN(mClearStartTime)) mClearStartTime = timestamp;
+			if(timestamp - mClearStartTime >= RECOVER_TIME && mDegradeLevel > 0) {
+				mDegradeLevel--;
+				mClearStartTime = timestamp;
+				mIsModeApplied = false;
+				Console.logMsg("Robot loop recovered. Restoring " + mSource.getName() + " to level " + mDegradeLevel + ".");
+			}
+		}
+	}
+
+	/** Set the camera to the profile, reduced by the degrade level. */
+	private void applyMode() {
+		mIsModeApplied = true;
+		dshDegradeLevel.set((double)mDegradeLevel);
+
+		if(mDegradeLevel >= MAX_DEGRADE_LEVEL) {
+			mSource.setConnectionStrategy(ConnectionStrategy.kForceClose);
+			return;
+		}
+		mSource.setConnectionStrategy(ConnectionStrategy.kAutoManage);
+
+		int fps = mDegradeLevel >= 1 ? Math.max(MIN_FPS, mProfile.getFPS() / 2) : mProfile.getFPS();
+		int scale = mDegradeLevel >= 2 ? 2 : 1;
+		mSource.setResolution(mProfile.getWidth() / scale, mProfile.getHeight() / scale);
+		mSource.setFPS(fps);
+	}
+
+	/** Count stream clients every {@value #CLIENT_CHECK_PERIOD} seconds, for as long as the program runs. */
+	private void runClientCounter() {
+		while(true) {
+			mClientCount = countClients();
+			try {
+				Thread.sleep((long)(CLIENT_CHECK_PERIOD * 1000.0));
+			} catch(InterruptedException e) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Count established TCP connections to the stream's port.
+	 * @return Number of connected clients, or -1 if the tables cannot be read, such as off Linux
+	 */
+	private int countClients() {
+		int port = mServer.getPort();
+		int count = 0;
+		boolean isRead = false;
+		for(String table : TCP_TABLES) {
+			try(BufferedReader reader = Files.newBufferedReader(Paths.get(table))) {
+				isRead = true;
+				reader.readLine();
+				String line;
+				while((line = reader.readLine()) != null) {
+					//Columns are: index, local address:port, remote address:port, state, ... in hexadecimal
+					String[] columns = line.trim().split("\\s+");
+					if(columns.length < 4 || !columns[3].equals(TCP_ESTABLISHED)) continue;
+					int separator = columns[1].lastIndexOf(':');
+					if(separator >= 0 && Integer.parseInt(columns[1].substring(separator + 1), 16) == port) count++;
+				}
+			} catch(IOException | RuntimeException e) {
+				continue;
+			}
+		}
+		return isRead ? count : -1;
+	}
+
+	/** Fold the latest process CPU load into the streaming or idle average. */
+	private void sampleCpuLoad(double timestamp) {
+		mLastCpuSampleTime = timestamp;
+		if(mOperatingSystemBean == null) return;
+		double cpuLoad = mOperatingSystemBean.getProcessCpuLoad();
+		if(cpuLoad < 0.0) return;
+
+		if(mIsStreaming)
+			mStreamingCpuLoad = Double.isNaN(mStreamingCpuLoad) ? cpuLoad : mStreamingCpuLoad + (cpuLoad - mStreamingCpuLoad) * CPU_SMOOTHING;
+		else
+			mIdleCpuLoad = Double.isNaN(mIdleCpuLoad) ? cpuLoad : mIdleCpuLoad + (cpuLoad - mIdleCpuLoad) * CPU_SMOOTHING;
+	}
+
+	/** Push the stream's state to the Dashboard. */
+	public void publish() {
+		dshStreaming.set(mIsStreaming);
+		dshActualFPS.set(mIsStreaming ? mSource.getActualFPS() : 0.0);
+		dshDataRate.set(mIsStreaming ? mSource.getActualDataRate() / 1000.0 : 0.0);
+		dshCpuCost.set(getCpuCost() * 100.0);
+	}
+}
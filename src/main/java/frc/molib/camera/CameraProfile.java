@@ -0,0 +1,31 @@
+package frc.molib.camera;
+
+/**
+ * Resolution and frame rate to stream a camera at, such as one for each Control Period.
+ * <p><i>Use a resolution the camera supports natively, so frames are not scaled on the roboRIO.</i></p>
+ */
+public final class CameraProfile {
+	private final String NAME;
+	private final int WIDTH;
+	private final int HEIGHT;
+	private final int FPS;
+
+	/**
+	 * Constructor
+	 * @param name		Name shown on the Dashboard
+	 * @param width		Image width in pixels
+	 * @param height	Image height in pixels
+	 * @param fps		Frames per second
+	 */
+	public CameraProfile(String name, int width, int height, int fps) {
+		NAME = name;
+		WIDTH = width;
+		HEIGHT = height;
+		FPS = fps;
+	}
+
+	public String getName() { return NAME; }
+	public int getWidth() { return WIDTH; }
+	public int getHeight() { return HEIGHT; }
+	public int getFPS() { return FPS; }
+}
@@ -27,12 +27,38 @@ public class DashboardValue<DataType> {
 	 */
 	public DataType get() { return (DataType) mEntry.getValue().getValue(); }
 
+	/**
+	 * Retrieves the entry's value as a double, without boxing
+	 * @param defaultValue Value returned if the entry does not hold a double
+	 * @return Current stored value
+	 */
+	public double getDouble(double defaultValue) { return mEntry.getDouble(defaultValue); }
+
+	/**
+	 * Retrieves the entry's value as a boolean, without boxing
+	 * @param defaultValue Value returned if the entry does not hold a boolean
+	 * @return Current stored value
+	 */
+	public boolean getBoolean(boolean defaultValue) { return mEntry.getBoolean(defaultValue); }
+
 	/**
 	 * Set the value of the entry
 	 * @param value New value
 	 */
 	public void set(DataType value) { mEntry.setValue(value); }
 
+	/**
+	 * Set the value of the entry, without boxing
+	 * @param value New value
+	 */
+	public void set(double value) { mEntry.setDouble(value); }
+
+	/**
+	 * Set the value of the entry, without boxing
+	 * @param value New value
+	 */
+	public void set(boolean value) { mEntry.setBoolean(value); }
+
 	/**
 	 * Removes this entry from its parent DashTable
 	 */
@@ -0,0 +1,135 @@
+package frc.molib.drive;
+
+/**
+ * Curvature ("Cheesy") drive for a differential drive Chassis.
+ * <p>The steering input sets how tightly the Chassis curves rather than how fast it spins, so turning scales with throttle.
+ * Quick-turn allows turning in place, and negative inertia counteracts the Chassis' tendency to keep turning
+ * when the wheel is released.</p>
+ * <p>Based on Team 254's CheesyDriveHelper. Keeps its state in primitives; calculating does not allocate.</p>
+ */
+public class CurvatureDrive {
+	private double mWheelNonLinearity = 0.65;
+	private double mNegInertiaScalar = 4.0;
+	private double mSensitivity = 0.65;
+
+	private double mQuickStopDeadband = 0.5;
+	private double mQuickStopWeight = 0.1;
+	private double mQuickStopScalar = 5.0;
+
+	private double mOldWheel = 0.0;
+	private double mQuickStopAccumulator = 0.0;
+	private double mNegInertiaAccumulator = 0.0;
+
+	private double mLeftPower = 0.0;
+	private double mRightPower = 0.0;
+
+	/**
+	 * Configure how the steering input is curved before use.
+	 * @param nonLinearity 0.0 for nearly linear, up to 1.0 for more precision near center
+	 */
+	public void configWheelNonLinearity(double nonLinearity) { mWheelNonLinearity = Math.max(0.01, Math.min(1.0, nonLinearity)); }
+
+	/**
+	 * Configure how strongly quick changes in steering are counteracted.
+	 * @param scalar Negative inertia gain
+	 */
+	public void configNegInertiaScalar(double scalar) { mNegInertiaScalar = scalar; }
+
+	/**
+	 * Configure how tightly the Chassis curves for a given steering input.
+	 * @param sensitivity Turning sensitivity while not in quick-turn
+	 */
+	public void configSensitivity(double sensitivity) { mSensitivity = sensitivity; }
+
+	/**
+	 * Configure how quick-turn rotation is bled off once quick-turn ends.
+	 * @param deadband	Throttle below which quick-turn rotation accumulates
+	 * @param weight	How fast the accumulator follows the steering input, 0.0 to 1.0
+	 * @param scalar	Gain on accumulated rotation
+	 */
+	public void configQuickStop(double deadband, double weight, double scalar) {
+		mQuickStopDeadband = deadband;
+		mQuickStopWeight = weight;
+		mQuickStopScalar = scalar;
+	}
+
+	/**
+	 * Calculate power for each side of the Chassis. Read the results with {@link #getLeftPower()} and {@link #getRightPower()}.
+	 * @param throttle		Forward/reverse input, -1.0 to 1.0
+	 * @param wheel			Steering input, -1.0 to 1.0
+	 * @param isQuickTurn	Whether to turn in place instead of curving
+	 */
+	public void calculate(double throttle, double wheel, boolean isQuickTurn) {
+		double negInertia = wheel - mOldWheel;
+		mOldWheel = wheel;
+
+		//Apply a sine curve to the steering, twice, for finer control near center
+		double denominator = Math.sin(Math.PI / 2.0 * mWheelNonLinearity);
+		wheel = Math.sin(Math.PI / 2.0 * mWheelNonLinearity * wheel) / denominator;
+		wheel = Math.sin(Math.PI / 2.0 * mWheelNonLinearity * wheel) / denominator;
+
+		//Negative inertia, resisting sudden changes in steering
+		mNegInertiaAccumulator += negInertia * mNegInertiaScalar;
+		wheel += mNegInertiaAccumulator;
+		if(mNegInertiaAccumulator > 1.0)
+			mNegInertiaAccumulator -= 1.0;
+		else if(mNegInertiaAccumulator < -1.0)
+			mNegInertiaAccumulator += 1.0;
+		else
+			mNegInertiaAccumulator = 0.0;
+
+		double overPower;
+		double angularPower;
+		if(isQuickTurn) {
+			if(Math.abs(throttle) < mQuickStopDeadband)
+				mQuickStopAccumulator = (1.0 - mQuickStopWeight) * mQuickStopAccumulator
+					+ mQuickStopWeight * Math.max(-1.0, Math.min(1.0, wheel)) * mQuickStopScalar;
+			overPower = 1.0;
+			angularPower = wheel;
+		} else {
+			overPower = 0.0;
+			angularPower = Math.abs(throttle) * wheel * mSensitivity - mQuickStopAccumulator;
+			if(mQuickStopAccumulator > 1.0)
+				mQuickStopAccumulator -= 1.0;
+			else if(mQuickStopAccumulator < -1.0)
+				mQuickStopAccumulator += 1.0;
+			else
+				mQuickStopAccumulator = 0.0;
+		}
+
+		double leftPower = throttle + angularPower;
+		double rightPower = throttle - angularPower;
+
+		//Keep the turn when one side saturates in quick-turn
+		if(leftPower > 1.0) {
+			rightPower -= overPower * (leftPower - 1.0);
+			leftPower = 1.0;
+		} else if(rightPower > 1.0) {
+			leftPower -= overPower * (rightPower - 1.0);
+			rightPower = 1.0;
+		} else if(leftPower < -1.0) {
+			rightPower += overPower * (-1.0 - leftPower);
+			leftPower = -1.0;
+		} else if(rightPower < -1.0) {
+			leftPower += overPower * (-1.0 - rightPower);
+			rightPower = -1.0;
+		}
+
+		mLeftPower = Math.max(-1.0, Math.min(1.0, leftPower));
+		mRightPower = Math.max(-1.0, Math.min(1.0, rightPower));
+	}
+
+	/** Power to the left side of the Chassis from the last calculation. */
+	public double getLeftPower() { return mLeftPower; }
+	/** Power to the right side of the Chassis from the last calculation. */
+	public double getRightPower() { return mRightPower; }
+
+	/** Clear all accumulated steering. */
+	public void reset() {
+		mOldWheel = 0.0;
+		mQuickStopAccumulator = 0.0;
+		mNegInertiaAccumulator = 0.0;
+		mLeftPower = 0.0;
+		mRightPower = 0.0;
+	}
+}
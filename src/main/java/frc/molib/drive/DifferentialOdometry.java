@@ -0,0 +1,80 @@
+package frc.molib.drive;
+
+/**
+ * Tracks the field position of a differential drive Chassis from left/right distances and a gyro heading.
+ * <p>Each update integrates the movement along an arc, so accuracy holds up while turning.
+ * State is kept in primitives; updating does not allocate.</p>
+ * <p>Heading is in radians, counter-clockwise positive, and kept continuous (not wrapped).</p>
+ */
+public class DifferentialOdometry {
+	private double mPoseX = 0.0;
+	private double mPoseY = 0.0;
+	private double mHeading = 0.0;
+
+	private double mHeadingOffset = 0.0;
+	private double mLastLeftDistance = 0.0;
+	private double mLastRightDistance = 0.0;
+
+	/**
+	 * Move the tracked pose to a known position.
+	 * @param poseX				Field X position
+	 * @param poseY				Field Y position
+	 * @param heading			Field heading in radians
+	 * @param leftDistance		Current left side distance
+	 * @param rightDistance		Current right side distance
+	 * @param gyroHeading		Current gyro heading in radians, counter-clockwise positive
+	 */
+	public void reset(double poseX, double poseY, double heading, double leftDistance, double rightDistance, double gyroHeading) {
+		mPoseX = poseX;
+		mPoseY = poseY;
+		mHeading = heading;
+		mHeadingOffset = heading - gyroHeading;
+		mLastLeftDistance = leftDistance;
+		mLastRightDistance = rightDistance;
+	}
+
+	/**
+	 * Integrate the movement since the last update.
+	 * @param leftDistance		Left side distance
+	 * @param rightDistance		Right side distance
+	 * @param gyroHeading		Gyro heading in radians, counter-clockwise positive
+	 */
+	public void update(double leftDistance, double rightDistance, double gyroHeading) {
+		double distance = ((leftDistance - mLastLeftDistance) + (rightDistance - mLastRightDistance)) / 2.0;
+		mLastLeftDistance = leftDistance;
+		mLastRightDistance = rightDistance;
+
+		double heading = gyroHeading + mHeadingOffset;
+		double headingChange = heading - mHeading;
+
+		//Chord of the arc driven, taken at the midpoint heading
+		double halfChange = headingChange / 2.0;
+		double chord = Math.abs(halfChange) < 1.0e-9 ? distance : distance * Math.sin(halfChange) / halfChange;
+		double midpointHeading = mHeading + halfChange;
+
+		mPoseX += chord * Math.cos(midpointHeading);
+		mPoseY += chord * Math.sin(midpointHeading);
+		mHeading = heading;
+	}
+
+	/**
+	 * Shift the tracked pose without affecting how future movement is integrated.
+	 * <p><i>Used to apply corrections, such as from vision.</i></p>
+	 * @param deltaX		Change in X position
+	 * @param deltaY		Change in Y position
+	 * @param deltaHeading	Change in heading in radians
+	 */
+	public void shift(double deltaX, double deltaY, double deltaHeading) {
+		mPoseX += deltaX;
+		mPoseY += deltaY;
+		mHeading += deltaHeading;
+		mHeadingOffset += deltaHeading;
+	}
+
+	/** Field X position. */
+	public double getPoseX() { return mPoseX; }
+	/** Field Y position. */
+	public double getPoseY() { return mPoseY; }
+	/** Field heading in radians, counter-clockwise positive. */
+	public double getHeading() { return mHeading; }
+}
@@ -0,0 +1,184 @@
+package frc.molib.drive;
+
+import edu.wpi.first.math.MathUtil;
+import frc.molib.HistoryBuffer;
+
+/**
+ * Estimates the field pose of a differential drive Chassis by fusing odometry with delayed vision measurements.
+ * <p>Odometry is integrated at a high rate and recorded into a timestamped history. When a vision measurement arrives,
+ * the estimate is rewound to the time the image was captured, compared against the measurement, and corrected by
+ * a weight based on how much each source is trusted. Measurements too far from the estimate are rejected.</p>
+ * <p>State is kept in primitives; updating and fusing do not allocate.</p>
+ * <p>Units are meters and radians, counter-clockwise positive.</p>
+ */
+public class PoseEstimator {
+	private final DifferentialOdometry mOdometry = new DifferentialOdometry();
+	private final HistoryBuffer mHistory;
+
+	private final double[] mSample = new double[3];
+	private final double[] mCorrection = new double[3];
+
+	private double mOdometryStdDevXY = 0.1;
+	private double mOdometryStdDevHeading = 0.05;
+	private double mRejectDistance = 1.0;
+	private double mRejectHeading = Math.toRadians(30.0);
+
+	private boolean mIsPositionSeeded = false;
+	private boolean mIsHeadingSeeded = false;
+	private int mAcceptedCount = 0;
+	private int mRejectedCount = 0;
+
+	/**
+	 * Constructor
+	 * @param historyCapacity Number of odometry samples to keep for rewinding
+	 */
+	public PoseEstimator(int historyCapacity) { mHistory = new HistoryBuffer(historyCapacity, 3); }
+
+	/**
+	 * Configure how much odometry is trusted. Smaller values trust odometry more than vision.
+	 * @param stdDevXY		Standard deviation of position in meters
+	 * @param stdDevHeading	Standard deviation of heading in radians
+	 */
+	public void configOdometryStdDevs(double stdDevXY, double stdDevHeading) {
+		mOdometryStdDevXY = stdDevXY;
+		mOdometryStdDevHeading = stdDevHeading;
+	}
+
+	/**
+	 * Configure how far a vision measurement may disagree with the estimate before it is rejected as an outlier.
+	 * <p><i>The first measurement after a reset without a known pose is always accepted, and the heading is not checked
+	 * until a measurement with a heading has been accepted.</i></p>
+	 * @param distance	Position disagreement in meters
+	 * @param heading	Heading disagreement in radians
+	 */
+	public void configRejectionThreshold(double distance, double heading) {
+		mRejectDistance = distance;
+		mRejectHeading = heading;
+	}
+
+	/**
+	 * Move the estimate to a position and clear the history.
+	 * @param poseX				Field X position
+	 * @param poseY				Field Y position
+	 * @param heading			Field heading
+	 * @param leftDistance		Current left side distance
+	 * @param rightDistance		Current right side distance
+	 * @param gyroHeading		Current gyro heading
+	 * @param isKnown			True if the position is known, false to let the next vision measurement seed it
+	 */
+	public void reset(double poseX, double poseY, double heading, double leftDistance, double rightDistance, double gyroHeading, boolean isKnown) {
+		mOdometry.reset(poseX, poseY, heading, leftDistance, rightDistance, gyroHeading);
+		mHistory.clear();
+		mIsPositionSeeded = isKnown;
+		mIsHeadingSeeded = isKnown;
+	}
+
+	/**
+	 * Re-align to the gyro after it has been reset, without moving the estimate.
+	 * @param leftDistance		Current left side distance
+	 * @param rightDistance		Current right side distance
+	 * @param gyroHeading		Current gyro heading
+	 */
+	public void resetGyro(double leftDistance, double rightDistance, double gyroHeading) {
+		mOdometry.reset(mOdometry.getPoseX(), mOdometry.getPoseY(), mOdometry.getHeading(), leftDistance, rightDistance, gyroHeading);
+	}
+
+	/**
+	 * Integrate new odometry and record it into the history.
+	 * @param timestamp			FPGA time the sensors were sampled, in seconds
+	 * @param leftDistance		Left side distance
+	 * @param rightDistance		Right side distance
+	 * @param gyroHeading		Gyro heading
+	 */
+	public void update(double timestamp, double leftDistance, double rightDistance, double gyroHeading) {
+		mOdometry.update(leftDistance, rightDistance, gyroHeading);
+		mSample[0] = mOdometry.getPoseX();
+		mSample[1] = mOdometry.getPoseY();
+		mSample[2] = mOdometry.getHeading();
+		mHistory.add(timestamp, mSample);
+	}
+
+	/**
+	 * Fuse a vision measurement of the field pose into the estimate.
+	 * @param poseX			Measured field X position
+	 * @param poseY			Measured field Y position
+	 * @param heading		Measured field heading
+	 * @param timestamp		FPGA time the image was captured, in seconds
+	 * @param stdDevXY		Standard deviation of the measured position
+	 * @param stdDevHeading	Standard deviation of the measured heading. Use {@link Double#POSITIVE_INFINITY} to ignore it.
+	 * @return True if the measurement was accepted
+	 */
+	public boolean addVisionMeasurement(double poseX, double poseY, double heading, double timestamp, double stdDevXY, double stdDevHeading) {
+		//Rewind to the time of capture
+		if(!mHistory.sample(timestamp, mSample) || timestamp < mHistory.getOldestTimestamp()) {
+			mRejectedCount++;
+			return false;
+		}
+
+		double errorX = poseX - mSample[0];
+		double errorY = poseY - mSample[1];
+		double errorHeading = MathUtil.angleModulus(heading - mSample[2]);
+
+		//Weight by how much each source is trusted
+		boolean hasHeading = Double.isFinite(stdDevHeading);
+		double gainXY;
+		double gainHeading;
+		if(!mIsPositionSeeded || (hasHeading && !mIsHeadingSeeded)) {
+			//Seed from the measurement, without checking it against a pose that was never known
+			gainXY = 1.0;
+			gainHeading = hasHeading ? 1.0 : 0.0;
+		} else {
+			if(Math.hypot(errorX, errorY) > mRejectDistance || (hasHeading && Math.abs(errorHeading) > mRejectHeading)) {
+				mRejectedCount++;
+				return false;
+			}
+			gainXY = getGain(mOdometryStdDevXY, stdDevXY);
+			gainHeading = getGain(mOdometryStdDevHeading, stdDevHeading);
+		}
+
+		//Correct the present estimate, and the history so later measurements rewind consistently
+		mCorrection[0] = errorX * gainXY;
+		mCorrection[1] = errorY * gainXY;
+		mCorrection[2] = errorHeading * gainHeading;
+		mOdometry.shift(mCorrection[0], mCorrection[1], mCorrection[2]);
+		mHistory.shift(mCorrection);
+
+		mIsPositionSeeded = true;
+		if(hasHeading) mIsHeadingSeeded = true;
+		mAcceptedCount++;
+		return true;
+	}
+
+	/** Kalman gain for a single dimension, given the standard deviations of the estimate and the measurement. */
+	private static double getGain(double estimateStdDev, double measurementStdDev) {
+		if(!Double.isFinite(measurementStdDev)) return 0.0;
+		double estimateVariance = estimateStdDev * estimateStdDev;
+		double measurementVariance = measurementStdDev * measurementStdDev;
+		return estimateVariance / (estimateVariance + measurementVariance);
+	}
+
+	/**
+	 * Read the estimate at a recent time, interpolated from the history.
+	 * @param timestamp FPGA time in seconds
+	 * @param output	Array filled with X, Y and heading
+	 * @return False if there is no history yet
+	 */
+	public boolean sample(double timestamp, double[] output) { return mHistory.sample(timestamp, output); }
+
+	/** Field X position. */
+	public double getPoseX() { return mOdometry.getPoseX(); }
+	/** Field Y position. */
+	public double getPoseY() { return mOdometry.getPoseY(); }
+	/** Field heading. */
+	public double getHeading() { return mOdometry.getHeading(); }
+
+	/** True if the pose, including its heading, has been set by a reset or a vision measurement. */
+	public boolean isSeeded() { return mIsPositionSeeded && mIsHeadingSeeded; }
+	/** True if the position has been set by a reset or a vision measurement, even if the heading has not. */
+	public boolean isPositionSeeded() { return mIsPositionSeeded; }
+
+	/** Number of vision measurements accepted. */
+	public int getAcceptedCount() { return mAcceptedCount; }
+	/** Number of vision measurements rejected. */
+	public int getRejectedCount() { return mRejectedCount; }
+}
@@ -0,0 +1,106 @@
+package frc.molib.drive;
+
+import edu.wpi.first.math.MathUtil;
+
+/**
+ * Follows a {@link Trajectory} with a differential drive Chassis using a Ramsete controller and a motor feedforward.
+ * <p>Each calculation compares the field pose against the trajectory sample for the current time, and corrects
+ * the sample's velocities toward the path. The result is converted to a voltage for each side of the Chassis.</p>
+ * <p>Keeps its state in primitives; calculating does not allocate.</p>
+ */
+public class RamseteFollower {
+	private final double TRACK_WIDTH;
+	private final double[] mSample = new double[Trajectory.STATE_LENGTH];
+
+	private double mB = 2.0;
+	private double mZeta = 0.7;
+
+	private double mKS = 0.0;
+	private double mKV = 0.0;
+	private double mKA = 0.0;
+
+	private double mLeftVoltage = 0.0;
+	private double mRightVoltage = 0.0;
+
+	/**
+	 * Constructor
+	 * @param trackWidth Distance between the left and right wheels, in meters
+	 */
+	public RamseteFollower(double trackWidth) { TRACK_WIDTH = trackWidth; }
+
+	/**
+	 * Configure how aggressively the controller corrects errors.
+	 * @param b		Convergence gain, larger values correct more aggressively. 2.0 is typical.
+	 * @param zeta	Damping, 0.0 to 1.0. 0.7 is typical.
+	 */
+	public void configGains(double b, double zeta) {
+		mB = b;
+		mZeta = zeta;
+	}
+
+	/**
+	 * Configure the feedforward that turns wheel velocities into voltages.
+	 * @param kS Voltage needed to overcome static friction
+	 * @param kV Voltage per meter per second
+	 * @param kA Voltage per meter per second squared
+	 */
+	public void configFeedforward(double kS, double kV, double kA) {
+		mKS = kS;
+		mKV = kV;
+		mKA = kA;
+	}
+
+	/**
+	 * Calculate voltages to follow a trajectory. Read the results with {@link #getLeftVoltage()} and {@link #getRightVoltage()}.
+	 * @param trajectory	Trajectory being followed
+	 * @param time			Time since the trajectory started, in seconds
+	 * @param mirrored		True to follow the trajectory rotated for the other alliance
+	 * @param fieldLength	Length of the field in meters, used when mirrored
+	 * @param fieldWidth	Width of the field in meters, used when mirrored
+	 * @param poseX			Field X position of the Chassis
+	 * @param poseY			Field Y position of the Chassis
+	 * @param heading		Field heading of the Chassis
+	 */
+	public void calculate(Trajectory trajectory, double time, boolean mirrored, double fieldLength, double fieldWidth, double poseX, double poseY, double heading) {
+		trajectory.sample(time, mirrored, fieldLength, fieldWidth, mSample);
+		double referenceVelocity = mSample[Trajectory.STATE_VELOCITY];
+		double referenceCurvature = mSample[Trajectory.STATE_CURVATURE];
+		double referenceAngular = referenceVelocity * referenceCurvature;
+
+		//Error in the frame of the Chassis
+		double cos = Math.cos(heading);
+		double sin = Math.sin(heading);
+		double fieldErrorX = mSample[Trajectory.STATE_X] - poseX;
+		double fieldErrorY = mSample[Trajectory.STATE_Y] - poseY;
+		double errorX = cos * fieldErrorX + sin * fieldErrorY;
+		double errorY = -sin * fieldErrorX + cos * fieldErrorY;
+		double errorHeading = MathUtil.angleModulus(mSample[Trajectory.STATE_HEADING] - heading);
+
+		double gain = 2.0 * mZeta * Math.sqrt(referenceAngular * referenceAngular + mB * referenceVelocity * referenceVelocity);
+		double sinc = Math.abs(errorHeading) < 1.0e-9 ? 1.0 - errorHeading * errorHeading / 6.0 : Math.sin(errorHeading) / errorHeading;
+		double velocity = referenceVelocity * Math.cos(errorHeading) + gain * errorX;
+		double angular = referenceAngular + gain * errorHeading + mB * referenceVelocity * sinc * errorY;
+
+		//Split into each side
+		double halfTrack = TRACK_WIDTH / 2.0;
+		double acceleration = mSample[Trajectory.STATE_ACCELERATION];
+		double angularAcceleration = acceleration * referenceCurvature;
+		mLeftVoltage = getFeedforward(velocity - angular * halfTrack, acceleration - angularAcceleration * halfTrack);
+		mRightVoltage = getFeedforward(velocity + angular * halfTrack, acceleration + angularAcceleration * halfTrack);
+	}
+
+	private double getFeedforward(double velocity, double acceleration) {
+		return mKS * Math.signum(velocity) + mKV * velocity + mKA * acceleration;
+	}
+
+	/** Voltage for the left side of the Chassis from the last calculation. */
+	public double getLeftVoltage() { return mLeftVoltage; }
+	/** Voltage for the right side of the Chassis from the last calculation. */
+	public double getRightVoltage() { return mRightVoltage; }
+
+	/** Clear the last calculation. */
+	public void reset() {
+		mLeftVoltage = 0.0;
+		mRightVoltage = 0.0;
+	}
+}
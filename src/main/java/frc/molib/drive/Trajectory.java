@@ -0,0 +1,187 @@
+package frc.molib.drive;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import edu.wpi.first.math.MathUtil;
+
+/**
+ * A compact, time-parameterized path for a differential drive Chassis.
+ * <p>Samples are stored column by column in primitive arrays, so sampling during a match never allocates.
+ * Trajectories are converted from WPILib once, then saved to and loaded from a small binary file.</p>
+ * <p>Units are seconds, meters and radians, counter-clockwise positive. Headings are kept continuous (not wrapped).</p>
+ *
+ * <p>File format, big-endian:</p>
+ * <pre>
+ * int    magic ("MOTJ")
+ * int    version
+ * long   source hash, identifying the waypoints and constraints the file was generated from
+ * int    sample count
+ * double[count] time, x, y, heading, velocity, acceleration, curvature (one column after another)
+ * </pre>
+ */
+public class Trajectory {
+	private static final int MAGIC = 0x4D4F544A;
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 4 + 4 + 8 + 4;
+	private static final int COLUMNS = 7;
+
+	/** Index of the X position in a sample. */
+	public static final int STATE_X = 0;
+	/** Index of the Y position in a sample. */
+	public static final int STATE_Y = 1;
+	/** Index of the heading in a sample. */
+	public static final int STATE_HEADING = 2;
+	/** Index of the velocity in a sample. */
+	public static final int STATE_VELOCITY = 3;
+	/** Index of the acceleration in a sample. */
+	public static final int STATE_ACCELERATION = 4;
+	/** Index of the curvature in a sample. */
+	public static final int STATE_CURVATURE = 5;
+	/** Length of the array needed to hold a sample. */
+	public static final int STATE_LENGTH = 6;
+
+	private final long SOURCE_HASH;
+	private final double[] mTime;
+	private final double[] mX;
+	private final double[] mY;
+	private final double[] mHeading;
+	private final double[] mVelocity;
+	private final double[] mAcceleration;
+	private final double[] mCurvature;
+
+	/** Last sampled index, so sampling forward in time does not search. */
+	private int mCursor = 0;
+
+	private Trajectory(long sourceHash, int count) {
+		SOURCE_HASH = sourceHash;
+		mTime = new double[count];
+		mX = new double[count];
+		mY = new double[count];
+		mHeading = new double[count];
+		mVelocity = new double[count];
+		mAcceleration = new double[count];
+		mCurvature = new double[count];
+	}
+
+	/**
+	 * Convert a trajectory generated by WPILib.
+	 * @param trajectory	Generated trajectory
+	 * @param sourceHash	Identifies what the trajectory was generated from, to detect stale files
+	 * @return Compact copy of the trajectory
+	 */
+	public static Trajectory fromWPILib(edu.wpi.first.math.trajectory.Trajectory trajectory, long sourceHash) {
+		var states = trajectory.getStates();
+		Trajectory result = new Trajectory(sourceHash, states.size());
+		double lastHeading = 0.0;
+		for(int index = 0; index < states.size(); index++) {
+			var state = states.get(index);
+			double heading = state.poseMeters.getRotation().getRadians();
+			//Unwrap so headings interpolate correctly across +/-180 degrees
+			if(index > 0) heading = lastHeading + MathUtil.angleModulus(heading - lastHeading);
+			lastHeading = heading;
+
+			result.mTime[index] = state.timeSeconds;
+			result.mX[index] = state.poseMeters.getX();
+			result.mY[index] = state.poseMeters.getY();
+			result.mHeading[index] = heading;
+			result.mVelocity[index] = state.velocityMetersPerSecond;
+			result.mAcceleration[index] = state.accelerationMetersPerSecondSq;
+			result.mCurvature[index] = state.curvatureRadPerMeter;
+		}
+		return result;
+	}
+
+	/**
+	 * Load a trajectory file by memory-mapping it.
+	 * @param file Trajectory file
+	 * @return Loaded trajectory
+	 * @throws IOException If the file cannot be read or is not a trajectory file
+	 */
+	public static Trajectory load(File file) throws IOException {
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if(buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+				throw new IOException("Not a trajectory file: " + file.getPath());
+			long sourceHash = buffer.getLong();
+			int count = buffer.getInt();
+			if(count < 1 || buffer.remaining() < (long)count * COLUMNS * Double.BYTES)
+				throw new IOException("Truncated trajectory file: " + file.getPath());
+
+			Trajectory result = new Trajectory(sourceHash, count);
+			DoubleBuffer values = buffer.asDoubleBuffer();
+			values.get(result.mTime);
+			values.get(result.mX);
+			values.get(result.mY);
+			values.get(result.mHeading);
+			values.get(result.mVelocity);
+			values.get(result.mAcceleration);
+			values.get(result.mCurvature);
+			return result;
+		}
+	}
+
+	/**
+	 * Write the trajectory to a file, replacing it if it exists.
+	 * @param file Trajectory file
+	 * @throws IOException If the file cannot be written
+	 */
+	public void save(File file) throws IOException {
+		File directory = file.getAbsoluteFile().getParentFile();
+		if(directory != null && !directory.isDirectory() && !directory.mkdirs())
+			throw new IOException("Could not create directory " + directory.getPath());
+
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + mTime.length * COLUMNS * Double.BYTES);
+		buffer.putInt(MAGIC).putInt(VERSION).putLong(SOURCE_HASH).putInt(mTime.length);
+		DoubleBuffer values = buffer.asDoubleBuffer();
+		values.put(mTime).put(mX).put(mY).put(mHeading).put(mVelocity).put(mAcceleration).put(mCurvature);
+		buffer.clear();
+
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while(buffer.hasRemaining()) channel.write(buffer);
+		}
+	}
+
+	/** Identifies the waypoints and constraints the trajectory was generated from. */
+	public long getSourceHash() { return SOURCE_HASH; }
+	/** Time to drive the whole trajectory, in seconds. */
+	public double getTotalTime() { return mTime[mTime.length - 1]; }
+	/** Number of samples stored. */
+	public int getSize() { return mTime.length; }
+
+	/**
+	 * Read the trajectory at a time, interpolating between samples.
+	 * <p><i>Fastest when called with increasing times, as during a match.</i></p>
+	 * @param time		Time since the start of the trajectory, in seconds. Clamped to the ends.
+	 * @param mirrored	True to rotate the sample 180 degrees about the center of a field, for the other alliance
+	 * @param fieldLength Length of the field in meters, used when mirrored
+	 * @param fieldWidth Width of the field in meters, used when mirrored
+	 * @param output	Array of at least {@link #STATE_LENGTH} to fill, indexed by the STATE constants
+	 */
+	public void sample(double time, boolean mirrored, double fieldLength, double fieldWidth, double[] output) {
+		int last = mTime.length - 1;
+		if(mCursor > last || mTime[mCursor] > time) mCursor = 0;
+		while(mCursor < last && mTime[mCursor + 1] <= time) mCursor++;
+
+		int older = mCursor;
+		int newer = Math.min(older + 1, last);
+		double span = mTime[newer] - mTime[older];
+		double fraction = span > 0.0 ? MathUtil.clamp((time - mTime[older]) / span, 0.0, 1.0) : 0.0;
+
+		double x = mX[older] + (mX[newer] - mX[older]) * fraction;
+		double y = mY[older] + (mY[newer] - mY[older]) * fraction;
+		double heading = mHeading[older] + (mHeading[newer] - mHeading[older]) * fraction;
+
+		output[STATE_X] = mirrored ? fieldLength - x : x;
+		output[STATE_Y] = mirrored ? fieldWidth - y : y;
+		output[STATE_HEADING] = mirrored ? heading + Math.PI : heading;
+		output[STATE_VELOCITY] = mVelocity[older] + (mVelocity[newer] - mVelocity[older]) * fraction;
+		output[STATE_ACCELERATION] = mAcceleration[older];
+		output[STATE_CURVATURE] = mCurvature[older] + (mCurvature[newer] - mCurvature[older]) * fraction;
+	}
+}
@@ -0,0 +1,123 @@
+package frc.molib.drive;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.function.Supplier;
+
+import frc.molib.Console;
+
+/**
+ * A {@link Trajectory} kept as a file, generated only when the file is missing or out of date.
+ * <p>Trajectories are normally generated ahead of time and deployed with the code, so loading at startup is just
+ * a file read. Any that are missing, or were generated from different waypoints, are generated on a background
+ * thread and saved for the next boot, so the robot never waits on path generation.</p>
+ */
+public class TrajectoryCache {
+	/** File extension of trajectory files. */
+	public static final String EXTENSION = ".traj";
+
+	private final String NAME;
+	private final long SOURCE_HASH;
+	private final Supplier<Trajectory> GENERATOR;
+
+	private volatile Trajectory mTrajectory = null;
+
+	/**
+	 * Constructor
+	 * @param name			Name of the trajectory, used for its file name
+	 * @param sourceHash	Identifies the waypoints and constraints, so out of date files are regenerated
+	 * @param generator		Generates the trajectory when the file cannot be used. Called off the main thread.
+	 */
+	public TrajectoryCache(String name, long sourceHash, Supplier<Trajectory> generator) {
+		NAME = name;
+		SOURCE_HASH = sourceHash;
+		GENERATOR = generator;
+	}
+
+	/** Name of the trajectory. */
+	public String getName() { return NAME; }
+	/** True once the trajectory has been loaded or generated. */
+	public boolean isReady() { return mTrajectory != null; }
+	/** The trajectory, or null if it is not ready yet. */
+	public Trajectory get() { return mTrajectory; }
+
+	/**
+	 * Try to load the trajectory from its file.
+	 * @param directory Directory holding trajectory files
+	 * @return True if the file was loaded and is up to date
+	 */
+	private boolean load(File directory) {
+		File file = new File(directory, NAME + EXTENSION);
+		if(!file.isFile()) return false;
+		try {
+			Trajectory trajectory = Trajectory.load(file);
+			if(trajectory.getSourceHash() != SOURCE_HASH) {
+				Console.logErr("Trajectory '" + NAME + "' is out of date.");
+				return false;
+			}
+			mTrajectory = trajectory;
+			return true;
+		} catch(IOException e) {
+			Console.logErr("Could not read trajectory '" + NAME + "': " + e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * Generate the trajectory and try to save it.
+	 * @param directory Directory holding trajectory files
+	 */
+	private void generate(File directory) {
+		Trajectory trajectory = GENERATOR.get();
+		try {
+			trajectory.save(new File(directory, NAME + EXTENSION));
+		} catch(IOException e) {
+			Console.logErr("Could not save trajectory '" + NAME + "': " + e.getMessage());
+		}
+		mTrajectory = trajectory;
+	}
+
+	/**
+	 * Generate every trajectory and save it, ignoring existing files.
+	 * <p><i>Used to build the files ahead of time.</i></p>
+	 * @param directory		Directory to save trajectory files into
+	 * @param trajectories	Trajectories to generate
+	 */
+	public static void generateAll(File directory, TrajectoryCache... trajectories) {
+		for(TrajectoryCache trajectory : trajectories) trajectory.generate(directory);
+	}
+
+	/**
+	 * Load every trajectory from its file. Any that cannot be loaded are generated on a background thread.
+	 * <p><i>Call once at startup.</i></p>
+	 * @param directory		Directory holding trajectory files
+	 * @param trajectories	Trajectories to load
+	 */
+	public static void loadAll(File directory, TrajectoryCache... trajectories) {
+		int missingCount = 0;
+		TrajectoryCache[] missing = new TrajectoryCache[trajectories.length];
+		for(TrajectoryCache trajectory : trajectories) {
+			if(trajectory.load(directory))
+				Console.logMsg("Loaded trajectory '" + trajectory.NAME + "'.");
+			else
+				missing[missingCount++] = trajectory;
+		}
+		if(missingCount == 0) return;
+
+		final int count = missingCount;
+		Console.logErr(count + " trajectories were not deployed or are out of date! Generating them in the background...");
+		Thread generator = new Thread(() -> {
+			for(int index = 0; index < count; index++) {
+				try {
+					missing[index].generate(directory);
+					Console.logMsg("Generated trajectory '" + missing[index].NAME + "'.");
+				} catch(RuntimeException e) {
+					Console.logErr("Could not generate trajectory '" + missing[index].NAME + "': " + e.getMessage());
+				}
+			}
+		}, "Trajectory Generator");
+		generator.setDaemon(true);
+		generator.setPriority(Thread.MIN_PRIORITY);
+		generator.start();
+	}
+}
@@ -0,0 +1,16 @@
+package frc.molib.hid;
+
+/** The base to be used for any logical action mapped by a {@link frc.molib.hid.ControllerLayout}. */
+public interface ControllerActionBase {
+    /**
+     * <p>Gets the key identifying this action in the layout file.</p>
+     * @return The key as it appears in the layout file
+     */
+    public String getKey();
+
+    /**
+     * <p>Gets the binding used when the layout file does not map this action, written the same way as in the layout file.</p>
+     * @return The default binding, such as <i>"driver:RightBumper"</i>
+     */
+    public String getDefaultBinding();
+}
@@ -0,0 +1,253 @@
+package frc.molib.hid;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import frc.molib.Console;
+import frc.molib.Utility;
+import frc.molib.buttons.Button;
+
+/**
+ * <p>Maps logical actions to physical controller inputs, read from a layout file in the deploy directory.</p>
+ * <p>The file is parsed once into int-indexed tables, so reading an action each loop is only a few array reads
+ * against the {@link HIDSnapshot}, with no string lookups.</p>
+ *
+ * <p>Layout files are Java properties files. Controllers are declared by role, and actions are mapped to a role's input:</p>
+ * <pre>
+ * driver.port = 0
+ * driver.type = XBOX
+ * driver.deadzone = 0.1
+ * Precision = driver:RightBumper
+ * Drive.LeftY = -driver:LeftY
+ * Elevator.ManualUp = operator:POV0
+ * </pre>
+ * <p>Inputs are named for the controller type (<i>A, RightBumper, Cross, Trigger, LeftY, Twist</i>), or given by number
+ * (<i>Button3, Axis2</i>), or a POV angle (<i>POV90</i>). A leading '-' inverts an axis. An axis read as a button
+ * is pressed past 0.5, or past a given threshold such as <i>driver:RightTrigger&gt;0.3</i>.</p>
+ * <p>Names shared by a button and an axis, such as the PS4's <i>L2</i>, resolve to the button. Prefix the name
+ * with <i>Axis.</i> to read the axis instead, such as <i>driver:Axis.L2</i>.</p>
+ *
+ * @param <ActionEnum> Enumeration of the logical actions.
+ */
+public class ControllerLayout<ActionEnum extends Enum<ActionEnum> & ControllerActionBase> {
+	private static final int KIND_NONE = 0;
+	private static final int KIND_BUTTON = 1;
+	private static final int KIND_POV = 2;
+	private static final int KIND_AXIS = 3;
+
+	private static final double DEFAULT_AXIS_THRESHOLD = 0.5;
+
+	/** A controller role, such as "driver", and how it is connected. */
+	private static class Controller {
+		int port;
+		ControllerType type;
+		double deadzone = 0.1;
+		Controller(int port, ControllerType type) { this.port = port; this.type = type; }
+	}
+
+	private final ActionEnum[] ACTIONS;
+	private final Map<String, Controller> mControllers = new HashMap<String, Controller>();
+
+	//Resolved Bindings, indexed by action ordinal
+	private final int[] mKind;
+	private final int[] mPort;
+	private final int[] mIndex;
+	private final double[] mSign;
+	private final double[] mThreshold;
+	private final double[] mDeadzone;
+
+	/**
+	 * Constructor. Every action starts with its default binding once {@link #load(String)} is called.
+	 * @param actionClass Enumeration class of the logical actions
+	 */
+	public ControllerLayout(Class<ActionEnum> actionClass) {
+		ACTIONS = actionClass.getEnumConstants();
+		mKind = new int[ACTIONS.length];
+		mPort = new int[ACTIONS.length];
+		mIndex = new int[ACTIONS.length];
+		mSign = new double[ACTIONS.length];
+		mThreshold = new double[ACTIONS.length];
+		mDeadzone = new double[ACTIONS.length];
+	}
+
+	/**
+	 * Declare a controller role used when the layout file does not.
+	 * @param role	Name of the role used in bindings, such as "driver"
+	 * @param port	The port on the Driver Station the controller is assigned to
+	 * @param type	The type of controller
+	 */
+	public void configController(String role, int port, ControllerType type) {
+		mControllers.put(role, new Controller(port, type));
+	}
+
+	/**
+	 * Parse a layout file from the deploy directory, resolving every action into the binding tables.
+	 * <p><i>Call once at startup. Actions missing from the file, or that fail to parse, use their default binding.</i></p>
+	 * @param fileName Layout file, relative to the deploy directory
+	 */
+	public void load(String fileName) {
+		Properties layout = new Properties();
+		File layoutFile = new File(Filesystem.getDeployDirectory(), fileName);
+		try(InputStream stream = new FileInputStream(layoutFile)) {
+			layout.load(stream);
+			Console.logMsg("Loaded controller layout: " + layoutFile.getPath());
+		} catch(IOException e) {
+			Console.logErr("Could not read controller layout " + layoutFile.getPath() + "! Using default bindings.");
+		}
+
+		//Controller roles
+		for(String key : layout.stringPropertyNames()) {
+			if(!key.endsWith(".port")) continue;
+			String role = key.substring(0, key.length() - ".port".length());
+			try {
+				int port = Integer.parseInt(layout.getProperty(key).trim());
+				if(port < 0 || port >= DriverStation.kJoystickPorts)
+					throw new IllegalArgumentException("port " + port + " does not exist");
+				ControllerType type = ControllerType.valueOf(layout.getProperty(role + ".type", "XBOX").trim().toUpperCase());
+				Controller controller = new Controller(port, type);
+				controller.deadzone = Math.abs(Double.parseDouble(layout.getProperty(role + ".deadzone", "0.1").trim()));
+				mControllers.put(role, controller);
+			} catch(IllegalArgumentException e) {
+				Console.logErr("Invalid controller '" + role + "' in layout: " + e.getMessage());
+			}
+		}
+
+		//Actions
+		for(ActionEnum action : ACTIONS) {
+			String binding = layout.getProperty(action.getKey());
+			if(binding == null || !resolve(action.ordinal(), binding.trim())) {
+				if(binding != null) Console.logErr("Invalid binding for '" + action.getKey() + "': " + binding + ". Using default.");
+				if(!resolve(action.ordinal(), action.getDefaultBinding()))
+					Console.logErr("Action '" + action.getKey() + "' is unbound!");
+			}
+		}
+	}
+
+	/**
+	 * Resolve a binding string into the tables.
+	 * @param ordinal Action index
+	 * @param binding Binding such as "-driver:LeftY", "operator:RightTrigger>0.3" or "driver:Axis.L2"
+	 * @return True if the binding was valid
+	 */
+	private boolean resolve(int ordinal, String binding) {
+		mKind[ordinal] = KIND_NONE;
+
+		double sign = 1.0;
+		if(binding.startsWith("-")) {
+			sign = -1.0;
+			binding = binding.substring(1);
+		}
+
+		int separator = binding.indexOf(':');
+		if(separator < 0) return false;
+		Controller controller = mControllers.get(binding.substring(0, separator).trim());
+		if(controller == null) return false;
+		String input = binding.substring(separator + 1).trim();
+
+		double threshold = DEFAULT_AXIS_THRESHOLD;
+		int comparison = input.indexOf('>');
+		try {
+			if(comparison >= 0) {
+				threshold = Double.parseDouble(input.substring(comparison + 1).trim());
+				input = input.substring(0, comparison).trim();
+			}
+
+			int kind;
+			int index;
+			if(input.startsWith("POV")) {
+				kind = KIND_POV;
+				index = Integer.parseInt(input.substring(3));
+			} else if(input.startsWith("Button")) {
+				kind = KIND_BUTTON;
+				index = Integer.parseInt(input.substring(6));
+			} else if(input.startsWith("Axis.")) {
+				kind = KIND_AXIS;
+				if((index = controller.type.getAxis(input.substring(5))) < 0) return false;
+			} else if(input.startsWith("Axis")) {
+				kind = KIND_AXIS;
+				index = Integer.parseInt(input.substring(4));
+			} else if((index = controller.type.getButton(input)) >= 0) {
+				kind = KIND_BUTTON;
+			} else if((index = controller.type.getAxis(input)) >= 0) {
+				kind = KIND_AXIS;
+			} else {
+				return false;
+			}
+
+			mPort[ordinal] = controller.port;
+			mIndex[ordinal] = index;
+			mSign[ordinal] = sign;
+			mThreshold[ordinal] = threshold;
+			mDeadzone[ordinal] = controller.deadzone;
+			mKind[ordinal] = kind;
+			return true;
+		} catch(NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Read an action as a button.
+	 * @param action Logical action
+	 * @return True if the mapped input is pressed
+	 */
+	public boolean get(ActionEnum action) {
+		int ordinal = action.ordinal();
+		switch(mKind[ordinal]) {
+			case KIND_BUTTON: return HIDSnapshot.getButton(mPort[ordinal], mIndex[ordinal]);
+			case KIND_POV: return HIDSnapshot.getPOV(mPort[ordinal], 0) == mIndex[ordinal];
+			case KIND_AXIS: return HIDSnapshot.getAxis(mPort[ordinal], mIndex[ordinal]) * mSign[ordinal] > mThreshold[ordinal];
+			default: return false;
+		}
+	}
+
+	/**
+	 * Read an action as an axis, with the controller's deadzone applied.
+	 * @param action Logical action
+	 * @return Axis value from -1.0 to 1.0. Buttons read as 0.0 or 1.0.
+	 */
+	public double getAxis(ActionEnum action) {
+		int ordinal = action.ordinal();
+		if(mKind[ordinal] == KIND_AXIS)
+			return Utility.deadenAxis(HIDSnapshot.getAxis(mPort[ordinal], mIndex[ordinal]), mDeadzone[ordinal]) * mSign[ordinal];
+		return get(action) ? mSign[ordinal] : 0.0;
+	}
+
+	/**
+	 * Get the Driver Station port an action is mapped to.
+	 * @param action Logical action
+	 * @return Port number, or -1 if unbound
+	 */
+	public int getPort(ActionEnum action) {
+		return mKind[action.ordinal()] == KIND_NONE ? -1 : mPort[action.ordinal()];
+	}
+
+	/**
+	 * Time the controller an action is mapped to last changed any input.
+	 * @param action Logical action
+	 * @return FPGA time the Driver Station packet carrying the change arrived, in seconds, or 0.0 if unbound
+	 * @see HIDSnapshot#getChangeTimestamp(int)
+	 */
+	public double getChangeTimestamp(ActionEnum action) {
+		int port = getPort(action);
+		return port < 0 ? 0.0 : HIDSnapshot.getChangeTimestamp(port);
+	}
+
+	/**
+	 * Create a {@link Button} that reads an action, so bindings can be attached to it.
+	 * @param action Logical action
+	 * @return New Button named after the action
+	 */
+	public Button getButton(ActionEnum action) {
+		return new Button(action.getKey()) {
+			@Override public boolean get() { return ControllerLayout.this.get(action); }
+		};
+	}
+}
@@ -0,0 +1,62 @@
+package frc.molib.hid;
+
+import edu.wpi.first.wpilibj.Joystick;
+import edu.wpi.first.wpilibj.PS4Controller;
+import edu.wpi.first.wpilibj.XboxController;
+
+/** 
+ * The kinds of controllers a {@link ControllerLayout} can map inputs from.
+ * <p>Translates the input names used in a layout file into Driver Station indexes.</p>
+ */
+public enum ControllerType {
+	XBOX {
+		@Override int getButton(String name) {
+			try { return XboxController.Button.valueOf("k" + name).value; }
+			catch(IllegalArgumentException e) { return -1; }
+		}
+		@Override int getAxis(String name) {
+			try { return XboxController.Axis.valueOf("k" + name).value; }
+			catch(IllegalArgumentException e) { return -1; }
+		}
+	},
+	PS4 {
+		@Override int getButton(String name) {
+			try { return PS4Controller.Button.valueOf("k" + name).value; }
+			catch(IllegalArgumentException e) { return -1; }
+		}
+		@Override int getAxis(String name) {
+			try { return PS4Controller.Axis.valueOf("k" + name).value; }
+			catch(IllegalArgumentException e) { return -1; }
+		}
+	},
+	JOYSTICK {
+		@Override int getButton(String name) {
+			try { return Joystick.ButtonType.valueOf("k" + name).value; }
+			catch(IllegalArgumentException e) { return -1; }
+		}
+		@Override int getAxis(String name) {
+			switch(name) {
+				case "X": return Joystick.kDefaultXChannel;
+				case "Y": return Joystick.kDefaultYChannel;
+				case "Z": return Joystick.kDefaultZChannel;
+				case "Twist": return Joystick.kDefaultTwistChannel;
+				case "Throttle": return Joystick.kDefaultThrottleChannel;
+				default: return -1;
+			}
+		}
+	};
+
+	/**
+	 * Look up a named button on this type of controller.
+	 * @param name Button name without the 'k' prefix, such as "RightBumper"
+	 * @return Button index starting at 1, or -1 if the name is not known
+	 */
+	abstract int getButton(String name);
+
+	/**
+	 * Look up a named axis on this type of controller.
+	 * @param name Axis name without the 'k' prefix, such as "LeftY"
+	 * @return Axis index starting at 0, or -1 if the name is not known
+	 */
+	abstract int getAxis(String name);
+}
@@ -42,6 +42,28 @@ public class GenericHID extends edu.wpi.first.wpilibj.GenericHID {
    */
 	@Override
 	public double getRawAxis(int axis) { 
-		return Utility.deadenAxis(super.getRawAxis(axis), mDeadzoneThreshold); 
+		return Utility.deadenAxis(HIDSnapshot.getAxis(getPort(), axis), mDeadzoneThreshold); 
+	}
+
+	/**
+	 * Get the button value from this loop's {@link HIDSnapshot}.
+	 *
+	 * @param button The button to read, starting at 1.
+	 * @return The state of the button.
+	 */
+	@Override
+	public boolean getRawButton(int button) {
+		return HIDSnapshot.getButton(getPort(), button);
+	}
+
+	/**
+	 * Get the angle of a POV from this loop's {@link HIDSnapshot}.
+	 *
+	 * @param pov The POV to read, starting at 0.
+	 * @return The angle of the POV in degrees, or -1 if not pressed.
+	 */
+	@Override
+	public int getPOV(int pov) {
+		return HIDSnapshot.getPOV(getPort(), pov);
 	}
 }
@@ -0,0 +1,187 @@
+package frc.molib.hid;
+
+import edu.wpi.first.hal.DriverStationJNI;
+import edu.wpi.first.util.WPIUtilJNI;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+
+/**
+ * Utility class holding a copy of every axis, button and POV reported by the Driver Station.
+ * <p>Captured once at the start of each loop so every controller and {@link frc.molib.buttons.Button}
+ * reads from the same packet rather than making separate Driver Station calls.</p>
+ * <p>A background thread records when each Driver Station packet arrives, so input changes are timestamped
+ * by when they reached the robot, not by when the loop got around to reading them.</p>
+ */
+public final class HIDSnapshot {
+	/** Most axes the Driver Station will report for a single controller. */
+	public static final int MAX_AXES = 12;
+	/** Most POVs the Driver Station will report for a single controller. */
+	public static final int MAX_POVS = 12;
+	/** Most buttons the Driver Station will report for a single controller. */
+	public static final int MAX_BUTTONS = 32;
+
+	private static final int PORTS = DriverStation.kJoystickPorts;
+
+	private static final double[][] mAxes = new double[PORTS][MAX_AXES];
+	private static final int[][] mPOVs = new int[PORTS][MAX_POVS];
+	private static final int[] mButtons = new int[PORTS];
+	private static final boolean[] mConnected = new boolean[PORTS];
+	private static final long[] mChangeTime = new long[PORTS];
+
+	private static long mTimestamp = 0;
+	private static long mPacketTime = 0;
+
+	//Newest packet arrival when the Driver Station data was last refreshed
+	private static long mRefreshTime = 0;
+	private static long mRefreshedArrivalTime = 0;
+	private static boolean mIsRefreshMarked = false;
+
+	//Arrival time of the newest Driver Station packet, written by the packet monitor thread
+	private static volatile long mPacketArrivalTime = 0;
+	private static Thread mPacketMonitor = null;
+
+	static {
+		for(int port = 0; port < PORTS; port++)
+			for(int pov = 0; pov < MAX_POVS; pov++)
+				mPOVs[port][pov] = -1;
+	}
+
+	private HIDSnapshot() { throw new AssertionError("Utility Class"); }
+
+	/**
+	 * Records which packet the Driver Station data is about to be refreshed from.
+	 * <p><i>Call just before {@link DriverStation#refreshData()}, such as at the start of the robot's loop.
+	 * Packets arriving after this are not in the refreshed data, so are not used to timestamp it.</i></p>
+	 */
+	public static void markRefresh() {
+		if(mPacketMonitor == null) startPacketMonitor();
+		mRefreshTime = RobotController.getFPGATime();
+		mRefreshedArrivalTime = mPacketArrivalTime;
+		mIsRefreshMarked = true;
+	}
+
+	/**
+	 * Copies the latest Driver Station values for every port into the snapshot.
+	 * <p><i>Call once at the start of each loop, before anything reads a controller.</i></p>
+	 */
+	public static void update() {
+		if(!mIsRefreshMarked) markRefresh();
+		mIsRefreshMarked = false;
+		mTimestamp = RobotController.getFPGATime();
+
+		//Until the first packet is seen, fall back to when the data was refreshed
+		mPacketTime = mRefreshedArrivalTime == 0 ? mRefreshTime : mRefreshedArrivalTime;
+
+		for(int port = 0; port < PORTS; port++) {
+			boolean changed = false;
+
+			int axisCount = Math.min(DriverStation.getStickAxisCount(port), MAX_AXES);
+			for(int axis = 0; axis < MAX_AXES; axis++) {
+				double value = axis < axisCount ? DriverStation.getStickAxis(port, axis) : 0.0;
+				if(value != mAxes[port][axis]) {
+					mAxes[port][axis] = value;
+					changed = true;
+				}
+			}
+
+			int povCount = Math.min(DriverStation.getStickPOVCount(port), MAX_POVS);
+			for(int pov = 0; pov < MAX_POVS; pov++) {
+				int value = pov < povCount ? DriverStation.getStickPOV(port, pov) : -1;
+				if(value != mPOVs[port][pov]) {
+					mPOVs[port][pov] = value;
+					changed = true;
+				}
+			}
+
+			int buttons = DriverStation.getStickButtons(port);
+			if(buttons != mButtons[port]) {
+				mButtons[port] = buttons;
+				changed = true;
+			}
+
+			mConnected[port] = axisCount > 0 || povCount > 0 || DriverStation.getStickButtonCount(port) > 0;
+			if(changed) mChangeTime[port] = mPacketTime;
+		}
+	}
+
+	/** Start a thread that waits on the Driver Station's new data event and records when each packet arrives. */
+	private static void startPacketMonitor() {
+		int event = WPIUtilJNI.createEvent(false, false);
+		DriverStationJNI.provideNewDataEventHandle(event);
+
+		mPacketMonitor = new Thread(() -> {
+			try {
+				while(!Thread.currentThread().isInterrupted()) {
+					WPIUtilJNI.waitForObject(event);
+					mPacketArrivalTime = RobotController.getFPGATime();
+				}
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				DriverStationJNI.removeNewDataEventHandle(event);
+				WPIUtilJNI.destroyEvent(event);
+			}
+		}, "DS Packet Monitor");
+		mPacketMonitor.setDaemon(true);
+		mPacketMonitor.start();
+	}
+
+	/** True if the port is one the Driver Station reports. */
+	private static boolean isValidPort(int port) { return port >= 0 && port < PORTS; }
+
+	/**
+	 * Reads an axis from the snapshot.
+	 * @param port Driver Station port, starting at 0
+	 * @param axis Axis index, starting at 0
+	 * @return Raw axis value, or 0.0 if the port or axis does not exist
+	 */
+	public static double getAxis(int port, int axis) {
+		if(!isValidPort(port) || axis < 0 || axis >= MAX_AXES) return 0.0;
+		return mAxes[port][axis];
+	}
+
+	/**
+	 * Reads a button from the snapshot.
+	 * @param port 		Driver Station port, starting at 0
+	 * @param button 	Button index, starting at 1
+	 * @return True if the button is held, or false if the port or button does not exist
+	 */
+	public static boolean getButton(int port, int button) {
+		if(!isValidPort(port) || button < 1 || button > MAX_BUTTONS) return false;
+		return (mButtons[port] & (1 << (button - 1))) != 0;
+	}
+
+	/**
+	 * Reads every button on a port at once.
+	 * @param port Driver Station port, starting at 0
+	 * @return Bitmask of held buttons, button 1 being the lowest bit, or 0 if the port does not exist
+	 */
+	public static int getButtons(int port) { return isValidPort(port) ? mButtons[port] : 0; }
+
+	/**
+	 * Reads a POV from the snapshot.
+	 * @param port 	Driver Station port, starting at 0
+	 * @param pov 	POV index, starting at 0
+	 * @return Angle of the POV in degrees, or -1 if not pressed or the port or POV does not exist
+	 */
+	public static int getPOV(int port, int pov) {
+		if(!isValidPort(port) || pov < 0 || pov >= MAX_POVS) return -1;
+		return mPOVs[port][pov];
+	}
+
+	/** Reads true if the Driver Station reported a controller on the port. */
+	public static boolean isConnected(int port) { return isValidPort(port) && mConnected[port]; }
+
+	/** Time the snapshot was captured, in FPGA seconds. */
+	public static double getTimestamp() { return mTimestamp * 1.0e-6; }
+
+	/** Time the Driver Station packet in the snapshot arrived at the robot, in FPGA seconds. */
+	public static double getPacketTimestamp() { return mPacketTime * 1.0e-6; }
+
+	/**
+	 * Time the Driver Station packet carrying the last change to any input on the port arrived, in FPGA seconds.
+	 * @param port Driver Station port, starting at 0
+	 * @return Change time, or 0.0 if the port does not exist
+	 */
+	public static double getChangeTimestamp(int port) { return isValidPort(port) ? mChangeTime[port] * 1.0e-6 : 0.0; }
+}
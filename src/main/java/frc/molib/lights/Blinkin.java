@@ -4,9 +4,11 @@ import edu.wpi.first.wpilibj.motorcontrol.Spark;
 
 /**
  * An interface to the Blinkin LED Driver
+ * <p><i>The PWM output is only written when the mode changes, so the mode can be set every loop.</i></p>
  */
 public class Blinkin {
 	private Spark mtrController;
+	private double mMode = Double.NaN;
 
 	/**
 	 * Constructor
@@ -21,7 +23,17 @@ public class Blinkin {
 	 * Change which mode the LEDs are set to.
 	 * @param mode The equivalent motor value associated with each mode.
 	 */
-	public void setMode(double mode) { this.mtrController.set(mode); }
+	public void setMode(double mode) {
+		if(mode == mMode) return;
+		mMode = mode;
+		this.mtrController.set(mode);
+	}
+
+	/**
+	 * Read which mode the LEDs were last set to.
+	 * @return The equivalent motor value of the mode
+	 */
+	public double getMode() { return mMode; }
 
 	/**
 	 * Disable LEDs
@@ -5,17 +5,34 @@ import edu.wpi.first.wpilibj.Solenoid;
 
 /**
  * Interface for controlling simple lights that can be controlled through a pneumatics module
+ * <p><i>The output is only written when it changes, so the light can be set every loop.</i></p>
  */
 public class DigitalLight {
 	private final Solenoid solController;
+	private boolean mIsOn = false;
 	
 	/**
 	 * Constructor using the default PCM ID
 	 * @param moduleType The module type to use
 	 * @param channel The channel on the PCM to control
 	 */
-	public DigitalLight(final PneumaticsModuleType moduleType, int channel) { solController = new Solenoid(moduleType, channel); }
-	public void turnOn() { solController.set(true); }
-	public void turnOff() { solController.set(false); }
-	public void toggle() { solController.set(!solController.get()); }
+	public DigitalLight(final PneumaticsModuleType moduleType, int channel) { 
+		solController = new Solenoid(moduleType, channel); 
+		solController.set(false);
+	}
+
+	/**
+	 * Turn the light on or off.
+	 * @param on True to turn the light on
+	 */
+	public void set(boolean on) {
+		if(on == mIsOn) return;
+		mIsOn = on;
+		solController.set(on);
+	}
+
+	public boolean isOn() { return mIsOn; }
+	public void turnOn() { set(true); }
+	public void turnOff() { set(false); }
+	public void toggle() { set(!mIsOn); }
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package frc.molib.lights;
+
+import java.util.ArrayList;
+
+/**
+ * Shares a {@link Blinkin} between everything that wants to show something on it.
+ * <p>Each user owns a {@link Layer}, and layers are ranked by the order they were added, highest priority first.
+ * Once per loop, {@link #update()} shows the pattern of the highest priority layer that is active,
+ * and the Blinkin is only written to when that pattern changes.</p>
+ * <p><i>Layers can be set as often as wanted; nothing is written until the next update.</i></p>
+ */
+public class LightManager {
+	/** A single source of patterns, active only while it has one set. */
+	public static final class Layer {
+		private final String NAME;
+		private double mPattern = Double.NaN;
+
+		private Layer(String name) { NAME = name; }
+
+		/** Name of the Layer. */
+		public String getName() { return NAME; }
+
+		/**
+		 * Show a pattern from this layer.
+		 * @param pattern Blinkin mode, such as {@link Blinkin.mode.solid#RED}
+		 */
+		public void set(double pattern) { mPattern = pattern; }
+
+		/**
+		 * Show a pattern from this layer only while a condition is true.
+		 * @param isActive	True to show the pattern, false to clear the layer
+		 * @param pattern	Blinkin mode to show while active
+		 */
+		public void set(boolean isActive, double pattern) { mPattern = isActive ? pattern : Double.NaN; }
+
+		/** Stop showing anything from this layer. */
+		public void clear() { mPattern = Double.NaN; }
+
+		/** True if this layer has a pattern set. */
+		public boolean isActive() { return !Double.isNaN(mPattern); }
+	}
+
+	private final Blinkin mBlinkin;
+	private final double DEFAULT_PATTERN;
+	private final ArrayList<Layer> mLayers = new ArrayList<Layer>();
+
+	private Layer mActiveLayer = null;
+
+	/**
+	 * Constructor
+	 * @param blinkin			Blinkin to show patterns on
+	 * @param defaultPattern	Pattern shown when no layer is active
+	 */
+	public LightManager(Blinkin blinkin, double defaultPattern) {
+		mBlinkin = blinkin;
+		DEFAULT_PATTERN = defaultPattern;
+	}
+
+	/**
+	 * Add a new layer, ranked below every layer already added.
+	 * @param name Name of the layer, for logging
+	 * @return The new layer
+	 */
+	public Layer addLayer(String name) {
+		Layer layer = new Layer(name);
+		mLayers.add(layer);
+		return layer;
+	}
+
+	/** Highest priority layer that is active, or null if none are. */
+	public Layer getActiveLayer() { return mActiveLayer; }
+
+	/** Call once per loop to show the pattern of the highest priority active layer. */
+	public void update() {
+		Layer activeLayer = null;
+		for(int index = 0; index < mLayers.size(); index++) {
+			if(mLayers.get(index).isActive()) {
+				activeLayer = mLayers.get(index);
+				break;
+			}
+		}
+
+		mActiveLayer = activeLayer;
+		mBlinkin.setMode(activeLayer == null ? DEFAULT_PATTERN : activeLayer.mPattern);
+	}
+}
@@ -0,0 +1,60 @@
+package frc.molib.sensors;
+
+import edu.wpi.first.wpilibj.AnalogInput;
+import edu.wpi.first.wpilibj.RobotController;
+
+/**
+ * An analog sensor read once per loop through the {@link SensorManager}.
+ * <p>The FPGA oversamples and averages the input in hardware, so readings are smooth without any filtering in code.
+ * Each reading is cached, and every call until the next update returns the same value.</p>
+ */
+public class AnalogSensor {
+	/** Default number of oversample bits, giving 2 extra bits of resolution. */
+	public static final int DEFAULT_OVERSAMPLE_BITS = 2;
+	/** Default number of average bits, averaging 16 samples. */
+	public static final int DEFAULT_AVERAGE_BITS = 4;
+
+	private final AnalogInput mInput;
+
+	private double mVoltage = 0.0;
+	private double mRatio = 0.0;
+
+	/**
+	 * Constructor
+	 * @param channel The analog channel this sensor is plugged into
+	 */
+	public AnalogSensor(int channel) {
+		mInput = new AnalogInput(channel);
+		configSampling(DEFAULT_OVERSAMPLE_BITS, DEFAULT_AVERAGE_BITS);
+		SensorManager.addAnalogSensor(this);
+	}
+
+	/**
+	 * Configure how many samples the FPGA combines into each reading.
+	 * <p><i>Each reading covers 2^(oversampleBits + averageBits) samples, so more bits add lag.</i></p>
+	 * @param oversampleBits	Samples summed for extra resolution, as a power of two
+	 * @param averageBits		Samples averaged for less noise, as a power of two
+	 */
+	public void configSampling(int oversampleBits, int averageBits) {
+		mInput.setOversampleBits(oversampleBits);
+		mInput.setAverageBits(averageBits);
+	}
+
+	/** Read the sensor from the FPGA. Called by the {@link SensorManager} once per loop. */
+	protected void updateValues() {
+		mVoltage = mInput.getAverageVoltage();
+		mRatio = mVoltage / RobotController.getVoltage5V();
+	}
+
+	/**
+	 * Get the voltage read during the last update.
+	 * @return Averaged voltage in volts
+	 */
+	public double getVoltage() { return mVoltage; }
+
+	/**
+	 * Get the reading during the last update, as a share of the 5V rail, like a potentiometer.
+	 * @return Value from 0.0 to 1.0
+	 */
+	public double get() { return mRatio; }
+}
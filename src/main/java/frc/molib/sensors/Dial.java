@@ -1,33 +1,52 @@
 package frc.molib.sensors;
 
-import edu.wpi.first.wpilibj.AnalogPotentiometer;
-
 /**
  * An interface for a potentiometer. Can return distinct positions rather than a voltage or percentage
+ * <p>Positions are found once per loop from thresholds calculated at construction. A position is held until the reading
+ * is clearly past its threshold, so the selection does not flicker while the dial rests on a boundary.</p>
  */
-public class Dial {
-	private AnalogPotentiometer potSource;
-	private final int mPositions;
-	
+public class Dial extends AnalogSensor {
+	/** Default hysteresis, as a share of the space between positions. */
+	public static final double DEFAULT_HYSTERESIS = 0.1;
+
+	/** Reading between position index and index + 1 */
+	private final double[] mThresholds;
+	private double mHysteresis;
+	private int mPosition = 1;
+
 	/**
 	 * Constructor
 	 * @param channel The analog channel this dial is plugged into
-	 * @param maxPosition The number of positions the dial should detect
+	 * @param positions The number of positions the dial should detect
 	 */
 	public Dial(int channel, int positions) {
-		potSource = new AnalogPotentiometer(channel);
-		mPositions = positions;
+		super(channel);
+		mThresholds = new double[Math.max(0, positions - 1)];
+		for (int index = 0; index < mThresholds.length; index++)
+			mThresholds[index] = (index + 0.5) / (positions - 1);
+		configHysteresis(DEFAULT_HYSTERESIS);
 	}
-	
+
 	/**
-	 * Get the current positional reading of the potentiomenter
-	 * @return Current position
+	 * Configure how far past a threshold the reading must go before the position changes.
+	 * @param hysteresis Share of the space between positions, from 0.0 to 0.5
 	 */
-	public int getPosition() {
-		double currentVoltage = potSource.get();
-		for (int position = 1; position <= mPositions; position++)
-			if (currentVoltage <= ((1.0 / (double) (mPositions - 1)) * (double) (position - 0.5)))
-				return position;
-		return -1;
+	public void configHysteresis(double hysteresis) {
+		mHysteresis = mThresholds.length == 0 ? 0.0 : Math.max(0.0, Math.min(0.5, hysteresis)) / mThresholds.length;
+	}
+
+	@Override protected void updateValues() {
+		super.updateValues();
+		double value = get();
+
+		//Move down or up one position at a time, only once clearly past the threshold
+		while (mPosition > 1 && value < mThresholds[mPosition - 2] - mHysteresis) mPosition--;
+		while (mPosition <= mThresholds.length && value > mThresholds[mPosition - 1] + mHysteresis) mPosition++;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Get the current positional reading of the potentiomenter
+	 * @return Current position, starting at 1
+	 */
+	public int getPosition() { return mPosition; }
+}
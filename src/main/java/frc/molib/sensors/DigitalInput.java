@@ -1,8 +1,34 @@
 package frc.molib.sensors;
 
+import edu.wpi.first.wpilibj.AsynchronousInterrupt;
+import edu.wpi.first.wpilibj.DigitalGlitchFilter;
+
+/**
+ * A DigitalInput that can be inverted, and can catch edges the moment they happen rather than at the next loop.
+ * <p>With {@link #configInterrupt(EdgeListener)}, the FPGA timestamps every rising and falling edge, and a listener is
+ * called on a separate thread as soon as one occurs. Edges are reported after inversion, so a rising edge always means
+ * {@link #get()} became true.</p>
+ */
 public class DigitalInput extends edu.wpi.first.wpilibj.DigitalInput {
+    /** Called on the interrupt thread when an edge occurs. <i>Must be quick and thread-safe.</i> */
+    @FunctionalInterface
+    public interface EdgeListener {
+        /**
+         * @param isRising	True if the input became true, false if it became false
+         * @param timestamp	FPGA time of the edge, in seconds
+         */
+        void onEdge(boolean isRising, double timestamp);
+    }
+
     private boolean mIsInverted = false;
 
+    private volatile AsynchronousInterrupt mInterrupt = null;
+    private EdgeListener mListener = null;
+    private volatile double mRisingTimestamp = Double.NaN;
+    private volatile double mFallingTimestamp = Double.NaN;
+    private volatile long mRisingCount = 0;
+    private volatile long mFallingCount = 0;
+
     public DigitalInput(int channel) { this(channel, false); }
     public DigitalInput(int channel, boolean isInverted) {
         super(channel);   
@@ -11,8 +37,83 @@ public class DigitalInput extends edu.wpi.first.wpilibj.DigitalInput {
 
     public void configInverted(boolean isInverted) { mIsInverted = isInverted; }
 
+    /**
+     * Ignore pulses shorter than the filter's period, such as a photo-eye flickering on an edge of a game piece.
+     * <p><i>The FPGA only has a few filters, so share one filter between inputs that need the same period.</i></p>
+     * @param filter Glitch filter to add this input to
+     */
+    public void configGlitchFilter(DigitalGlitchFilter filter) { filter.add(this); }
+
+    /**
+     * Catch rising and falling edges with the FPGA and report them to a listener as they happen.
+     * @param listener Called on the interrupt thread for each edge, or null to only record timestamps
+     */
+    public void configInterrupt(EdgeListener listener) {
+        mListener = listener;
+        if(mInterrupt != null) return;
+
+        mInterrupt = new AsynchronousInterrupt(this, this::handleInterrupt);
+        mInterrupt.setInterruptEdges(true, true);
+        mInterrupt.enable();
+    }
+
+    /** Stop catching edges. */
+    public void disableInterrupt() {
+        if(mInterrupt == null) return;
+        mInterrupt.close();
+        mInterrupt = null;
+    }
+
+    /** Record edges from the FPGA, in the order they occurred, then pass them to the listener. */
+    private void handleInterrupt(Boolean isRawRising, Boolean isRawFalling) {
+        AsynchronousInterrupt interrupt = mInterrupt;
+        if(interrupt == null) return;
+        double rawRisingTimestamp = isRawRising ? interrupt.getRisingTimestamp() : Double.NaN;
+        double rawFallingTimestamp = isRawFalling ? interrupt.getFallingTimestamp() : Double.NaN;
+
+        //Inverting the input swaps which edge is which
+        double risingTimestamp = mIsInverted ? rawFallingTimestamp : rawRisingTimestamp;
+        double fallingTimestamp = mIsInverted ? rawRisingTimestamp : rawFallingTimestamp;
+
+        if(fallingTimestamp < risingTimestamp) {
+            onEdge(false, fallingTimestamp);
+            onEdge(true, risingTimestamp);
+        } else {
+            if(!Double.isNaN(risingTimestamp)) onEdge(true, risingTimestamp);
+            if(!Double.isNaN(fallingTimestamp)) onEdge(false, fallingTimestamp);
+        }
+    }
+
+    private void onEdge(boolean isRising, double timestamp) {
+        if(isRising) {
+            mRisingTimestamp = timestamp;
+            mRisingCount++;
+        } else {
+            mFallingTimestamp = timestamp;
+            mFallingCount++;
+        }
+
+        EdgeListener listener = mListener;
+        if(listener != null) listener.onEdge(isRising, timestamp);
+    }
+
+    /** FPGA time of the last rising edge caught by the interrupt, in seconds, or NaN if there has been none. */
+    public double getRisingTimestamp() { return mRisingTimestamp; }
+    /** FPGA time of the last falling edge caught by the interrupt, in seconds, or NaN if there has been none. */
+    public double getFallingTimestamp() { return mFallingTimestamp; }
+    /** Number of rising edges caught by the interrupt. */
+    public long getRisingCount() { return mRisingCount; }
+    /** Number of falling edges caught by the interrupt. */
+    public long getFallingCount() { return mFallingCount; }
+
     @Override
     public boolean get() {
         return mIsInverted ? !super.get() : super.get();
     }
+
+    @Override
+    public void close() {
+        disableInterrupt();
+        super.close();
+    }
 }
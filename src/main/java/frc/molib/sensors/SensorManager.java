@@ -0,0 +1,39 @@
+package frc.molib.sensors;
+
+import java.util.Arrays;
+
+/**
+ * Utility class for managing instances of {@link frc.molib.sensors.AnalogSensor}.
+ * <p>Update once per loop, so every sensor is read from the FPGA a single time and the rest of the loop uses that reading.</p>
+ */
+public final class SensorManager {
+	private static AnalogSensor[] mAnalogSensors = new AnalogSensor[8];
+	private static int mAnalogSensorCount = 0;
+
+	private SensorManager() { throw new AssertionError("Utility Class"); }
+
+	/**
+	 * Adds a new analog sensor to the manager
+	 * @param sensor New sensor
+	 */
+	static void addAnalogSensor(AnalogSensor sensor) {
+		if (mAnalogSensorCount == mAnalogSensors.length) mAnalogSensors = Arrays.copyOf(mAnalogSensors, mAnalogSensorCount * 2);
+		mAnalogSensors[mAnalogSensorCount++] = sensor;
+	}
+
+	/**
+	 * Removes all sensors
+	 */
+	public static void removeAll() {
+		Arrays.fill(mAnalogSensors, null);
+		mAnalogSensorCount = 0;
+	}
+
+	/**
+	 * Grabs new values for all registered sensors
+	 */
+	public static void updateValues() {
+		for (int index = 0; index < mAnalogSensorCount; index++)
+			mAnalogSensors[index].updateValues();
+	}
+}
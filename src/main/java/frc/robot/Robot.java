@@ -4,20 +4,30 @@
 
 package frc.robot;
 
-import edu.wpi.first.cameraserver.CameraServer;
 import edu.wpi.first.cscore.UsbCamera;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.BatterySim;
+import edu.wpi.first.wpilibj.simulation.RoboRioSim;
 import frc.molib.Console;
+import frc.molib.LoopMonitor;
 import frc.molib.Managers;
+import frc.molib.camera.CameraManager;
+import frc.molib.camera.CameraProfile;
+import frc.molib.hid.HIDSnapshot;
 import frc.robot.period.Autonomous;
 import frc.robot.period.Disabled;
 import frc.robot.period.Teleoperated;
 import frc.robot.period.Test;
+import frc.robot.sim.MatchHarness;
+import frc.robot.sim.SimConfig;
 import frc.robot.subsystem.Chassis;
+import frc.robot.subsystem.Lights;
 import frc.robot.subsystem.Manipulator;
+import frc.robot.subsystem.Vision;
 
 /**
  * The methods in this class are called automatically corresponding to each mode, as described in
@@ -30,36 +40,65 @@ public class Robot extends TimedRobot {
     public static final NetworkTable tblControlPeriods = tblMain.getSubTable("Control Periods");
     public static final NetworkTable tblSubsystems = tblMain.getSubTable("Subsystems");
 
-    //Driver Camera
-    private static UsbCamera camDriver;
+    //Simulation
+    private static final double SIM_BATTERY_RESISTANCE = 0.02;
+
+    //Loop Monitor phases, in the order they run
+    private static final int PHASE_INPUTS = 0;
+    private static final int PHASE_CONTROL_PERIOD = 1;
+    private static final int PHASE_ROBOT_PERIODIC = 2;
+    private static final int PHASE_FRAMEWORK = 3;
+    private static LoopMonitor monLoop;
+
+    /** True once this loop's inputs have been captured. */
+    private static boolean mIsInputCaptured = false;
+
+    //Driver Camera, streamed only while a Dashboard is watching
+    private static final CameraProfile CAMERA_DISABLED = new CameraProfile("Disabled", 128, 80, 5);
+    private static final CameraProfile CAMERA_AUTONOMOUS = new CameraProfile("Autonomous", 128, 80, 10);
+    private static final CameraProfile CAMERA_TELEOPERATED = new CameraProfile("Teleoperated", 160, 120, 15);
+    private static CameraManager camDriver;
 
     /** Disable all Subsystems; Stop all movement. */
     public static void disableSubsystems() {
+        Vision.disable_Align();
         Chassis.disable();
         Manipulator.disable();
     }
 
+    /** Allocation and timing statistics of the main loop. */
+    public static LoopMonitor getLoopMonitor() { return monLoop; }
+
+    /** Print and clear the main loop allocation and overrun statistics. */
+    public static void logLoopSummary() {
+        if(monLoop == null) return;
+        monLoop.logSummary();
+        monLoop.reset();
+    }
+
     @Override public void robotInit() {
         Console.printHeader("Robot Initialization");
 
-        Console.logMsg("Waiting for NetworkTables Connection...");
-        Timer tmrNetworkTable = new Timer();
-        tmrNetworkTable.restart();
-        while(!NetworkTableInstance.getDefault().isConnected() && tmrNetworkTable.get() < 15.0);
-        if(!NetworkTableInstance.getDefault().isConnected())
-            Console.logErr("NetworkTables failed to connect! Dashboard objects may not work as intended!");
-
-        //Try to start the Driver Camera
-        try {
-            Console.logMsg("Initializing Driver Camera...");
-            camDriver = CameraServer.startAutomaticCapture("Driver Camera", 0);
-            camDriver.setFPS(15);
-            camDriver.setResolution(128, 80);
-            camDriver.setBrightness(50);
-        } finally {
-            Console.logErr("Camera not found!");
+        monLoop = new LoopMonitor(tblMain, "Robot", "Inputs", "Control Period", "Robot Periodic", "Framework");
+        monLoop.configLoopPeriod(getPeriod());
+
+        //No Dashboard is expected in simulation, and time may not be moving yet
+        if(isReal()) {
+            Console.logMsg("Waiting for NetworkTables Connection...");
+            Timer tmrNetworkTable = new Timer();
+            tmrNetworkTable.restart();
+            while(!NetworkTableInstance.getDefault().isConnected() && tmrNetworkTable.get() < 15.0);
+            if(!NetworkTableInstance.getDefault().isConnected())
+                Console.logErr("NetworkTables failed to connect! Dashboard objects may not work as intended!");
         }
 
+        //Publish the Driver Camera; it is only opened once a Dashboard connects to it
+        Console.logMsg("Initializing Driver Camera...");
+        UsbCamera usbDriver = new UsbCamera("Driver Camera", 0);
+        usbDriver.setBrightness(50);
+        camDriver = new CameraManager(tblMain, usbDriver);
+        camDriver.setProfile(CAMERA_DISABLED);
+
         //Initialize Control Periods
         Test.init();
         Autonomous.init();
@@ -69,28 +108,99 @@ public class Robot extends TimedRobot {
         //Initialize Subsystems
         Chassis.init();
         Manipulator.init();
+        Vision.init(usbDriver);
+        Lights.init();
+
+        //Update odometry faster than the main loop
+        addPeriodic(Chassis::updateOdometry, Chassis.ODOMETRY_PERIOD, Chassis.ODOMETRY_PERIOD / 2.0);
 
         Console.printSeparator();
         Console.logMsg("Robot Initialization Complete!");
     }
 
-    @Override public void robotPeriodic() {
+    /** 
+     * Time the whole loop. The framework refreshes the Driver Station data once at the start of it,
+     * and inputs are captured from that same packet by {@link #captureInputs()}, timestamped by the packet marked just before it.
+     */
+    @Override protected void loopFunc() {
+        monLoop.startLoop();
+        mIsInputCaptured = false;
+
+        HIDSnapshot.markRefresh();
+        super.loopFunc();
+        monLoop.mark(PHASE_FRAMEWORK);
+        monLoop.endLoop();
+    }
+
+    /** 
+     * Capture controller and sensor inputs once per loop, after the framework has refreshed the Driver Station data 
+     * and before any Control Period uses them, so the whole loop works from the same packet.
+     * <p>Vision is read here too, so a new alignment setpoint reaches the Chassis in the same loop the image arrived.</p>
+     * <p><i>Called at the top of every mode callback; only the first call in a loop does anything.</i></p>
+     */
+    private static void captureInputs() {
+        if(mIsInputCaptured) return;
+        mIsInputCaptured = true;
         Managers.update();
+        Vision.periodic();
+        monLoop.mark(PHASE_INPUTS);
+    }
+
+    @Override public void robotPeriodic() {
+        //The Control Period has just run
+        captureInputs();
+        monLoop.mark(PHASE_CONTROL_PERIOD);
 
         Chassis.syncDashboardValues();
         Manipulator.syncDashboardValues();
+        Vision.syncDashboardValues();
+        Lights.syncDashboardValues();
+        monLoop.publish();
+
+        Lights.periodic();
+        updateDriverCamera();
+        monLoop.mark(PHASE_ROBOT_PERIODIC);
+    }
+
+    /** Stream the Driver Camera at the profile for the current Control Period, backing off if the loop is struggling. */
+    private static void updateDriverCamera() {
+        if(DriverStation.isDisabled())
+            camDriver.setProfile(CAMERA_DISABLED);
+        else if(DriverStation.isAutonomous())
+            camDriver.setProfile(CAMERA_AUTONOMOUS);
+        else
+            camDriver.setProfile(CAMERA_TELEOPERATED);
+
+        camDriver.update(monLoop.isUnderPressure());
+        camDriver.publish();
+    }
+
+    @Override public void simulationInit() {
+        Chassis.initSimulation();
+        Manipulator.initSimulation();
+
+        if(MatchHarness.isEnabled()) MatchHarness.start();
+    }
+
+    @Override public void simulationPeriodic() {
+        Chassis.simulationPeriodic(getPeriod());
+        Manipulator.simulationPeriodic(getPeriod());
+
+        //Sag the battery by the current being drawn
+        RoboRioSim.setVInVoltage(BatterySim.calculateLoadedBatteryVoltage(SimConfig.getBatteryVoltage(), SIM_BATTERY_RESISTANCE, 
+            Chassis.getSimCurrentDraw(), Manipulator.getSimCurrentDraw()));
     }
 
-    @Override public void testInit() { Test.start(); }
-    @Override public void testPeriodic() { Test.periodic(); }
+    @Override public void testInit() { captureInputs(); Test.start(); }
+    @Override public void testPeriodic() { captureInputs(); Test.periodic(); }
 
-    @Override public void autonomousInit() { Autonomous.start(); }
-    @Override public void autonomousPeriodic() { Autonomous.periodic(); }
+    @Override public void autonomousInit() { captureInputs(); Autonomous.start(); }
+    @Override public void autonomousPeriodic() { captureInputs(); Autonomous.periodic(); }
 
-    @Override public void teleopInit() { Teleoperated.start(); }
-    @Override public void teleopPeriodic() { Teleoperated.periodic(); }
+    @Override public void teleopInit() { captureInputs(); Teleoperated.start(); }
+    @Override public void teleopPeriodic() { captureInputs(); Teleoperated.periodic(); }
 
-    @Override public void disabledInit() { Disabled.start(); }
-    @Override public void disabledPeriodic() { Disabled.periodic(); }
-    @Override public void disabledExit() { Disabled.end(); }
+    @Override public void disabledInit() { captureInputs(); Disabled.start(); }
+    @Override public void disabledPeriodic() { captureInputs(); Disabled.periodic(); }
+    @Override public void disabledExit() { captureInputs(); Disabled.end(); }
 }
@@ -0,0 +1,96 @@
+package frc.robot.period;
+
+import java.io.File;
+import java.util.List;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.DifferentialDriveKinematics;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+import edu.wpi.first.math.trajectory.TrajectoryGenerator;
+import edu.wpi.first.wpilibj.Filesystem;
+import frc.molib.drive.Trajectory;
+import frc.molib.drive.TrajectoryCache;
+import frc.robot.subsystem.Chassis;
+
+/**
+ * Trajectories driven during Autonomous, defined by waypoints on the blue alliance side of the field.
+ * <p>Trajectory files are generated by the <i>generateTrajectories</i> Gradle task, which every build and deploy runs,
+ * and deployed with the code. Any that are still missing or out of date on the robot are generated in the background at startup.</p>
+ */
+public enum AutoPath {
+    /** Leave the starting zone from the left side, toward the reef. */
+    LEFT_LEAVE("LeftLeave",
+        new Pose2d(7.60, 6.50, Rotation2d.fromDegrees(180.0)),
+        new Pose2d(6.00, 5.40, Rotation2d.fromDegrees(180.0))),
+    /** Leave the starting zone from the center, toward the reef. */
+    CENTER_LEAVE("CenterLeave",
+        new Pose2d(7.60, 4.03, Rotation2d.fromDegrees(180.0)),
+        new Pose2d(6.30, 4.03, Rotation2d.fromDegrees(180.0))),
+    /** Leave the starting zone from the right side, toward the reef. */
+    RIGHT_LEAVE("RightLeave",
+        new Pose2d(7.60, 1.55, Rotation2d.fromDegrees(180.0)),
+        new Pose2d(6.00, 2.65, Rotation2d.fromDegrees(180.0)));
+
+    //Constraints
+    private static final double MAX_VELOCITY = 2.0;
+    private static final double MAX_ACCELERATION = 1.5;
+
+    private static final String DIRECTORY = "trajectories";
+
+    private final TrajectoryCache CACHE;
+
+    private AutoPath(String name, Pose2d... waypoints) {
+        CACHE = new TrajectoryCache(name, getSourceHash(waypoints), () -> generate(waypoints));
+    }
+
+    /** The trajectory, or null if it is still being generated. */
+    public Trajectory get() { return CACHE.get(); }
+    /** True once the trajectory has been loaded or generated. */
+    public boolean isReady() { return CACHE.isReady(); }
+    /** Name of the trajectory. */
+    public String getName() { return CACHE.getName(); }
+
+    /** Generate the trajectory through the waypoints. */
+    private static Trajectory generate(Pose2d[] waypoints) {
+        TrajectoryConfig config = new TrajectoryConfig(MAX_VELOCITY, MAX_ACCELERATION)
+            .setKinematics(new DifferentialDriveKinematics(Chassis.TRACK_WIDTH));
+        return Trajectory.fromWPILib(TrajectoryGenerator.generateTrajectory(List.of(waypoints), config), getSourceHash(waypoints));
+    }
+
+    /** Identifies the waypoints and constraints, so changing either regenerates the file. */
+    private static long getSourceHash(Pose2d[] waypoints) {
+        long hash = 17;
+        hash = hash * 31 + Double.doubleToLongBits(MAX_VELOCITY);
+        hash = hash * 31 + Double.doubleToLongBits(MAX_ACCELERATION);
+        hash = hash * 31 + Double.doubleToLongBits(Chassis.TRACK_WIDTH);
+        for(Pose2d waypoint : waypoints) {
+            hash = hash * 31 + Double.doubleToLongBits(waypoint.getX());
+            hash = hash * 31 + Double.doubleToLongBits(waypoint.getY());
+            hash = hash * 31 + Double.doubleToLongBits(waypoint.getRotation().getRadians());
+        }
+        return hash;
+    }
+
+    private static TrajectoryCache[] getCaches() {
+        AutoPath[] paths = values();
+        TrajectoryCache[] caches = new TrajectoryCache[paths.length];
+        for(int index = 0; index < paths.length; index++) caches[index] = paths[index].CACHE;
+        return caches;
+    }
+
+    /** Call once at robot startup to load every trajectory from the deploy directory. */
+    public static void loadAll() {
+        TrajectoryCache.loadAll(new File(Filesystem.getDeployDirectory(), DIRECTORY), getCaches());
+    }
+
+    /**
+     * Generate every trajectory file ahead of time. Run by the <i>generateTrajectories</i> Gradle task.
+     * @param args Directory to write the trajectory files into
+     */
+    public static void main(String[] args) {
+        File directory = new File(args.length > 0 ? args[0] : "src/main/deploy/" + DIRECTORY);
+        TrajectoryCache.generateAll(directory, getCaches());
+        System.out.println("Generated " + values().length + " trajectories into " + directory.getPath());
+    }
+}
@@ -2,31 +2,43 @@ package frc.robot.period;
 
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.wpilibj.DriverStation;
-import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.Timer;
+import frc.molib.Clock;
 import frc.molib.Console;
+import frc.molib.auto.Action;
+import frc.molib.auto.DeadlineAction;
+import frc.molib.auto.InstantAction;
+import frc.molib.auto.SequentialAction;
+import frc.molib.auto.WaitAction;
+import frc.molib.auto.WaitUntilAction;
 import frc.molib.dashboard.DashboardOptionBase;
 import frc.molib.dashboard.DashboardSelector;
 import frc.robot.Robot;
 import frc.robot.subsystem.Chassis;
 import frc.robot.subsystem.Manipulator;
+import frc.robot.subsystem.Manipulator.Position;
+import frc.robot.subsystem.Vision;
 
 /** Controls the Robot through pre-programmed sequences during the Autonomous game period */
 public class Autonomous {
     private enum StartingPosition implements DashboardOptionBase {
-        LEFT("Left"),
-        CENTER("Center"),
-        RIGHT("Right");
+        LEFT("Left", AutoPath.LEFT_LEAVE),
+        CENTER("Center", AutoPath.CENTER_LEAVE),
+        RIGHT("Right", AutoPath.RIGHT_LEAVE);
 
         public static final StartingPosition DEFAULT = CENTER; 
 
         private final String LABEL;
+        private final AutoPath LEAVE_PATH;
 
-        private StartingPosition(String label) { LABEL = label; }
+        private StartingPosition(String label, AutoPath leavePath) { LABEL = label; LEAVE_PATH = leavePath; }
         
         /** Returns the title of this selector. */
         public static String getTitle() { return "Starting Position"; }
         public String getLabel() { return LABEL; }
+        /** Path that leaves the starting zone from this position. */
+        public AutoPath getLeavePath() { return LEAVE_PATH; }
     }
 
     private enum StartingDelay implements DashboardOptionBase {
@@ -52,71 +64,132 @@ public class Autonomous {
 
     private enum Sequence implements DashboardOptionBase {
         /** <i>Do absolutely nothing.</i> Do not move, do not score. Typically a last resort if enabling the robot may break it. */
-        DO_NOTHING("-Do Nothing-"),
+        DO_NOTHING("-Do Nothing-") {
+            @Override public Action build(StartingPosition position, StartingDelay delay) { 
+                return new InstantAction(() -> {}); 
+            }},
         /** Default Option. Just prepare for the match: reset systems, etc. but do not move or score. */
         PREPARE_FOR_MATCH("-Prepare for Match-") {
-            @Override public void start() {
-                Console.logMsg("Zeroing Elevator...");
-                Manipulator.lowerElevator();
+            @Override public Action build(StartingPosition position, StartingDelay delay) {
+                return new InstantAction(() -> {
+                    Console.logMsg("Zeroing Elevator...");
+                    Manipulator.home();
+                });
             }},
         /** Drive just enough to get the most basic points. */
         JUST_DRIVE("Just Drive") {
-            @Override public void periodic() {
-                switch(mStage) {
-                    case 0:
+            @Override public Action build(StartingPosition position, StartingDelay delay) {
+                return new SequentialAction(
+                    new InstantAction(() -> {
                         Console.logMsg("Zeroing Elevator. Delaying other actions...");
-                        Manipulator.lowerElevator();
-                        tmrStage.reset();
-                        mStage++;
-                    case 1:
-                        if(tmrStage.get() >= mSelectedStartingDelay.getTime()) mStage++;
-                        break;
-                    case 2:
+                        Manipulator.home();
+                    }),
+                    new WaitAction(delay.getTime()),
+                    new InstantAction(() -> {
                         Console.logMsg("Driving forward 1ft...");
                         Chassis.goToDistance(12.0);
                         Chassis.resetDistance();
-                        tmrStage.reset();
-                        mStage++;
-                    case 3:
-                        if(Chassis.isAtDistance() || tmrStage.get() > 1.0) mStage++;
-                        break;
-                    case 4:
+                    }),
+                    new WaitUntilAction(Chassis::isAtDistance).withTimeout(1.0),
+                    new InstantAction(() -> {
                         Console.logMsg((Chassis.isAtDistance() ? "Target reached" : "Stage Timed Out") + ". Stopping...");
-                        Chassis.disable();
-                        Console.logMsg("Sequence Complete.");
-                        Console.printSeparator();
-                        mStage++;
-                    default:
-                        Robot.disableSubsystems();
-                }
+                        finish();
+                    }));
+            }},
+        /** Follow a Trajectory out of the starting zone from the selected Starting Position, zeroing the Elevator on the way. */
+        LEAVE("Leave Zone") {
+            @Override public Action build(StartingPosition position, StartingDelay delay) {
+                return new SequentialAction(
+                    leaveZone(position, delay),
+                    new InstantAction(() -> {
+                        Console.logMsg("Stopping...");
+                        finish();
+                    }));
+            }},
+        /** Leave the starting zone, then turn to face the Reef target seen by the Limelight. */
+        LEAVE_AND_ALIGN("Leave Zone and Align") {
+            @Override public Action build(StartingPosition position, StartingDelay delay) {
+                return new SequentialAction(
+                    leaveZone(position, delay),
+                    new InstantAction(() -> Console.logMsg("Aligning to target...")),
+                    new AlignAction().withTimeout(3.0),
+                    new InstantAction(() -> {
+                        Console.logMsg((Vision.isAligned() ? "Aligned" : "Alignment Timed Out") + ". Stopping...");
+                        finish();
+                    }));
+            }},
+        /** Leave the starting zone toward the Reef, then score the preloaded Coral in the Trough. */
+        LEAVE_AND_SCORE("Leave Zone and Score") {
+            @Override public Action build(StartingPosition position, StartingDelay delay) {
+                return new SequentialAction(
+                    leaveZone(position, delay),
+                    new InstantAction(() -> {
+                        Console.logMsg("Scoring Coral in the Trough...");
+                        Manipulator.score(Position.TROUGH);
+                    }),
+                    new WaitUntilAction(() -> !Manipulator.isScoring()).withTimeout(5.0),
+                    new InstantAction(() -> {
+                        Console.logMsg((Manipulator.isLoaded() ? "Coral Not Scored" : "Coral Scored") + ". Stopping...");
+                        finish();
+                    }));
             }};
 
-        private static final Timer tmrStage = new Timer();
         public static final Sequence DEFAULT = PREPARE_FOR_MATCH; 
 
         private final String LABEL;
-        private static int mStage = 0;
 
         private Sequence(String label) { LABEL = label; }
         
         /** Returns the title of this selector. */
-        public static String getTitle() { return "Starting Position"; }
+        public static String getTitle() { return "Sequence"; }
         public String getLabel() { return LABEL; }
 
-        /** 
-         * Call once at the start of Autonomous to prepare each Sequence. 
-         * <p><i>Override if more actions are necessary at the start of the Sequence.</i></p>
-         */
-        public void start() {
-            tmrStage.restart();
-            mStage = 0;
+        /** Follow the Leave path of the Starting Position after the Starting Delay, zeroing the Elevator on the way. */
+        private static Action leaveZone(StartingPosition position, StartingDelay delay) {
+            AutoPath path = position.getLeavePath();
+            return new DeadlineAction(
+                new SequentialAction(
+                    new WaitAction(delay.getTime()),
+                    new InstantAction(() -> {
+                        if(path.isReady()) {
+                            Console.logMsg("Following Trajectory '" + path.getName() + "'...");
+                            Chassis.followTrajectory(path.get(), mAlliance == Alliance.Red);
+                        } else {
+                            Console.logErr("Trajectory '" + path.getName() + "' is not ready! Skipping...");
+                        }
+                    }),
+                    new WaitUntilAction(Chassis::isTrajectoryComplete).withTimeout(10.0)),
+                new SequentialAction(
+                    new InstantAction(() -> {
+                        Console.logMsg("Zeroing Elevator...");
+                        Manipulator.home();
+                    }),
+                    new WaitUntilAction(() -> !Manipulator.isHoming()).withTimeout(3.0),
+                    new InstantAction(Manipulator::disable_Elevator)));
+        }
+
+        /** Stop everything at the end of a Sequence. */
+        private static void finish() {
+            Robot.disableSubsystems();
+            Console.logMsg("Sequence Complete.");
+            Console.printSeparator();
         }
 
         /** 
-         * Call regularly to perform the pre-programmed sequence. 
-         * <p><i>Override with specific steps of each sequence. Does nothing by default.</i></p>
+         * Build the Actions of this Sequence for the selected options. 
+         * <p><i>Called when the selection changes, never while the robot is running the Sequence.</i></p>
+         * @param position	Selected Starting Position
+         * @param delay		Selected Starting Delay
+         * @return Action to start at the beginning of Autonomous
          */
-        public void periodic() {}
+        public abstract Action build(StartingPosition position, StartingDelay delay);
+    }
+
+    /** Turn the Chassis to face the target seen by the Limelight, finishing once it is aligned. */
+    private static class AlignAction extends Action {
+        @Override protected void initialize() { Vision.enable_Align(); }
+        @Override protected boolean isFinished() { return Vision.isAligned(); }
+        @Override protected void end(boolean interrupted) { Vision.disable_Align(); }
     }
 
     //Network Tables
@@ -132,7 +205,19 @@ public class Autonomous {
     private static StartingDelay mSelectedStartingDelay = StartingDelay.DEFAULT;
     private static Sequence mSelectedSequence = Sequence.DEFAULT;
 
-    private static Alliance mAlliance;
+    private static Alliance mAlliance = Alliance.Blue;
+
+    //Built Routine, and the options it was built for
+    private static Action mRoutine = null;
+    private static Sequence mRoutineSequence = null;
+    private static StartingPosition mRoutineStartingPosition = null;
+    private static StartingDelay mRoutineStartingDelay = null;
+
+    //JIT Warm-up
+    private static final int WARM_UP_BATCH = 10;
+    private static boolean mIsWarmingUp = false;
+
+    private static boolean mIsSequenceStarted = false;
 
     /** Unused Constructor */
     private Autonomous() {}
@@ -146,23 +231,121 @@ public class Autonomous {
         dshStartingDelay.init();
         dshSequence.init();
 
+        Console.logMsg("Loading Trajectories...");
+        AutoPath.loadAll();
+
         Console.logMsg("Autonomous Initialization Complete!");
     }
 
-    /** Call once at the start of Autonomous to pull currently selected options from the Dashboard and prepare the selected Sequence. */
-    public static void start() {
-        Console.printHeader("Autonomous Enabled");
+    /** Labels of every Sequence, for running each option in simulation. */
+    public static String[] getSequenceLabels() { return getLabels(Sequence.values()); }
+    /** Labels of every Starting Position, for running each option in simulation. */
+    public static String[] getStartingPositionLabels() { return getLabels(StartingPosition.values()); }
+    /** Labels of every Starting Delay, for running each option in simulation. */
+    public static String[] getStartingDelayLabels() { return getLabels(StartingDelay.values()); }
+
+    private static String[] getLabels(DashboardOptionBase[] options) {
+        String[] labels = new String[options.length];
+        for(int index = 0; index < options.length; index++) labels[index] = options[index].getLabel();
+        return labels;
+    }
 
-        //Pull selected options
+    /**
+     * Select options as though they were chosen on the Dashboard, such as from a simulation harness.
+     * <p><i>Takes effect once the selectors next update.</i></p>
+     * @param sequence	Label of the Sequence, or null to leave it unchanged
+     * @param position	Label of the Starting Position, or null to leave it unchanged
+     * @param delay		Label of the Starting Delay, or null to leave it unchanged
+     */
+    public static void select(String sequence, String position, String delay) {
+        if(sequence != null) tblAutonomous.getSubTable(Sequence.getTitle()).getEntry("selected").setString(sequence);
+        if(position != null) tblAutonomous.getSubTable(StartingPosition.getTitle()).getEntry("selected").setString(position);
+        if(delay != null) tblAutonomous.getSubTable(StartingDelay.getTitle()).getEntry("selected").setString(delay);
+    }
+
+    /** 
+     * Pull currently selected options from the Dashboard, and build the selected Sequence if they have changed.
+     * @return True if the Sequence was rebuilt
+     */
+    public static boolean prepare() {
         mSelectedStartingPosition = dshStartingPosition.getSelected();
         mSelectedStartingDelay = dshStartingDelay.getSelected();
         mSelectedSequence = dshSequence.getSelected();
 
-        try{
-            mAlliance = DriverStation.getAlliance().orElseThrow();
+        if(mRoutine != null 
+            && mSelectedSequence == mRoutineSequence 
+            && mSelectedStartingPosition == mRoutineStartingPosition 
+            && mSelectedStartingDelay == mRoutineStartingDelay) return false;
+
+        stopWarmUp();
+        mIsSequenceStarted = false;
+        mRoutine = mSelectedSequence.build(mSelectedStartingPosition, mSelectedStartingDelay);
+        mRoutineSequence = mSelectedSequence;
+        mRoutineStartingPosition = mSelectedStartingPosition;
+        mRoutineStartingDelay = mSelectedStartingDelay;
+        return true;
+    }
+
+    /**
+     * Run the prepared Sequence with all Subsystem outputs suppressed, so the JIT compiles its code before Autonomous.
+     * <p>Each call runs a small batch of loops against the Subsystems' simulated plants, restarting the Sequence
+     * whenever it finishes. The routine runs on a virtual {@link Clock} stepped one period per loop, the same step the plants
+     * take, so Trajectories and timeouts see the time the plants do. The Console is muted on this thread while it runs.</p>
+     * <p><i>Call regularly while Disabled, after {@link #prepare()}.</i></p>
+     */
+    public static void warmUp() {
+        if(mRoutine == null) return;
+
+        Console.setMuted(true);
+        Clock.setVirtual(true);
+        try {
+            if(!mIsWarmingUp) {
+                Clock.resetVirtual(Timer.getFPGATimestamp());
+                Chassis.setOutputSuppressed(true);
+                Manipulator.setOutputSuppressed(true);
+                mRoutine.start();
+                mIsWarmingUp = true;
+            }
+
+            for(int loop = 0; loop < WARM_UP_BATCH; loop++) {
+                if(mRoutine.update()) mRoutine.start();
+                Chassis.periodic();
+                Manipulator.periodic();
+                Clock.step(Robot.kDefaultPeriod);
+            }
+        } finally {
+            Clock.setVirtual(false);
+            Console.setMuted(false);
+        }
+    }
+
+    /** Stop the warm-up, leaving every Subsystem disabled and able to apply power again. Disabled PIDs start clean when next enabled. */
+    public static void stopWarmUp() {
+        if(!mIsWarmingUp) return;
+
+        Console.setMuted(true);
+        Clock.setVirtual(true);
+        try {
+            mRoutine.cancel();
+            Robot.disableSubsystems();
         } finally {
-            mAlliance = Alliance.Red;
+            Chassis.setOutputSuppressed(false);
+            Manipulator.setOutputSuppressed(false);
+            Clock.setVirtual(false);
+            Console.setMuted(false);
+            mIsWarmingUp = false;
         }
+    }
+
+    /** Call once at the start of Autonomous to pull currently selected options from the Dashboard and start the selected Sequence. */
+    public static void start() {
+        Console.printHeader("Autonomous Enabled");
+
+        //Pull selected options. Normally already prepared while Disabled.
+        stopWarmUp();
+        if(prepare()) Console.logErr("Sequence was not prepared while Disabled!");
+
+        mAlliance = DriverStation.getAlliance().orElse(Alliance.Blue);
 
         //Log all selected options
         Console.logMsg("Starting Position: " + mSelectedStartingPosition.getLabel());
@@ -174,19 +357,23 @@ public class Autonomous {
         //Preemtively disable everything
         Robot.disableSubsystems();
 
-        //Put the Chassis into Brake mode
+        //Put the Chassis into Brake mode. Normally already applied while Disabled.
         Chassis.enableBrakeMode();
 
 
-        //OnEnable setup for selected Sequence
-        mSelectedSequence.start();
+        //Start the selected Sequence from the beginning
+        mRoutine.start();
+        mIsSequenceStarted = true;
 
         Console.printSeparator();
     }
 
+    /** True once the Sequence started in this Autonomous period has run to its end. */
+    public static boolean isSequenceComplete() { return mIsSequenceStarted && !mRoutine.isRunning(); }
+
     /** Call regularly to perform the pre-programmed sequences. */
     public static void periodic() {
-        mSelectedSequence.periodic();
+        mRoutine.update();
 
         //Subsystem Updates
         Chassis.periodic();
@@ -1,8 +1,11 @@
 package frc.robot.period;
 
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.molib.Console;
 import frc.molib.buttons.ButtonManager;
 import frc.robot.Robot;
 import frc.robot.subsystem.Chassis;
+import frc.robot.subsystem.Manipulator;
 
 public class Disabled {
     private Disabled() {}
@@ -10,13 +13,31 @@ public class Disabled {
     public static void init() {}
 
     public static void start() {
+        ButtonManager.disableBindings();
         Robot.disableSubsystems();
         Chassis.enableCoastMode();
+
+        //Report input to motor latency and loop statistics from the last period
+        Chassis.logLatency();
+        Manipulator.logLatency();
+        Manipulator.logScoringSummary();
+        Robot.logLoopSummary();
     }
     
-    public static void periodic() {}
+    public static void periodic() {
+        //Build the selected Autonomous Sequence ahead of time, and warm it up
+        if(Autonomous.prepare()) Console.logMsg("Autonomous Sequence prepared.");
+        Autonomous.warmUp();
+
+        //Apply Brake mode before Autonomous is enabled, so it starts with no setup
+        if(DriverStation.isAutonomous())
+            Chassis.enableBrakeMode();
+        else
+            Chassis.enableCoastMode();
+    }
 
     public static void end() {
+        Autonomous.stopWarmUp();
         ButtonManager.clearFlags();
     }
 }
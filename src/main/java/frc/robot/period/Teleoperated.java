@@ -3,15 +3,20 @@ package frc.robot.period;
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.networktables.NetworkTable;
 import frc.molib.Console;
+import frc.molib.InputShaper;
 import frc.molib.buttons.Button;
 import frc.molib.buttons.ButtonManager;
 import frc.molib.dashboard.DashboardOptionBase;
 import frc.molib.dashboard.DashboardSelector;
-import frc.molib.hid.XboxController;
+import frc.molib.drive.CurvatureDrive;
+import frc.molib.hid.ControllerActionBase;
+import frc.molib.hid.ControllerLayout;
+import frc.molib.hid.ControllerType;
 import frc.robot.Robot;
 import frc.robot.subsystem.Chassis;
 import frc.robot.subsystem.Manipulator;
 import frc.robot.subsystem.Manipulator.Position;
+import frc.robot.subsystem.Vision;
 
 /** Reads Driver/Operator inputs to control the Robot during the Teleoperated game period. */
 public class Teleoperated {
@@ -19,7 +24,10 @@ public class Teleoperated {
     private enum DriveStyle implements DashboardOptionBase {
         /** Uses the left joystick up/down for throttle, left/right for steering. */
         ARCADE("Arcade Drive"),
-        /** Uses the left joystick up/down for throttle, right joystick left/right for steering. */
+        /** 
+         * Uses the left joystick up/down for throttle, right joystick left/right for how tightly to curve. 
+         * Holding Quick-Turn turns in place.
+         */
         CHEEZY("Cheezy Drive"),
         /** Uses the left joystick up/down to control the left Drive motors, the right joystick up/down to control the right Drive motors. */
         TANK("Tank Drive");
@@ -71,11 +79,17 @@ public class Teleoperated {
     /** Methods for ramping driver inputs. */
     private enum DriveRamping implements DashboardOptionBase {
         /** Linear input, direct from joystick to Chassis. */
-        NONE("No Ramping"),
+        NONE("No Ramping") {
+            @Override public void configure(InputShaper shaper) { shaper.configCurve(InputShaper.Curve.LINEAR); }},
         /** Inputs are squared for more precise movements at low speeds. */
-        SQUARED("Squared Input"),
+        SQUARED("Squared Input") {
+            @Override public void configure(InputShaper shaper) { shaper.configCurve(InputShaper.Curve.SQUARED); }},
         /** Inputs are cubed for the most precision at low speeds. */
-        CUBED("Cubed Input");
+        CUBED("Cubed Input") {
+            @Override public void configure(InputShaper shaper) { shaper.configCurve(InputShaper.Curve.CUBED); }},
+        /** A blend of linear and cubed inputs, precise at low speeds without feeling sluggish. */
+        EXPO("Expo Input") {
+            @Override public void configure(InputShaper shaper) { shaper.configExpoCurve(0.6); }};
 
         public static final DriveRamping DEFAULT = NONE;
 
@@ -86,6 +100,39 @@ public class Teleoperated {
         /** Returns the title of this selector. */
         public static String getTitle() { return "Input Ramping"; }
         public String getLabel() { return LABEL; }
+
+        /**
+         * Precompute this ramping method into an InputShaper.
+         * @param shaper InputShaper to configure
+         */
+        public abstract void configure(InputShaper shaper);
+    }
+
+    /** Logical Driver/Operator actions, mapped to controller inputs by the layout file. */
+    private enum Action implements ControllerActionBase {
+        DRIVE_LEFT_X("Drive.LeftX", "driver:LeftX"),
+        DRIVE_LEFT_Y("Drive.LeftY", "driver:LeftY"),
+        DRIVE_RIGHT_X("Drive.RightX", "driver:RightX"),
+        DRIVE_RIGHT_Y("Drive.RightY", "driver:RightY"),
+        PRECISION("Precision", "driver:RightBumper"),
+        QUICK_TURN("QuickTurn", "driver:LeftBumper"),
+        SCORE("Score", "driver:A"),
+        ALIGN("Align", "driver:X"),
+        ELEVATOR_MANUAL_UP("Elevator.ManualUp", "operator:POV0"),
+        ELEVATOR_MANUAL_DOWN("Elevator.ManualDown", "operator:POV180"),
+        ELEVATOR_BOTTOM("Elevator.Bottom", "operator:A"),
+        ELEVATOR_LEVEL1("Elevator.Level1", "operator:B"),
+        ELEVATOR_LEVEL2("Elevator.Level2", "operator:X"),
+        ELEVATOR_LEVEL3("Elevator.Level3", "operator:Y"),
+        SCORE_MACRO("Score.Macro", "operator:RightBumper");
+
+        private final String KEY;
+        private final String DEFAULT_BINDING;
+
+        private Action(String key, String defaultBinding) { KEY = key; DEFAULT_BINDING = defaultBinding; }
+
+        public String getKey() { return KEY; }
+        public String getDefaultBinding() { return DEFAULT_BINDING; }
     }
 
     //Network Tables
@@ -101,25 +148,57 @@ public class Teleoperated {
     private static DriveSpeed mSelectedDriveSpeed = DriveSpeed.DEFAULT;
     private static DriveRamping mSelectedDriveRamping = DriveRamping.DEFAULT;
 
+    //Driver Input Shaping
+    private static final double DRIVE_SLEW_RATE = 5.0;
+    private static final InputShaper shpDrive_Throttle = new InputShaper();
+    private static final InputShaper shpDrive_Steering = new InputShaper();
+    private static final InputShaper shpDrive_Wheel = new InputShaper();
+    private static final InputShaper shpDrive_Left = new InputShaper();
+    private static final InputShaper shpDrive_Right = new InputShaper();
+
+    /** Time the operator holds Elevator Bottom to home the Elevator, in seconds. */
+    private static final double ELEVATOR_HOME_PRESS_TIME = 1.0;
+
+    //Curvature Drive
+    private static final CurvatureDrive drvCheezy = new CurvatureDrive();
+
+    //Left and right Drive power from the selected drive style
+    private static final double[] mDrivePower = new double[2];
+
     //Driver Controllers
-    private static final XboxController ctlDriver = new XboxController(0);
-    private static final XboxController ctlOperator = new XboxController(1);
+    private static final String CONTROLLER_LAYOUT_FILE = "controller_layout.properties";
+    private static final ControllerLayout<Action> mLayout = loadLayout();
 
     //Driver Buttons
-    private static final Button btnDriver_Precision = new Button() { public boolean get() { return ctlDriver.getRightBumperButton(); }};
-    private static final Button btnDriver_Score = new Button() { public boolean get() { return ctlDriver.getAButton(); }};
+    private static final Button btnDriver_Precision = mLayout.getButton(Action.PRECISION);
+    private static final Button btnDriver_QuickTurn = mLayout.getButton(Action.QUICK_TURN);
+    private static final Button btnDriver_Score = mLayout.getButton(Action.SCORE);
+    private static final Button btnDriver_Align = mLayout.getButton(Action.ALIGN);
 
     //Operator Buttons
-    private static final Button btnOperator_Elevator_ManualUp = new Button() { public boolean get() { return ctlOperator.getPOV() == 0; }};
-    private static final Button btnOperator_Elevator_ManualDown = new Button() { public boolean get() { return ctlOperator.getPOV() == 180; }};
-    private static final Button btnOperator_Elevator_Bottom = new Button() { public boolean get() { return ctlOperator.getAButton(); }};
-    private static final Button btnOperator_Elevator_Level1 = new Button() { public boolean get() { return ctlOperator.getBButton(); }};
-    private static final Button btnOperator_Elevator_Level2 = new Button() { public boolean get() { return ctlOperator.getXButton(); }};
-    private static final Button btnOperator_Elevator_Level3 = new Button() { public boolean get() { return ctlOperator.getYButton(); }};
+    private static final Button btnOperator_Elevator_ManualUp = mLayout.getButton(Action.ELEVATOR_MANUAL_UP);
+    private static final Button btnOperator_Elevator_ManualDown = mLayout.getButton(Action.ELEVATOR_MANUAL_DOWN);
+    private static final Button btnOperator_Elevator_Bottom = mLayout.getButton(Action.ELEVATOR_BOTTOM);
+    private static final Button btnOperator_Elevator_Level1 = mLayout.getButton(Action.ELEVATOR_LEVEL1);
+    private static final Button btnOperator_Elevator_Level2 = mLayout.getButton(Action.ELEVATOR_LEVEL2);
+    private static final Button btnOperator_Elevator_Level3 = mLayout.getButton(Action.ELEVATOR_LEVEL3);
+    private static final Button btnOperator_ScoreMacro = mLayout.getButton(Action.SCORE_MACRO);
     
     /** Unused Constructor */
     private Teleoperated() {}
 
+    /** 
+     * Read the controller layout from the deploy directory, 
+     * falling back to Xbox Controllers on ports 0 and 1 for anything it does not define. 
+     */
+    private static ControllerLayout<Action> loadLayout() {
+        ControllerLayout<Action> layout = new ControllerLayout<Action>(Action.class);
+        layout.configController("driver", 0, ControllerType.XBOX);
+        layout.configController("operator", 1, ControllerType.XBOX);
+        layout.load(CONTROLLER_LAYOUT_FILE);
+        return layout;
+    }
+
     /** Call once at Robot startup to initialize Dashboard objects. */
     public static void init() {
         Console.printHeader("Teleoperated Initialization");
@@ -129,6 +208,40 @@ public class Teleoperated {
         dshDriveSpeed.init();
         dshDriveRamping.init();
 
+        Console.logMsg("Binding Buttons...");
+        //Brake mode
+        btnDriver_Precision
+            .onPress(Chassis::enableBrakeMode)
+            .onRelease(Chassis::enableCoastMode);
+
+        //Vision Alignment, overriding the Driver's steering while held
+        btnDriver_Align.onPress(Vision::enable_Align).onRelease(Vision::disable_Align);
+
+        //Manipulator Scoring, taking over from any automated cycle
+        btnDriver_Score.whileHeld(() -> {
+            Manipulator.cancelScoring();
+            Manipulator.enable_Outtake();
+        }, Manipulator::disable_Outtake);
+
+        //Manual Elevator Control
+        btnOperator_Elevator_ManualUp.whileHeld(() -> {
+            Manipulator.cancelScoring();
+            Manipulator.disable_ElevatorPID();
+            Manipulator.raiseElevator();
+        }, Manipulator::disable_Elevator);
+        btnOperator_Elevator_ManualDown.whileHeld(() -> {
+            Manipulator.cancelScoring();
+            Manipulator.disable_ElevatorPID();
+            Manipulator.lowerElevator();
+        }, Manipulator::disable_Elevator);
+
+        //Automated Elevator Control. Holding Score Macro runs the whole scoring cycle instead.
+        btnOperator_Elevator_Bottom.onPress(() -> goToPosition(Position.BOTTOM));
+        btnOperator_Elevator_Bottom.onLongPress(ELEVATOR_HOME_PRESS_TIME, Manipulator::home);
+        btnOperator_Elevator_Level1.onPress(() -> goToPosition(Position.TROUGH));
+        btnOperator_Elevator_Level2.onPress(() -> goToPosition(Position.LEVEL2));
+        btnOperator_Elevator_Level3.onPress(() -> goToPosition(Position.LEVEL3));
+
         Console.logMsg("Teleoperated Initialization Complete!");
     }
 
@@ -141,23 +254,50 @@ public class Teleoperated {
         mSelectedDriveSpeed = dshDriveSpeed.getSelected();
         mSelectedDriveRamping = dshDriveRamping.getSelected();
 
-        //Clear ButtonPresses
+        //Precompute Driver input shaping for the selected options
+        configDriveShapers();
+
+        //Clear ButtonPresses, then let the Button bindings take over
         ButtonManager.clearFlags();
+        ButtonManager.enableBindings();
     }
 
     /**
-     *  Take raw Driver input to calculate real driving power.
-     * @param inputValue Raw Joystick values
-     * @param scale Current power scaling value
-     * @return Processed power value
+     * Move the Elevator to a scoring position, or score there if the Score Macro chord is held.
+     * @param position Predetermined target height
      */
-    private static double processDriveInput(double inputValue, double scale) {
-        if(mSelectedDriveRamping == DriveRamping.SQUARED) 
-            inputValue = Math.pow(inputValue, 2.0) * Math.signum(inputValue);
-        else if(mSelectedDriveRamping == DriveRamping.SQUARED)
-            inputValue = Math.pow(inputValue, 3.0);
-        
-        return inputValue * scale;
+    private static void goToPosition(Position position) {
+        if(btnOperator_ScoreMacro.isHeld() && position != Position.BOTTOM) {
+            Manipulator.score(position);
+        } else {
+            Manipulator.cancelScoring();
+            Manipulator.goToPosition(position);
+        }
+    }
+
+    /** 
+     * Prepare every Driver InputShaper with the selected options, and clear their history. 
+     * <p><i>The Cheezy wheel is not slew limited, as Curvature drive already stops turning as soon as the wheel is released.</i></p>
+     */
+    static void configDriveShapers() {
+        configDriveShaper(shpDrive_Throttle, DRIVE_SLEW_RATE);
+        configDriveShaper(shpDrive_Steering, DRIVE_SLEW_RATE);
+        configDriveShaper(shpDrive_Wheel, Double.POSITIVE_INFINITY);
+        configDriveShaper(shpDrive_Left, DRIVE_SLEW_RATE);
+        configDriveShaper(shpDrive_Right, DRIVE_SLEW_RATE);
+        drvCheezy.reset();
+    }
+
+    /**
+     * Prepare an InputShaper with the selected ramping method.
+     * @param shaper InputShaper for one Driver axis
+     * @param slewRate Fastest the shaped value may change, in units per second, or infinity for no limit
+     */
+    private static void configDriveShaper(InputShaper shaper, double slewRate) {
+        mSelectedDriveRamping.configure(shaper);
+        shaper.configScale(mSelectedDriveSpeed.getStandardPower());
+        shaper.configSlewRate(slewRate);
+        shaper.reset();
     }
 
     /**
@@ -168,9 +308,55 @@ public class Teleoperated {
      * @param scale Current power scaling value
      */
     private static void setArcadeDrive(double throttleValue, double steeringValue, double scale) {
-        throttleValue = processDriveInput(throttleValue, scale);
-        steeringValue = processDriveInput(steeringValue, scale);
-        Chassis.setDrivePower(MathUtil.clamp(throttleValue + steeringValue, -scale, scale), MathUtil.clamp(throttleValue - steeringValue, -scale, scale));
+        calculateArcadeDrive(throttleValue, steeringValue, scale, mDrivePower);
+        Chassis.setDrivePower(mDrivePower[0], mDrivePower[1]);
+    }
+
+    /**
+     * Shape the Driver inputs and mix them into left and right power for Arcade drive.
+     * 
+     * @param throttleValue Raw forward/reverse input to the Chassis
+     * @param steeringValue Raw left/right input to the Chassis
+     * @param scale Current power scaling value
+     * @param output Filled with the left and right power
+     */
+    static void calculateArcadeDrive(double throttleValue, double steeringValue, double scale, double[] output) {
+        shpDrive_Throttle.configScale(scale);
+        shpDrive_Steering.configScale(scale);
+        throttleValue = shpDrive_Throttle.calculate(throttleValue);
+        steeringValue = shpDrive_Steering.calculate(steeringValue);
+        output[0] = MathUtil.clamp(throttleValue + steeringValue, -scale, scale);
+        output[1] = MathUtil.clamp(throttleValue - steeringValue, -scale, scale);
+    }
+
+    /**
+     * Apply power to the Drive motors, with steering controlling how tightly the Chassis curves.
+     * 
+     * @param throttleValue Raw forward/reverse input to the Chassis
+     * @param wheelValue Raw steering input to the Chassis
+     * @param isQuickTurn Turn in place rather than curving
+     * @param scale Current power scaling value
+     */
+    private static void setCheezyDrive(double throttleValue, double wheelValue, boolean isQuickTurn, double scale) {
+        calculateCheezyDrive(throttleValue, wheelValue, isQuickTurn, scale, mDrivePower);
+        Chassis.setDrivePower(mDrivePower[0], mDrivePower[1]);
+    }
+
+    /**
+     * Shape the Driver inputs and run them through Curvature drive into left and right power.
+     * 
+     * @param throttleValue Raw forward/reverse input to the Chassis
+     * @param wheelValue Raw steering input to the Chassis
+     * @param isQuickTurn Turn in place rather than curving
+     * @param scale Current power scaling value
+     * @param output Filled with the left and right power
+     */
+    static void calculateCheezyDrive(double throttleValue, double wheelValue, boolean isQuickTurn, double scale, double[] output) {
+        shpDrive_Throttle.configScale(1.0);
+        shpDrive_Wheel.configScale(1.0);
+        drvCheezy.calculate(shpDrive_Throttle.calculate(throttleValue), shpDrive_Wheel.calculate(wheelValue), isQuickTurn);
+        output[0] = drvCheezy.getLeftPower() * scale;
+        output[1] = drvCheezy.getRightPower() * scale;
     }
 
     /**
@@ -181,56 +367,31 @@ public class Teleoperated {
      * @param scale Current power scaling value
      */
     private static void setTankDrive(double leftPower, double rightPower, double scale) {
-        leftPower = processDriveInput(leftPower, scale);
-        rightPower = processDriveInput(rightPower, scale);
+        shpDrive_Left.configScale(scale);
+        shpDrive_Right.configScale(scale);
+        leftPower = shpDrive_Left.calculate(leftPower);
+        rightPower = shpDrive_Right.calculate(rightPower);
         Chassis.setDrivePower(leftPower, rightPower);
     }
 
-    /** Call regularly to read Driver/Operator inputs and control the various Subsystems of the Robot. */
+    /** 
+     * Call regularly to read Driver inputs and control the Chassis. 
+     * <p><i>Button actions are bound in {@link #init()} and run by the {@link ButtonManager}.</i></p>
+     */
     public static void periodic() {
+        //Latency tracking from the last change in controller input
+        Chassis.markDriveInput(mLayout.getChangeTimestamp(Action.DRIVE_LEFT_Y));
+        Manipulator.markElevatorInput(mLayout.getChangeTimestamp(Action.ELEVATOR_MANUAL_UP));
+
         //Chassis Driving
-        double drivePowerScale = btnDriver_Precision.get() ? mSelectedDriveSpeed.getPrecisionPower() : mSelectedDriveSpeed.getStandardPower();
+        double drivePowerScale = btnDriver_Precision.isHeld() ? mSelectedDriveSpeed.getPrecisionPower() : mSelectedDriveSpeed.getStandardPower();
         
         if(mSelectedDriveStyle == DriveStyle.ARCADE)
-            setArcadeDrive(ctlDriver.getLeftY(), ctlDriver.getLeftX(), drivePowerScale);
+            setArcadeDrive(mLayout.getAxis(Action.DRIVE_LEFT_Y), mLayout.getAxis(Action.DRIVE_LEFT_X), drivePowerScale);
         else if(mSelectedDriveStyle == DriveStyle.CHEEZY)
-            setArcadeDrive(ctlDriver.getLeftY(), ctlDriver.getRightX(), drivePowerScale);
+            setCheezyDrive(mLayout.getAxis(Action.DRIVE_LEFT_Y), mLayout.getAxis(Action.DRIVE_RIGHT_X), btnDriver_QuickTurn.isHeld(), drivePowerScale);
         else if(mSelectedDriveStyle == DriveStyle.TANK)
-            setTankDrive(ctlDriver.getLeftY(), ctlDriver.getRightY(), drivePowerScale);
-
-        //Brake mode
-        if(btnDriver_Precision.getPressed())
-            Chassis.enableBrakeMode();
-
-        if(btnDriver_Precision.getReleased())
-            Chassis.enableCoastMode();
-
-        //Manual Elevator Control
-        if(btnOperator_Elevator_ManualUp.get()) {
-            Manipulator.disable_ElevatorPID();
-            Manipulator.raiseElevator();
-        } else if(btnOperator_Elevator_ManualDown.get()) {
-            Manipulator.disable_ElevatorPID();
-            Manipulator.lowerElevator();
-        } else {
-            Manipulator.disable_Elevator();
-        }
-
-        //Automated Elevator Control
-        if(btnOperator_Elevator_Bottom.getPressed())
-            Manipulator.goToPosition(Position.BOTTOM);
-        if(btnOperator_Elevator_Level1.getPressed())
-            Manipulator.goToPosition(Position.TROUGH);
-        if(btnOperator_Elevator_Level2.getPressed())
-            Manipulator.goToPosition(Position.LEVEL2);
-        if(btnOperator_Elevator_Level3.getPressed())
-            Manipulator.goToPosition(Position.LEVEL3);
-
-        //Manipulator Scoring
-        if(btnDriver_Score.get())
-            Manipulator.enable_Outtake();
-        else   
-            Manipulator.disable_Outtake();
+            setTankDrive(mLayout.getAxis(Action.DRIVE_LEFT_Y), mLayout.getAxis(Action.DRIVE_RIGHT_Y), drivePowerScale);
 
         //Subsystem Updates
         Chassis.periodic();
@@ -0,0 +1,227 @@
+package frc.robot.sim;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.molib.Console;
+import frc.molib.LoopMonitor;
+import frc.robot.Robot;
+import frc.robot.period.Autonomous;
+import frc.robot.subsystem.Chassis;
+import frc.robot.subsystem.Manipulator;
+
+/**
+ * Runs a whole match in simulation, without the GUI or Driver Station, as fast as the computer allows.
+ * <p>Robot time is paused and stepped manually one loop at a time, so a 15 second Autonomous period finishes
+ * in however long the code takes to run. Enabled with <i>./gradlew simulateJava -Pheadless</i>, which sets
+ * {@value #ENV_ENABLED}. Options are read from environment variables:</p>
+ * <ul>
+ *   <li>{@value #ENV_SEQUENCE}, {@value #ENV_POSITION}, {@value #ENV_DELAY}: Labels of the Autonomous options</li>
+ *   <li>{@value #ENV_ALLIANCE}: Alliance station, such as <i>Red1</i> or <i>Blue2</i></li>
+ *   <li>{@value #ENV_TELEOP_TIME}: Seconds of Teleoperated after Autonomous, 0 by default</li>
+ *   <li>{@value #ENV_LOOP_BUDGET}: Average bytes each loop may allocate, checked if set</li>
+ *   <li>{@value #ENV_LOOP_TIME_BUDGET}: Median milliseconds each loop may take, 5.0 by default</li>
+ * </ul>
+ * <p>When the match ends, a single {@value #RESULT_PREFIX} line is printed and the program exits.</p>
+ * <p>With a loop budget set, the steady state of Autonomous and Teleoperated are each checked against the budget,
+ * skipping the first second of each. A {@value #BUDGET_PREFIX} line is printed for each,
+ * and the program exits with an error if either is over budget. Run with <i>./gradlew loopBudget</i>.</p>
+ * <p>Phoenix devices publish their status signals on their own real-time clock, not simulated time. After every step,
+ * the harness waits until the Phoenix encoders report what the physics models wrote to them, so every loop reads
+ * the same sensor values it would at real speed. If they do not catch up within {@value #SYNC_TIMEOUT} seconds,
+ * the match fails rather than report results from stale readings.</p>
+ */
+public class MatchHarness {
+    public static final String ENV_ENABLED = "ROBOT_HEADLESS";
+    public static final String ENV_SEQUENCE = "ROBOT_SIM_SEQUENCE";
+    public static final String ENV_POSITION = "ROBOT_SIM_POSITION";
+    public static final String ENV_DELAY = "ROBOT_SIM_DELAY";
+    public static final String ENV_ALLIANCE = "ROBOT_SIM_ALLIANCE";
+    public static final String ENV_TELEOP_TIME = "ROBOT_SIM_TELEOP_TIME";
+    public static final String ENV_LOOP_BUDGET = "ROBOT_SIM_LOOP_BUDGET";
+    public static final String ENV_LOOP_TIME_BUDGET = "ROBOT_SIM_LOOP_TIME_BUDGET";
+
+    /** Start of the line reporting the result of the match. */
+    public static final String RESULT_PREFIX = "MATCH_RESULT";
+    /** Start of the lines reporting loop allocation and timing against the budget. */
+    public static final String BUDGET_PREFIX = "LOOP_BUDGET";
+
+    //Match Timing
+    private static final double STEP_TIME = 0.02;
+    private static final double PRE_MATCH_TIME = 3.0;
+    private static final double AUTONOMOUS_TIME = 15.0;
+    private static final double TRANSITION_TIME = 1.0;
+    /** Time at the start of each period before the loop is expected to settle. */
+    private static final double SETTLE_TIME = 1.0;
+    /** Longest to wait for the Phoenix devices to catch up with a step, in real seconds. */
+    private static final double SYNC_TIMEOUT = 1.0;
+
+    /** Unused Constructor. */
+    private MatchHarness() {}
+
+    /** True if the simulation was started headless. */
+    public static boolean isEnabled() {
+        String enabled = System.getenv(ENV_ENABLED);
+        return enabled != null && !enabled.isEmpty() && !enabled.equals("0");
+    }
+
+    /** Start running the match on its own thread. <i>Call once from simulationInit.</i> */
+    public static void start() {
+        Console.logMsg("Running headless match...");
+        SimHooks.pauseTiming();
+
+        //Keep NetworkTables in-process, so several matches can run side by side
+        NetworkTableInstance.getDefault().stopServer();
+        NetworkTableInstance.getDefault().startLocal();
+
+        Thread harness = new Thread(MatchHarness::run, "Match Harness");
+        harness.setDaemon(true);
+        harness.start();
+    }
+
+    private static void run() {
+        SimHooks.waitForProgramStart();
+        long wallStart = System.nanoTime();
+
+        Autonomous.select(System.getenv(ENV_SEQUENCE), System.getenv(ENV_POSITION), System.getenv(ENV_DELAY));
+        DriverStationSim.setDsAttached(true);
+        DriverStationSim.setAllianceStationId(getAllianceStation());
+
+        //Pre-match, Disabled in Autonomous mode
+        setMode(true, false);
+        step(PRE_MATCH_TIME);
+
+        //Autonomous, watching for the Sequence to finish and the Coral to be scored
+        setMode(true, true);
+        double sequenceTime = Double.NaN;
+        double scoreTime = Double.NaN;
+        for(double time = 0.0; time < AUTONOMOUS_TIME; time += STEP_TIME) {
+            stepLoop();
+            if(Double.isNaN(sequenceTime) && Autonomous.isSequenceComplete()) sequenceTime = time;
+            if(Double.isNaN(scoreTime) && !Manipulator.isLoaded()) scoreTime = time;
+            if(time < SETTLE_TIME && time + STEP_TIME >= SETTLE_TIME) Robot.getLoopMonitor().reset();
+        }
+        double autoPoseX = Chassis.getPoseX();
+        double autoPoseY = Chassis.getPoseY();
+        boolean isWithinBudget = checkLoopBudget("Autonomous");
+
+        //Teleoperated, with no driver input
+        setMode(false, false);
+        step(TRANSITION_TIME);
+        double teleopTime = getTeleopTime();
+        if(teleopTime > 0.0) {
+            setMode(false, true);
+            step(Math.min(SETTLE_TIME, teleopTime));
+            Robot.getLoopMonitor().reset();
+            step(teleopTime - SETTLE_TIME);
+            isWithinBudget &= checkLoopBudget("Teleoperated");
+            setMode(false, false);
+            step(TRANSITION_TIME);
+        }
+
+        System.out.println(RESULT_PREFIX
+            + " sequenceComplete=" + !Double.isNaN(sequenceTime)
+            + " sequenceTime=" + sequenceTime
+            + " scored=" + !Double.isNaN(scoreTime)
+            + " scoreTime=" + scoreTime
+            + " poseX=" + autoPoseX
+            + " poseY=" + autoPoseY
+            + " wallTime=" + (System.nanoTime() - wallStart) / 1.0e9
+            + " " + SimConfig.describe());
+        System.out.flush();
+        System.exit(isWithinBudget ? 0 : 1);
+    }
+
+    /**
+     * Check the loops run since the Loop Monitor was last reset against the loop budget, if one is set.
+     * @param period Name of the Control Period being checked
+     * @return False if the loop was over budget
+     */
+    private static boolean checkLoopBudget(String period) {
+        double byteBudget = getEnvDouble(ENV_LOOP_BUDGET, Double.NaN);
+        if(Double.isNaN(byteBudget)) return true;
+        double timeBudget = getEnvDouble(ENV_LOOP_TIME_BUDGET, 5.0);
+
+        LoopMonitor monLoop = Robot.getLoopMonitor();
+        double meanBytes = monLoop.getMeanLoopBytes();
+        double medianTime = monLoop.getLoopTimePercentile(0.5);
+        boolean isWithinBudget = monLoop.getLoopCount() > 0 && meanBytes <= byteBudget && medianTime <= timeBudget;
+
+        System.out.println(BUDGET_PREFIX
+            + " period=" + period
+            + " loops=" + monLoop.getLoopCount()
+            + " meanBytes=" + meanBytes
+            + " maxBytes=" + monLoop.getMaxLoopBytes()
+            + " medianTime=" + medianTime
+            + " pass=" + isWithinBudget);
+        if(!isWithinBudget) monLoop.logSummary();
+        return isWithinBudget;
+    }
+
+    /** Change the simulated Driver Station mode and let the robot see it. */
+    private static void setMode(boolean isAutonomous, boolean isEnabled) {
+        DriverStationSim.setAutonomous(isAutonomous);
+        DriverStationSim.setEnabled(isEnabled);
+        DriverStationSim.notifyNewData();
+    }
+
+    /** Step robot time forward one loop at a time. */
+    private static void step(double duration) {
+        for(double time = 0.0; time < duration; time += STEP_TIME) stepLoop();
+    }
+
+    /** Step robot time forward one loop, then wait for the Phoenix devices. Ends the match with an error if they fall behind. */
+    private static void stepLoop() {
+        SimHooks.stepTiming(STEP_TIME);
+        try {
+            syncDevices();
+        } catch(IllegalStateException e) {
+            Console.logErr(e.getMessage());
+            System.out.flush();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Wait until every Phoenix device reports what the physics models last wrote to it.
+     * <p><i>Call from the thread stepping time, after each step, while the robot loop is waiting for the next.</i></p>
+     * @throws IllegalStateException If the devices have not caught up within {@value #SYNC_TIMEOUT} seconds
+     */
+    public static void syncDevices() {
+        long deadline = System.nanoTime() + (long)(SYNC_TIMEOUT * 1.0e9);
+        while(!Chassis.isSimSynced() || !Manipulator.isSimSynced()) {
+            if(System.nanoTime() > deadline) 
+                throw new IllegalStateException("Phoenix status signals fell behind the simulation by more than " + SYNC_TIMEOUT + "s!");
+            try {
+                Thread.sleep(1);
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for Phoenix status signals!");
+            }
+        }
+    }
+
+    private static AllianceStationID getAllianceStation() {
+        String alliance = System.getenv(ENV_ALLIANCE);
+        if(alliance == null) return AllianceStationID.Blue1;
+        try {
+            return AllianceStationID.valueOf(alliance);
+        } catch(IllegalArgumentException e) {
+            Console.logErr("Unknown alliance station '" + alliance + "'! Using Blue1.");
+            return AllianceStationID.Blue1;
+        }
+    }
+
+    private static double getTeleopTime() { return getEnvDouble(ENV_TELEOP_TIME, 0.0); }
+
+    private static double getEnvDouble(String name, double defaultValue) {
+        String value = System.getenv(name);
+        if(value == null) return defaultValue;
+        try {
+            return Double.parseDouble(value);
+        } catch(NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
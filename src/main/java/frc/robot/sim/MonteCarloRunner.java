@@ -0,0 +1,249 @@
+package frc.robot.sim;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import frc.robot.period.Autonomous;
+
+/**
+ * Runs every combination of Autonomous options many times in the headless simulation, under randomized conditions,
+ * and reports how reliably and how quickly each one scores.
+ * <p>Each match runs in its own process through the {@link MatchHarness}, since the simulated HAL can only hold one robot.
+ * Matches run in parallel across every core. Run <i>N</i> of every combination uses the same seed, so every option
+ * faces the same set of batteries, friction and noise from {@link SimConfig}.</p>
+ * <p>Run with <i>./gradlew monteCarlo</i>. Options are given as <i>key=value</i> arguments:</p>
+ * <ul>
+ *   <li><i>runs</i>: Matches per combination, 20 by default</li>
+ *   <li><i>threads</i>: Matches at once, the number of cores by default</li>
+ *   <li><i>seed</i>: Seed of the first run, 1 by default</li>
+ *   <li><i>sequence</i>: Only run the Sequence with this label</li>
+ *   <li><i>output</i>: Directory for the results, <i>build/monte-carlo</i> by default</li>
+ * </ul>
+ */
+public class MonteCarloRunner {
+    private static final long MATCH_TIMEOUT = 120;
+    private static final String[] ALLIANCE_STATIONS = { "Blue1", "Blue2", "Blue3", "Red1", "Red2", "Red3" };
+
+    /** Result of a single match. */
+    private static class Result {
+        final long seed;
+        final String alliance;
+        final boolean isValid;
+        final boolean isSequenceComplete;
+        final boolean isScored;
+        final double scoreTime;
+        final String line;
+
+        Result(long seed, String alliance, Map<String, String> values, String line) {
+            this.seed = seed;
+            this.alliance = alliance;
+            this.line = line;
+            isValid = values != null;
+            isSequenceComplete = isValid && Boolean.parseBoolean(values.get("sequenceComplete"));
+            isScored = isValid && Boolean.parseBoolean(values.get("scored"));
+            scoreTime = isScored ? Double.parseDouble(values.get("scoreTime")) : Double.NaN;
+        }
+    }
+
+    /** One combination of Autonomous options, and the results of every run of it. */
+    private static class Combination {
+        final String sequence;
+        final String position;
+        final String delay;
+        final List<Result> results = Collections.synchronizedList(new ArrayList<Result>());
+
+        Combination(String sequence, String position, String delay) {
+            this.sequence = sequence;
+            this.position = position;
+            this.delay = delay;
+        }
+
+        String getName() { return sequence + " / " + position + " / " + delay; }
+
+        double getRate(boolean scored) {
+            int count = 0;
+            for(Result result : results)
+                if(scored ? result.isScored : result.isSequenceComplete) count++;
+            return results.isEmpty() ? 0.0 : (double)count / results.size();
+        }
+
+        double[] getScoreTimes() {
+            return results.stream().filter(result -> result.isScored).mapToDouble(result -> result.scoreTime).sorted().toArray();
+        }
+    }
+
+    /** Unused Constructor. */
+    private MonteCarloRunner() {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<String, String>();
+        for(String arg : args) {
+            int separator = arg.indexOf('=');
+            if(separator > 0) options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        int runs = Integer.parseInt(options.getOrDefault("runs", "20"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", Integer.toString(Runtime.getRuntime().availableProcessors())));
+        long baseSeed = Long.parseLong(options.getOrDefault("seed", "1"));
+        String onlySequence = options.get("sequence");
+        File output = new File(options.getOrDefault("output", "build/monte-carlo"));
+
+        List<Combination> combinations = new ArrayList<Combination>();
+        for(String sequence : Autonomous.getSequenceLabels()) {
+            if(onlySequence != null && !onlySequence.equals(sequence)) continue;
+            for(String position : Autonomous.getStartingPositionLabels())
+                for(String delay : Autonomous.getStartingDelayLabels())
+                    combinations.add(new Combination(sequence, position, delay));
+        }
+
+        int total = combinations.size() * runs;
+        System.out.println("Running " + total + " matches of " + combinations.size() + " combinations on " + threads + " threads...");
+        long wallStart = System.nanoTime();
+
+        AtomicInteger finished = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<Future<?>>(total);
+        for(int run = 0; run < runs; run++) {
+            long seed = baseSeed + run;
+            String alliance = ALLIANCE_STATIONS[run % ALLIANCE_STATIONS.length];
+            for(Combination combination : combinations) {
+                futures.add(executor.submit(() -> {
+                    combination.results.add(runMatch(combination, seed, alliance));
+                    int count = finished.incrementAndGet();
+                    if(count % 50 == 0 || count == total) System.out.println(count + " / " + total + " matches complete");
+                }));
+            }
+        }
+        for(Future<?> future : futures) future.get();
+        executor.shutdown();
+
+        System.out.println("Finished in " + String.format("%.1f", (System.nanoTime() - wallStart) / 1.0e9) + " s");
+        report(combinations);
+        writeResults(combinations, output);
+    }
+
+    /** Run one match in a new process and read its result. */
+    private static Result runMatch(Combination combination, long seed, String alliance) {
+        File log = null;
+        try {
+            log = File.createTempFile("match", ".log");
+            String libraryPath = System.getProperty("java.library.path");
+            ProcessBuilder builder = new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Djava.library.path=" + libraryPath,
+                "-cp", System.getProperty("java.class.path"),
+                "frc.robot.Main");
+            Map<String, String> environment = builder.environment();
+            environment.remove("HALSIM_EXTENSIONS");
+            environment.putIfAbsent("LD_LIBRARY_PATH", libraryPath);
+            environment.put(MatchHarness.ENV_ENABLED, "1");
+            environment.put(MatchHarness.ENV_SEQUENCE, combination.sequence);
+            environment.put(MatchHarness.ENV_POSITION, combination.position);
+            environment.put(MatchHarness.ENV_DELAY, combination.delay);
+            environment.put(MatchHarness.ENV_ALLIANCE, alliance);
+            environment.put(SimConfig.ENV_SEED, Long.toString(seed));
+            builder.redirectErrorStream(true);
+            builder.redirectOutput(log);
+
+            Process process = builder.start();
+            if(!process.waitFor(MATCH_TIMEOUT, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return new Result(seed, alliance, null, "Timed out");
+            }
+
+            for(String line : Files.readAllLines(log.toPath(), StandardCharsets.UTF_8)) {
+                if(!line.startsWith(MatchHarness.RESULT_PREFIX)) continue;
+                Map<String, String> values = new HashMap<String, String>();
+                for(String field : line.substring(MatchHarness.RESULT_PREFIX.length()).trim().split(" ")) {
+                    int separator = field.indexOf('=');
+                    if(separator > 0) values.put(field.substring(0, separator), field.substring(separator + 1));
+                }
+                return new Result(seed, alliance, values, line);
+            }
+            return new Result(seed, alliance, null, "No result, exit code " + process.exitValue());
+        } catch(IOException e) {
+            return new Result(seed, alliance, null, "Could not run: " + e.getMessage());
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(seed, alliance, null, "Interrupted");
+        } finally {
+            if(log != null) log.delete();
+        }
+    }
+
+    private static double getPercentile(double[] sorted, double percentile) {
+        if(sorted.length == 0) return Double.NaN;
+        return sorted[(int)Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    /** 
+     * Print a summary of every combination, most reliable and fastest first, with the worst case of each.
+     * <p>Only Sequences that score can have a score rate; the rest are ranked after them by how often they complete.</p>
+     */
+    private static void report(List<Combination> combinations) {
+        Comparator<Combination> byReliability = Comparator.comparingDouble((Combination combination) -> -combination.getRate(true))
+            .thenComparingDouble(combination -> {
+                double p95 = getPercentile(combination.getScoreTimes(), 0.95);
+                return Double.isNaN(p95) ? Double.MAX_VALUE : p95;
+            })
+            .thenComparingDouble(combination -> -combination.getRate(false));
+        List<Combination> sorted = new ArrayList<Combination>(combinations);
+        sorted.sort(byReliability);
+
+        System.out.println(String.format("%-50s %8s %8s %8s %8s %8s %8s", "Combination", "Complete", "Scored", "Mean", "P50", "P95", "Max"));
+        for(Combination combination : sorted) {
+            double[] times = combination.getScoreTimes();
+            System.out.println(String.format("%-50s %7.1f%% %7.1f%% %8.2f %8.2f %8.2f %8.2f",
+                combination.getName(),
+                combination.getRate(false) * 100.0,
+                combination.getRate(true) * 100.0,
+                Arrays.stream(times).average().orElse(Double.NaN),
+                getPercentile(times, 0.5),
+                getPercentile(times, 0.95),
+                times.length == 0 ? Double.NaN : times[times.length - 1]));
+
+            //Worst case: a failure if there was one, otherwise the slowest score
+            Result worst = null;
+            synchronized(combination.results) {
+                for(Result result : combination.results) {
+                    if(worst == null
+                        || (worst.isScored && !result.isScored)
+                        || (worst.isScored && result.isScored && result.scoreTime > worst.scoreTime)) worst = result;
+                }
+            }
+            if(worst != null) System.out.println("    Worst: " + worst.alliance + " " + worst.line);
+        }
+    }
+
+    /** Write every match to a CSV file for further analysis. */
+    private static void writeResults(List<Combination> combinations, File output) throws IOException {
+        if(!output.isDirectory() && !output.mkdirs()) throw new IOException("Could not create " + output.getPath());
+        File file = new File(output, "results.csv");
+        try(PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            writer.println("sequence,position,delay,seed,alliance,valid,sequenceComplete,scored,scoreTime");
+            for(Combination combination : combinations) {
+                for(Result result : combination.results) {
+                    writer.println(String.join(",", combination.sequence, combination.position, combination.delay,
+                        Long.toString(result.seed), result.alliance, Boolean.toString(result.isValid),
+                        Boolean.toString(result.isSequenceComplete), Boolean.toString(result.isScored), Double.toString(result.scoreTime)));
+                }
+            }
+        }
+        System.out.println("Wrote " + file.getPath());
+    }
+}
@@ -0,0 +1,109 @@
+package frc.robot.sim;
+
+import java.util.Random;
+
+/**
+ * Physical conditions of the simulated robot, randomized from a seed so every match can be repeated.
+ * <p>Without {@value #ENV_SEED} set, the simulation runs with nominal conditions and no noise.
+ * With it set, battery voltage, friction and sensor noise are drawn from realistic ranges,
+ * as used by the {@link MonteCarloRunner}.</p>
+ */
+public class SimConfig {
+    public static final String ENV_SEED = "ROBOT_SIM_SEED";
+
+    //Nominal Conditions
+    private static final double NOMINAL_BATTERY_VOLTAGE = 12.5;
+    private static final double NOMINAL_FRICTION_VOLTAGE = 0.3;
+
+    //Randomized Ranges
+    private static final double MIN_BATTERY_VOLTAGE = 11.8;
+    private static final double MAX_BATTERY_VOLTAGE = 13.0;
+    private static final double MIN_FRICTION_VOLTAGE = 0.1;
+    private static final double MAX_FRICTION_VOLTAGE = 0.8;
+    private static final double MAX_ENCODER_NOISE = 0.005;
+    private static final double MAX_GYRO_NOISE = 0.5;
+
+    private static final boolean IS_RANDOMIZED;
+    private static final long SEED;
+    private static final Random mRandom;
+
+    private static final double BATTERY_VOLTAGE;
+    private static final double FRICTION_VOLTAGE;
+    private static final double ENCODER_NOISE;
+    private static final double GYRO_NOISE;
+
+    static {
+        String seed = System.getenv(ENV_SEED);
+        long parsedSeed = 0;
+        boolean isRandomized = false;
+        if(seed != null) {
+            try {
+                parsedSeed = Long.parseLong(seed.trim());
+                isRandomized = true;
+            } catch(NumberFormatException e) {
+                System.err.println("Invalid " + ENV_SEED + " '" + seed + "'. Using nominal conditions.");
+            }
+        }
+        IS_RANDOMIZED = isRandomized;
+        SEED = parsedSeed;
+        mRandom = new Random(parsedSeed);
+
+        if(IS_RANDOMIZED) {
+            BATTERY_VOLTAGE = uniform(MIN_BATTERY_VOLTAGE, MAX_BATTERY_VOLTAGE);
+            FRICTION_VOLTAGE = uniform(MIN_FRICTION_VOLTAGE, MAX_FRICTION_VOLTAGE);
+            ENCODER_NOISE = uniform(0.0, MAX_ENCODER_NOISE);
+            GYRO_NOISE = uniform(0.0, MAX_GYRO_NOISE);
+        } else {
+            BATTERY_VOLTAGE = NOMINAL_BATTERY_VOLTAGE;
+            FRICTION_VOLTAGE = NOMINAL_FRICTION_VOLTAGE;
+            ENCODER_NOISE = 0.0;
+            GYRO_NOISE = 0.0;
+        }
+    }
+
+    /** Unused Constructor. */
+    private SimConfig() {}
+
+    private static double uniform(double min, double max) { return min + (max - min) * mRandom.nextDouble(); }
+
+    /** True if conditions were randomized from a seed. */
+    public static boolean isRandomized() { return IS_RANDOMIZED; }
+    /** Seed the conditions were drawn from. */
+    public static long getSeed() { return SEED; }
+
+    /** Unloaded battery voltage. */
+    public static double getBatteryVoltage() { return BATTERY_VOLTAGE; }
+    /** Voltage lost to friction in each mechanism before it moves. */
+    public static double getFrictionVoltage() { return FRICTION_VOLTAGE; }
+    /** Standard deviation of drive encoder noise, in meters. */
+    public static double getEncoderNoise() { return ENCODER_NOISE; }
+    /** Standard deviation of gyro noise, in degrees. */
+    public static double getGyroNoise() { return GYRO_NOISE; }
+
+    /**
+     * Remove the voltage lost to friction from a motor's voltage.
+     * @param voltage Voltage applied by the motor
+     * @return Voltage left to move the mechanism
+     */
+    public static double applyFriction(double voltage) {
+        return Math.signum(voltage) * Math.max(0.0, Math.abs(voltage) - FRICTION_VOLTAGE);
+    }
+
+    /**
+     * Sample noise to add to a sensor reading.
+     * @param standardDeviation Standard deviation of the noise
+     * @return Random noise, or 0.0 if the standard deviation is 0.0
+     */
+    public static double getNoise(double standardDeviation) {
+        return standardDeviation > 0.0 ? mRandom.nextGaussian() * standardDeviation : 0.0;
+    }
+
+    /** Describe the conditions, for reporting results. */
+    public static String describe() {
+        return "seed=" + SEED
+            + " battery=" + BATTERY_VOLTAGE
+            + " friction=" + FRICTION_VOLTAGE
+            + " encoderNoise=" + ENCODER_NOISE
+            + " gyroNoise=" + GYRO_NOISE;
+    }
+}
@@ -1,16 +1,36 @@
 package frc.robot.subsystem;
 
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.MotorOutputConfigs;
 import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.signals.InvertedValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
+import com.ctre.phoenix6.sim.ChassisReference;
+import com.ctre.phoenix6.sim.TalonFXSimState;
 
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.util.Units;
 import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.wpilibj.ADXRS450_Gyro;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.ADXRS450_GyroSim;
+import edu.wpi.first.wpilibj.simulation.DifferentialDrivetrainSim;
+import frc.molib.Clock;
 import frc.molib.Console;
+import frc.molib.HistoryBuffer;
+import frc.molib.LatencyMonitor;
 import frc.molib.PIDController;
 import frc.molib.dashboard.DashboardValue;
+import frc.molib.drive.DifferentialOdometry;
+import frc.molib.drive.PoseEstimator;
+import frc.molib.drive.RamseteFollower;
+import frc.molib.drive.Trajectory;
 import frc.robot.Robot;
+import frc.robot.sim.SimConfig;
 
 /** The Chassis Subsystem. Handles driving around the field. */
 public class Chassis {
@@ -22,6 +42,9 @@ public class Chassis {
     //Dashboard Objects - Sensor Values
     private static final DashboardValue<Double> dshDrive_Angle = new DashboardValue<Double>(tblChassis, "Drive Angle");
     private static final DashboardValue<Double> dshDrive_Distance = new DashboardValue<Double>(tblChassis, "Drive Distance");
+    private static final DashboardValue<Double> dshPose_X = new DashboardValue<Double>(tblChassis, "Pose X");
+    private static final DashboardValue<Double> dshPose_Y = new DashboardValue<Double>(tblChassis, "Pose Y");
+    private static final DashboardValue<Double> dshPose_Heading = new DashboardValue<Double>(tblChassis, "Pose Heading");
 
     //Dashboard Objects - Drive Angle PID Values
     private static final DashboardValue<Double> dshDrive_Angle_P = new DashboardValue<Double>(tblDrive_Angle_PID, "P Value");
@@ -41,6 +64,11 @@ public class Chassis {
     private static final TalonFX mtrDrive_R1 = new TalonFX(3);
     private static final TalonFX mtrDrive_R2 = new TalonFX(4);
 
+    //Status Signals
+    private static final StatusSignal<Angle> sigDrive_L1_Position = mtrDrive_L1.getPosition();
+    private static final StatusSignal<Angle> sigDrive_R1_Position = mtrDrive_R1.getPosition();
+    private static final BaseStatusSignal[] sigDrive_Odometry = { sigDrive_L1_Position, sigDrive_R1_Position };
+
     //Sensors
     private static final ADXRS450_Gyro gyrDrive = new ADXRS450_Gyro();
 
@@ -48,9 +76,60 @@ public class Chassis {
     private static final PIDController pidDrive_Angle = new PIDController(0.0, 0.0, 0.0);
     private static final PIDController pidDrive_Distance = new PIDController(0.0, 0.0, 0.0);
 
+    //Latency Monitors
+    private static final LatencyMonitor latDrive = new LatencyMonitor(tblChassis, "Drive");
+
     //Constants
     private static final double GEAR_RATIO = 1.0 / 6.0;
     private static final double WHEEL_CIRCUMFERENCE = Math.PI * 4.0;
+    private static final int POSE_HISTORY_CAPACITY = 400;
+
+    //Drive Feedforward, volts per meter per second (squared)
+    private static final double DRIVE_KS = 0.15;
+    private static final double DRIVE_KV = 2.6;
+    private static final double DRIVE_KA = 0.4;
+
+    /** How often odometry should be updated, in seconds. */
+    public static final double ODOMETRY_PERIOD = 0.005;
+    /** Distance between the left and right wheels, in meters. */
+    public static final double TRACK_WIDTH = 22.0 * 0.0254;
+    /** Length of the field, in meters. */
+    public static final double FIELD_LENGTH = 17.548;
+    /** Width of the field, in meters. */
+    public static final double FIELD_WIDTH = 8.052;
+
+    //Odometry
+    private static final PoseEstimator estDrive_Pose = new PoseEstimator(POSE_HISTORY_CAPACITY);
+    private static double mDistanceOffset = 0.0;
+
+    //Gyro angle history, to look up where the Chassis was facing when a camera image was captured
+    private static final HistoryBuffer hstDrive_Angle = new HistoryBuffer(POSE_HISTORY_CAPACITY, 1);
+
+    //Trajectory Following
+    private static final RamseteFollower rmsDrive = new RamseteFollower(TRACK_WIDTH);
+    private static double mTrajectoryStartTime = 0.0;
+    private static final double[] mTrajectoryStart = new double[Trajectory.STATE_LENGTH];
+    private static Trajectory mTrajectory = null;
+    private static boolean mIsTrajectoryMirrored = false;
+
+    //Output Suppression, with a simple plant driven by the commanded power in place of the real Chassis
+    private static final DifferentialOdometry odoWarmUp = new DifferentialOdometry();
+    private static boolean mIsOutputSuppressed = false;
+    private static double mWarmUpLeftDistance = 0.0;
+    private static double mWarmUpRightDistance = 0.0;
+
+    private static NeutralModeValue mNeutralMode = null;
+
+    //Simulation
+    private static final double SIM_MASS = 55.0;
+    private static final double SIM_MOMENT_OF_INERTIA = 5.0;
+    private static DifferentialDrivetrainSim simDrive = null;
+    private static ADXRS450_GyroSim simGyro = null;
+    /** Motor rotations of each side last written to the simulated encoders. */
+    private static double mSimLeftRotations = 0.0;
+    private static double mSimRightRotations = 0.0;
+    /** Rotations the encoders may differ from what was written, from the resolution of the status signal. */
+    private static final double SIM_SYNC_TOLERANCE = 0.01;
 
     //Power Buffer Variables
     private static double mDrivePower_Left = 0.0;
@@ -69,6 +148,9 @@ public class Chassis {
         mtrDrive_R1.getConfigurator().apply(new MotorOutputConfigs().withInverted(InvertedValue.CounterClockwise_Positive));
         mtrDrive_R2.getConfigurator().apply(new MotorOutputConfigs().withInverted(InvertedValue.CounterClockwise_Positive));
 
+        Console.logMsg("Configuring Status Signals...");
+        BaseStatusSignal.setUpdateFrequencyForAll(1.0 / ODOMETRY_PERIOD, sigDrive_Odometry);
+
         Console.logMsg("Configuring PIDs...");
         pidDrive_Angle.setTolerance(2.0);
         pidDrive_Distance.setTolerance(0.5);
@@ -79,12 +161,18 @@ public class Chassis {
         pidDrive_Angle.configAtSetpointTime(0.25);
         pidDrive_Distance.configAtSetpointTime(0.25);
 
-        Console.logMsg("Calibrating Gyro...");
-        gyrDrive.calibrate();
+        rmsDrive.configFeedforward(DRIVE_KS, DRIVE_KV, DRIVE_KA);
+
+        if(RobotBase.isReal()) {
+            Console.logMsg("Calibrating Gyro...");
+            gyrDrive.calibrate();
+        }
 
         Console.logMsg("Resetting Sensor values...");
+        BaseStatusSignal.refreshAll(sigDrive_Odometry);
         resetAngle();
         resetDistance();
+        resetPoseUnknown();
 
         Console.logMsg("Initializing Dashboard values...");
         dshDrive_Angle_P.set(pidDrive_Angle.getP());
@@ -103,22 +191,41 @@ public class Chassis {
         //Push Sensor values
         dshDrive_Angle.set(getAngle());
         dshDrive_Distance.set(getDistance());
+        dshPose_X.set(getPoseX());
+        dshPose_Y.set(getPoseY());
+        dshPose_Heading.set(Math.toDegrees(getPoseHeading()));
 
         //Update PID values
-        pidDrive_Angle.setP(dshDrive_Angle_P.get());
-        pidDrive_Angle.setI(dshDrive_Angle_I.get());
-        pidDrive_Angle.setD(dshDrive_Angle_D.get());
+        pidDrive_Angle.setP(dshDrive_Angle_P.getDouble(pidDrive_Angle.getP()));
+        pidDrive_Angle.setI(dshDrive_Angle_I.getDouble(pidDrive_Angle.getI()));
+        pidDrive_Angle.setD(dshDrive_Angle_D.getDouble(pidDrive_Angle.getD()));
         dshDrive_Angle_OnTarget.set(isAtAngle());
         
-        pidDrive_Distance.setP(dshDrive_Distance_P.get());
-        pidDrive_Distance.setI(dshDrive_Distance_I.get());
-        pidDrive_Distance.setD(dshDrive_Distance_D.get());
+        pidDrive_Distance.setP(dshDrive_Distance_P.getDouble(pidDrive_Distance.getP()));
+        pidDrive_Distance.setI(dshDrive_Distance_I.getDouble(pidDrive_Distance.getI()));
+        pidDrive_Distance.setD(dshDrive_Distance_D.getDouble(pidDrive_Distance.getD()));
         dshDrive_Distance_OnTarget.set(isAtDistance());
+
+        //Push Latency statistics
+        latDrive.publish();
+    }
+
+    /** Print the Drive latency statistics to the Console, then start a new set. */
+    public static void logLatency() {
+        latDrive.logSummary();
+        latDrive.reset();
     }
 
+    /**
+     * Mark when the input driving the Chassis last changed, to measure input to motor latency.
+     * @param timestamp FPGA time the input arrived at the robot, in seconds
+     */
+    public static void markDriveInput(double timestamp) { latDrive.markInput(timestamp); }
+
     /** Disable the whole Subsystem. Disable all PID control, stop all motors. */
     public static void disable() {
         disable_PIDs();
+        disable_Trajectory();
         disable_Drive();
     }
 
@@ -129,25 +236,122 @@ public class Chassis {
     /** Disable Drive Distance PID control. */
     public static void disable_DriveDistancePID() { pidDrive_Distance.disable(); }
 
+    /** Stop following the current Trajectory. <i>Does not stop the motors.</i> */
+    public static void disable_Trajectory() { 
+        mTrajectory = null; 
+        rmsDrive.reset();
+    }
+
     /** Stop all Drive motors. <i>Does not disable PID control.</i> */
     public static void disable_Drive() { setDrivePower(0.0, 0.0); }
 
     /** Reads the current angle of the Chassis. */
     public static double getAngle() { return gyrDrive.getAngle(); }
-    /** Reads how far the Chassis has driven. */
-    public static double getDistance() { return mtrDrive_L1.getPosition().getValueAsDouble() * GEAR_RATIO * WHEEL_CIRCUMFERENCE; }
+    /** Reads how far the Chassis has driven, in inches, from the latest odometry sample. */
+    public static double getDistance() { return getRawLeftDistance() - mDistanceOffset; }
+
+    /** Set Angle back to zero. Odometry keeps its current heading. */
+    public static void resetAngle() { 
+        gyrDrive.reset(); 
+        hstDrive_Angle.clear();
+        estDrive_Pose.resetGyro(getLeftDistanceMeters(), getRightDistanceMeters(), getGyroHeading());
+    }
+    /** Set Distance back to zero. <i>Odometry is not affected.</i> */
+    public static void resetDistance() { mDistanceOffset = getRawLeftDistance(); }
+
+    /** Left side distance in inches, as sampled by the last odometry update. */
+    private static double getRawLeftDistance() { return sigDrive_L1_Position.getValueAsDouble() * GEAR_RATIO * WHEEL_CIRCUMFERENCE; }
+    /** Left side distance in meters, as sampled by the last odometry update. */
+    private static double getLeftDistanceMeters() { return Units.inchesToMeters(getRawLeftDistance()); }
+    /** Right side distance in meters, as sampled by the last odometry update. */
+    private static double getRightDistanceMeters() { return Units.inchesToMeters(sigDrive_R1_Position.getValueAsDouble() * GEAR_RATIO * WHEEL_CIRCUMFERENCE); }
+    /** Gyro heading in radians, counter-clockwise positive. */
+    private static double getGyroHeading() { return -Math.toRadians(gyrDrive.getAngle()); }
+
+    /**
+     * Read both Drive encoders together with the gyro and integrate them into the field pose.
+     * <p><i>Call at {@link #ODOMETRY_PERIOD}, separately from the main loop.</i></p>
+     */
+    public static void updateOdometry() {
+        BaseStatusSignal.refreshAll(sigDrive_Odometry);
+        double timestamp = Timer.getFPGATimestamp() - sigDrive_L1_Position.getTimestamp().getLatency();
+        estDrive_Pose.update(timestamp, getLeftDistanceMeters(), getRightDistanceMeters(), getGyroHeading());
+        hstDrive_Angle.add(Timer.getFPGATimestamp(), getAngle());
+    }
+
+    /**
+     * Read the angle of the Chassis at a recent time, interpolated from the gyro history.
+     * @param timestamp FPGA time in seconds
+     * @return Angle in degrees, as {@link #getAngle()}, or NaN if the time is older than the history
+     */
+    public static double getAngleAt(double timestamp) {
+        if(!(timestamp >= hstDrive_Angle.getOldestTimestamp())) return Double.NaN;
+        return hstDrive_Angle.sample(timestamp, 0);
+    }
+
+    /**
+     * Move the tracked field pose to a known position and clear the pose history.
+     * @param poseX		Field X position in meters
+     * @param poseY		Field Y position in meters
+     * @param heading	Field heading in radians, counter-clockwise positive
+     */
+    public static void resetPose(double poseX, double poseY, double heading) {
+        estDrive_Pose.reset(poseX, poseY, heading, getLeftDistanceMeters(), getRightDistanceMeters(), getGyroHeading(), true);
+    }
+
+    /**
+     * Clear the pose history and let the next vision measurement set the field pose, wherever it is.
+     * <p><i>Use when the starting position of the robot is not known.</i></p>
+     */
+    public static void resetPoseUnknown() {
+        estDrive_Pose.reset(0.0, 0.0, 0.0, getLeftDistanceMeters(), getRightDistanceMeters(), getGyroHeading(), false);
+    }
+
+    /**
+     * Correct the field pose with a vision measurement, rewound to when the image was captured.
+     * @param poseX			Measured field X position in meters
+     * @param poseY			Measured field Y position in meters
+     * @param heading		Measured field heading in radians, counter-clockwise positive
+     * @param timestamp		FPGA time the image was captured, in seconds
+     * @param stdDevXY		How far off the measured position may be, in meters
+     * @param stdDevHeading	How far off the measured heading may be, in radians
+     * @return True if the measurement was accepted, false if it was rejected as an outlier
+     */
+    public static boolean addVisionMeasurement(double poseX, double poseY, double heading, double timestamp, double stdDevXY, double stdDevHeading) {
+        return estDrive_Pose.addVisionMeasurement(poseX, poseY, heading, timestamp, stdDevXY, stdDevHeading);
+    }
+
+    /** True if the field pose and heading have been set, either by {@link #resetPose} or by a vision measurement with a heading. */
+    public static boolean isPoseKnown() { return estDrive_Pose.isSeeded(); }
+
+    /** Number of vision measurements accepted into the field pose. */
+    public static int getVisionAcceptedCount() { return estDrive_Pose.getAcceptedCount(); }
+    /** Number of vision measurements rejected as outliers. */
+    public static int getVisionRejectedCount() { return estDrive_Pose.getRejectedCount(); }
+
+    /** Field X position in meters. */
+    public static double getPoseX() { return estDrive_Pose.getPoseX(); }
+    /** Field Y position in meters. */
+    public static double getPoseY() { return estDrive_Pose.getPoseY(); }
+    /** Field heading in radians, counter-clockwise positive. */
+    public static double getPoseHeading() { return estDrive_Pose.getHeading(); }
 
-    /** Set Angle back to zero. */
-    public static void resetAngle() { gyrDrive.reset(); }
-    /** Set Distance back to zero. */
-    public static void resetDistance() { mtrDrive_L1.setPosition(0.0); }
+    /**
+     * Read the field pose at a recent time, interpolated from the pose history.
+     * @param timestamp FPGA time in seconds
+     * @param output 	Array filled with X, Y (meters) and heading (radians)
+     * @return False if there is no pose history yet
+     */
+    public static boolean samplePose(double timestamp, double[] output) { return estDrive_Pose.sample(timestamp, output); }
 
     /**
      * Change how the Drive motors behave when input is neutral or zero.
-     * <p><i>Do not call frequently, it will slow down the system.</i></p>
+     * <p><i>Does nothing if already in that mode. Otherwise, do not call frequently, it will slow down the system.</i></p>
      * @param mode Brake actively resists motion when neutral, Coast lets the Chassis roll freely
      */
     public static void setNeutralMode(NeutralModeValue mode) {
+        if(mode == mNeutralMode) return;
+        mNeutralMode = mode;
         mtrDrive_L1.setNeutralMode(mode);
         mtrDrive_L2.setNeutralMode(mode);
         mtrDrive_R1.setNeutralMode(mode);
@@ -174,6 +378,7 @@ public class Chassis {
     public static void setDrivePower(double leftPower, double rightPower) {
         mDrivePower_Left = leftPower;
         mDrivePower_Right = rightPower;
+        if(!mIsOutputSuppressed) latDrive.markCommand();
     }
 
     /**
@@ -194,6 +399,59 @@ public class Chassis {
         pidDrive_Distance.setSetpoint(distance);
     }
 
+    /**
+     * Stop or resume applying power to the motors, so the control code can be exercised while disabled.
+     * <p>While suppressed, everything is calculated as usual, but Trajectories are followed against a simple
+     * simulated Chassis driven by the commanded power, and latency is not measured.</p>
+     * @param suppressed True to keep the motors from being set
+     */
+    public static void setOutputSuppressed(boolean suppressed) {
+        if(suppressed && !mIsOutputSuppressed)
+            odoWarmUp.reset(getPoseX(), getPoseY(), getPoseHeading(), mWarmUpLeftDistance, mWarmUpRightDistance, getWarmUpHeading());
+        mIsOutputSuppressed = suppressed;
+    }
+
+    /** Heading of the simulated plant from its wheel distances, in radians. */
+    private static double getWarmUpHeading() { return (mWarmUpRightDistance - mWarmUpLeftDistance) / TRACK_WIDTH; }
+
+    /** Move the simulated plant one loop at the velocity the commanded power would reach. */
+    private static void updateWarmUpPlant() {
+        double maxVelocity = RobotController.getBatteryVoltage() / DRIVE_KV;
+        mWarmUpLeftDistance += mDrivePower_Left * maxVelocity * Robot.kDefaultPeriod;
+        mWarmUpRightDistance += mDrivePower_Right * maxVelocity * Robot.kDefaultPeriod;
+        odoWarmUp.update(mWarmUpLeftDistance, mWarmUpRightDistance, getWarmUpHeading());
+    }
+
+    /**
+     * Start following a Trajectory. Disables PID control.
+     * <p><i>If the field pose is not yet known, it is set to the start of the Trajectory.
+     * While outputs are suppressed, only the simulated pose is moved.</i></p>
+     * @param trajectory	Trajectory to follow, defined for the blue alliance
+     * @param isMirrored	True to follow the Trajectory rotated onto the red alliance side of the field
+     */
+    public static void followTrajectory(Trajectory trajectory, boolean isMirrored) {
+        disable_PIDs();
+        if(mIsOutputSuppressed || !isPoseKnown()) {
+            trajectory.sample(0.0, isMirrored, FIELD_LENGTH, FIELD_WIDTH, mTrajectoryStart);
+            if(mIsOutputSuppressed)
+                odoWarmUp.reset(mTrajectoryStart[Trajectory.STATE_X], mTrajectoryStart[Trajectory.STATE_Y], mTrajectoryStart[Trajectory.STATE_HEADING], mWarmUpLeftDistance, mWarmUpRightDistance, getWarmUpHeading());
+            else
+                resetPose(mTrajectoryStart[Trajectory.STATE_X], mTrajectoryStart[Trajectory.STATE_Y], mTrajectoryStart[Trajectory.STATE_HEADING]);
+        }
+        mTrajectory = trajectory;
+        mIsTrajectoryMirrored = isMirrored;
+        mTrajectoryStartTime = Clock.getTimestamp();
+    }
+
+    /**
+     * Determine if the current Trajectory has been driven to the end.
+     * @return True if the Trajectory's time has passed, or if no Trajectory is being followed
+     */
+    public static boolean isTrajectoryComplete() { return mTrajectory == null || getTrajectoryTime() >= mTrajectory.getTotalTime(); }
+
+    /** Time since the current Trajectory started, on the same {@link Clock} as the Autonomous Actions, in seconds. */
+    private static double getTrajectoryTime() { return Clock.getTimestamp() - mTrajectoryStartTime; }
+
     /**
      * Read sensor input to determine if the Chassis is at the desired angle.
      * @return True if the Drive Angle PID has been within tolerance for the required period
@@ -206,10 +464,80 @@ public class Chassis {
      */
     public static boolean isAtDistance() { return pidDrive_Distance.atSetpoint(); }
 
+    /** Call once at startup, in simulation only, to create the physics model of the Chassis. */
+    public static void initSimulation() {
+        simDrive = createDriveSim();
+        simGyro = new ADXRS450_GyroSim(gyrDrive);
+
+        mtrDrive_L1.getSimState().Orientation = ChassisReference.Clockwise_Positive;
+        mtrDrive_L2.getSimState().Orientation = ChassisReference.Clockwise_Positive;
+        mtrDrive_R1.getSimState().Orientation = ChassisReference.CounterClockwise_Positive;
+        mtrDrive_R2.getSimState().Orientation = ChassisReference.CounterClockwise_Positive;
+    }
+
+    /** Physics model of the Drive, with no sensor noise. Also used to test drive mappings against the real Chassis. */
+    public static DifferentialDrivetrainSim createDriveSim() {
+        return new DifferentialDrivetrainSim(DCMotor.getKrakenX60(2), 1.0 / GEAR_RATIO, SIM_MOMENT_OF_INERTIA, SIM_MASS, 
+            Units.inchesToMeters(WHEEL_CIRCUMFERENCE / (2.0 * Math.PI)), TRACK_WIDTH, null);
+    }
+
+    /**
+     * Call periodically, in simulation only, to move the physics model by the voltage the motors are applying 
+     * and feed the result back to the encoders and gyro.
+     * <p><i>Friction and sensor noise come from the {@link SimConfig}.</i></p>
+     * @param period Time to simulate, in seconds
+     */
+    public static void simulationPeriodic(double period) {
+        double batteryVoltage = RobotController.getBatteryVoltage();
+        TalonFXSimState simDrive_L1 = mtrDrive_L1.getSimState();
+        TalonFXSimState simDrive_R1 = mtrDrive_R1.getSimState();
+        simDrive_L1.setSupplyVoltage(batteryVoltage);
+        simDrive_R1.setSupplyVoltage(batteryVoltage);
+        mtrDrive_L2.getSimState().setSupplyVoltage(batteryVoltage);
+        mtrDrive_R2.getSimState().setSupplyVoltage(batteryVoltage);
+
+        simDrive.setInputs(SimConfig.applyFriction(simDrive_L1.getMotorVoltage()), SimConfig.applyFriction(simDrive_R1.getMotorVoltage()));
+        simDrive.update(period);
+
+        double encoderNoise = SimConfig.getEncoderNoise();
+        mSimLeftRotations = setSimEncoder(simDrive_L1, simDrive.getLeftPositionMeters() + SimConfig.getNoise(encoderNoise), simDrive.getLeftVelocityMetersPerSecond());
+        mSimRightRotations = setSimEncoder(simDrive_R1, simDrive.getRightPositionMeters() + SimConfig.getNoise(encoderNoise), simDrive.getRightVelocityMetersPerSecond());
+        simGyro.setAngle(-simDrive.getHeading().getDegrees() + SimConfig.getNoise(SimConfig.getGyroNoise()));
+    }
+
+    /** Convert a simulated side of the Chassis into motor rotations, returning the rotations written. */
+    private static double setSimEncoder(TalonFXSimState simMotor, double distance, double velocity) {
+        double rotationsPerMeter = Units.metersToInches(1.0) / (GEAR_RATIO * WHEEL_CIRCUMFERENCE);
+        simMotor.setRawRotorPosition(distance * rotationsPerMeter);
+        simMotor.setRotorVelocity(velocity * rotationsPerMeter);
+        return distance * rotationsPerMeter;
+    }
+
+    /** 
+     * True if the drive encoders report what the physics model last wrote to them.
+     * <p><i>Phoenix publishes simulated status signals on its own real-time clock, so they fall behind when simulated time 
+     * is stepped faster than real time. Call from the thread stepping time, while the robot loop is waiting.</i></p>
+     */
+    public static boolean isSimSynced() {
+        BaseStatusSignal.refreshAll(sigDrive_Odometry);
+        return Math.abs(sigDrive_L1_Position.getValueAsDouble() - mSimLeftRotations) <= SIM_SYNC_TOLERANCE
+            && Math.abs(sigDrive_R1_Position.getValueAsDouble() - mSimRightRotations) <= SIM_SYNC_TOLERANCE;
+    }
+
+    /** Current drawn by the simulated Chassis, in amps. */
+    public static double getSimCurrentDraw() { return simDrive == null ? 0.0 : simDrive.getCurrentDrawAmps(); }
+
     /** Call periodicallly to calculate PIDs and apply power to the motors. */
     public static void periodic() {
-        //Calculate PID Controller input
-        if(pidDrive_Angle.isEnabled()) {
+        //Calculate Trajectory or PID Controller input
+        if(mTrajectory != null) {
+            if(mIsOutputSuppressed)
+                rmsDrive.calculate(mTrajectory, getTrajectoryTime(), mIsTrajectoryMirrored, FIELD_LENGTH, FIELD_WIDTH, odoWarmUp.getPoseX(), odoWarmUp.getPoseY(), odoWarmUp.getHeading());
+            else
+                rmsDrive.calculate(mTrajectory, getTrajectoryTime(), mIsTrajectoryMirrored, FIELD_LENGTH, FIELD_WIDTH, getPoseX(), getPoseY(), getPoseHeading());
+            double batteryVoltage = RobotController.getBatteryVoltage();
+            setDrivePower(rmsDrive.getLeftVoltage() / batteryVoltage, rmsDrive.getRightVoltage() / batteryVoltage);
+        } else if(pidDrive_Angle.isEnabled()) {
             double pidPower = pidDrive_Angle.calculate(getAngle());
             setDrivePower(pidPower, -pidPower);
         } else if(pidDrive_Distance.isEnabled()) { 
@@ -217,10 +545,17 @@ public class Chassis {
             setDrivePower(pidPower, pidPower);
         }
 
+        //Drive the simulated plant instead of the motors while suppressed
+        if(mIsOutputSuppressed) {
+            updateWarmUpPlant();
+            return;
+        }
+
         //Apply power to motors
         mtrDrive_L1.set(mDrivePower_Left);
         mtrDrive_L2.set(mDrivePower_Left);
         mtrDrive_R1.set(mDrivePower_Right);
         mtrDrive_R2.set(mDrivePower_Right);
+        latDrive.markActuation();
     }
 }
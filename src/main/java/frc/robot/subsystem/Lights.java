@@ -0,0 +1,85 @@
+package frc.robot.subsystem;
+
+import java.util.Optional;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Timer;
+import frc.molib.Console;
+import frc.molib.dashboard.DashboardValue;
+import frc.molib.lights.Blinkin;
+import frc.molib.lights.LightManager;
+import frc.robot.Robot;
+
+/** 
+ * The Lights Subsystem. Shows the drivers the state of the robot on the Blinkin LEDs.
+ * <p>From highest priority to lowest: faults, a loaded Coral, the Elevator at its target height, a lost Limelight, then the alliance color.</p>
+ */
+public class Lights {
+    //Network Tables
+    private static final NetworkTable tblLights = Robot.tblSubsystems.getSubTable("Lights");
+
+    //Dashboard Objects
+    private static final DashboardValue<String> dshLayer = new DashboardValue<String>(tblLights, "Layer");
+
+    //Lights
+    private static final Blinkin blnLights = new Blinkin(0);
+    private static final LightManager lgtLights = new LightManager(blnLights, Blinkin.mode.pattern.fixedPalette.rainbow.OCEAN);
+
+    //Layers, highest priority first
+    private static final LightManager.Layer lyrFault = lgtLights.addLayer("Fault");
+    private static final LightManager.Layer lyrLoaded = lgtLights.addLayer("Loaded");
+    private static final LightManager.Layer lyrAtSetpoint = lgtLights.addLayer("At Setpoint");
+    private static final LightManager.Layer lyrVisionLost = lgtLights.addLayer("Vision Lost");
+    private static final LightManager.Layer lyrAlliance = lgtLights.addLayer("Alliance");
+
+    //Patterns
+    private static final double PATTERN_FAULT = Blinkin.mode.pattern.fixedPalette.strobe.RED;
+    private static final double PATTERN_LOADED = Blinkin.mode.solid.ORANGE;
+    private static final double PATTERN_AT_SETPOINT = Blinkin.mode.solid.GREEN;
+    private static final double PATTERN_VISION_LOST = Blinkin.mode.pattern.fixedPalette.strobe.GOLD;
+    private static final double PATTERN_RED_ALLIANCE = Blinkin.mode.pattern.fixedPalette.heartBeat.RED;
+    private static final double PATTERN_BLUE_ALLIANCE = Blinkin.mode.pattern.fixedPalette.heartBeat.BLUE;
+
+    /** Time between checks of the alliance color, in seconds. Reading it allocates, and it rarely changes. */
+    private static final double ALLIANCE_CHECK_PERIOD = 1.0;
+    private static double mAllianceCheckTime = Double.NEGATIVE_INFINITY;
+
+    /** Unused Constructor. */
+    private Lights() {}
+
+    /** Call once at Robot startup. */
+    public static void init() {
+        Console.printHeader("Lights Initialization");
+        Console.logMsg("Layers: Fault, Loaded, At Setpoint, Vision Lost, Alliance");
+        Console.logMsg("Lights Initialization Complete!");
+    }
+
+    /** Call regularly to syncronize values between the robot and the Dashboard. */
+    public static void syncDashboardValues() {
+        LightManager.Layer activeLayer = lgtLights.getActiveLayer();
+        dshLayer.set(activeLayer == null ? "Idle" : activeLayer.getName());
+    }
+
+    /** Call periodically to follow the state of the other Subsystems and update the LEDs. */
+    public static void periodic() {
+        lyrFault.set(RobotController.isBrownedOut() || Manipulator.isFaulted(), PATTERN_FAULT);
+        lyrLoaded.set(Manipulator.isLoaded() && !Manipulator.isAtHeight(), PATTERN_LOADED);
+        lyrAtSetpoint.set(Manipulator.isAtHeight() || Vision.isAligned(), PATTERN_AT_SETPOINT);
+        lyrVisionLost.set(Vision.isLimelightLost(), PATTERN_VISION_LOST);
+
+        double timestamp = Timer.getFPGATimestamp();
+        if(timestamp - mAllianceCheckTime >= ALLIANCE_CHECK_PERIOD) {
+            mAllianceCheckTime = timestamp;
+            Optional<Alliance> alliance = DriverStation.getAlliance();
+            if(alliance.isEmpty())
+                lyrAlliance.clear();
+            else
+                lyrAlliance.set(alliance.get() == Alliance.Red ? PATTERN_RED_ALLIANCE : PATTERN_BLUE_ALLIANCE);
+        }
+
+        lgtLights.update();
+    }
+}
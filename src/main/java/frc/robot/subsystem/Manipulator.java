@@ -3,6 +3,8 @@ package frc.robot.subsystem;
 import com.ctre.phoenix.motorcontrol.ControlMode;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 import com.ctre.phoenix.motorcontrol.can.VictorSPX;
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.FeedbackConfigs;
 import com.ctre.phoenix6.configs.MotorOutputConfigs;
 import com.ctre.phoenix6.configs.SoftwareLimitSwitchConfigs;
@@ -10,14 +12,32 @@ import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.signals.InvertedValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
+import com.ctre.phoenix6.sim.ChassisReference;
+import com.ctre.phoenix6.sim.TalonFXSimState;
 
 import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.filter.Debouncer;
+import edu.wpi.first.math.filter.Debouncer.DebounceType;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.util.Units;
 import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Current;
+import edu.wpi.first.wpilibj.Alert;
+import edu.wpi.first.wpilibj.Alert.AlertType;
+import edu.wpi.first.wpilibj.DigitalGlitchFilter;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.DIOSim;
+import edu.wpi.first.wpilibj.simulation.ElevatorSim;
 import frc.molib.Console;
+import frc.molib.LatencyMonitor;
 import frc.molib.PIDController;
 import frc.molib.dashboard.DashboardValue;
 import frc.molib.sensors.DigitalInput;
 import frc.robot.Robot;
+import frc.robot.sim.SimConfig;
 
 /** The Manipulator Subsystem. Handles scoring Coral game pieces on the Reef. */
 public class Manipulator {
@@ -34,6 +54,20 @@ public class Manipulator {
         public double getHeight() { return HEIGHT; }
     }
 
+    /** Steps of an automated scoring cycle. */
+    public enum ScoreState {
+        /** Not scoring. The Elevator and Outtake are under manual control. */
+        IDLE,
+        /** Moving the Elevator to the scoring height. */
+        MOVING,
+        /** The Elevator has settled at the scoring height. The Outtake starts next. */
+        SETTLED,
+        /** Running the Outtake until the Coral has left. */
+        EJECTING,
+        /** Returning the Elevator to the bottom. */
+        STOWING
+    }
+
     //Network Tables
     private static final NetworkTable tblManipulator = Robot.tblSubsystems.getSubTable("Manipulator");
     private static final NetworkTable tblElevator_Height_PID = tblManipulator.getSubTable("Elevator Height PID");
@@ -43,6 +77,16 @@ public class Manipulator {
     private static final DashboardValue<Boolean> dshElevator_AtTop = new DashboardValue<Boolean>(tblManipulator, "At Top");
     private static final DashboardValue<Boolean> dshElevator_AtBottom = new DashboardValue<Boolean>(tblManipulator, "At Bottom");
     private static final DashboardValue<Boolean> dshLoaded = new DashboardValue<Boolean>(tblManipulator, "Loaded");
+    private static final DashboardValue<Double> dshElevator_Current = new DashboardValue<Double>(tblManipulator, "Elevator Current");
+    private static final DashboardValue<Boolean> dshElevator_Homed = new DashboardValue<Boolean>(tblManipulator, "Elevator Homed");
+    private static final DashboardValue<Boolean> dshElevator_Faulted = new DashboardValue<Boolean>(tblManipulator, "Elevator Faulted");
+
+    //Dashboard Objects - Scoring cycle
+    private static final DashboardValue<String> dshScore_State = new DashboardValue<String>(tblManipulator, "Score State");
+    private static final DashboardValue<Double> dshScore_LastCycleTime = new DashboardValue<Double>(tblManipulator, "Last Cycle Time");
+    private static final DashboardValue<Double> dshScore_MeanCycleTime = new DashboardValue<Double>(tblManipulator, "Mean Cycle Time");
+    private static final DashboardValue<Double> dshScore_CycleCount = new DashboardValue<Double>(tblManipulator, "Cycles");
+    private static final DashboardValue<Double> dshScore_AbortCount = new DashboardValue<Double>(tblManipulator, "Aborted Cycles");
 
     //Dashboard Objects - Elevator Height PID values
     private static final DashboardValue<Double> dshElevator_Height_P = new DashboardValue<Double>(tblElevator_Height_PID, "P Value");
@@ -55,21 +99,104 @@ public class Manipulator {
     private static final VictorSPX mtrOuttake_L = new VictorSPX(6);
     private static final VictorSPX mtrOuttake_R = new VictorSPX(7);
 
+    //Status Signals
+    private static final StatusSignal<Angle> sigElevator_Position = mtrElevator.getPosition();
+    private static final StatusSignal<AngularVelocity> sigElevator_Velocity = mtrElevator.getVelocity();
+    private static final StatusSignal<Current> sigElevator_Current = mtrElevator.getStatorCurrent();
+    private static final BaseStatusSignal[] sigElevator = { sigElevator_Position, sigElevator_Velocity, sigElevator_Current };
+
     //Sensors
     private static DigitalInput phoElevator_T = new DigitalInput(0);
     private static DigitalInput phoElevator_B = new DigitalInput(1);
     private static DigitalInput phoLoaded = new DigitalInput(2);
+    private static final DigitalGlitchFilter fltPhotoEyes = new DigitalGlitchFilter();
 
     //PID Controllers
     private static final PIDController pidElevator_Height = new PIDController(0.0, 0.0, 0.0);
 
+    //Latency Monitors
+    private static final LatencyMonitor latElevator = new LatencyMonitor(tblManipulator, "Elevator");
+
+    //Alerts
+    private static final Alert altElevator_Stall = new Alert("Elevator stalled! Power cut until it is homed.", AlertType.kError);
+
     //Constants
     private static final double ELEVATOR_GEAR_RATIO = 1.0;
     private static final double ELEVATOR_SPROCKET_CIRCUMFERENCE = 2.0 * Math.PI;
-
-    //Power Buffer Variables
-    private static double mElevatorPower = 0.0;
-    private static double mOuttakePower = 0.0;
+    /** Shortest pulse the photo-eyes will report, in nanoseconds. */
+    private static final long PHOTOEYE_FILTER_PERIOD = 500000;
+
+    //Homing and Stall Detection
+    private static final double ELEVATOR_SIGNAL_FREQUENCY = 100.0;
+    /** Power to lower the Elevator with while homing, gentle enough to stop against the bottom. */
+    private static final double HOMING_POWER = -0.08;
+    private static final double HOMING_TIMEOUT = 5.0;
+    /** Current that means the Elevator is pressing on the bottom while homing, in amps. */
+    private static final double HOMING_CURRENT = 15.0;
+    /** Time the Elevator must press on the bottom to be homed, in seconds. */
+    private static final double HOMING_TIME = 0.2;
+    /** Current that means the Elevator is jammed, in amps. */
+    private static final double STALL_CURRENT = 40.0;
+    /** Time the Elevator must be jammed before power is cut, in seconds. */
+    private static final double STALL_TIME = 0.5;
+    /** Least power that should move the Elevator. */
+    private static final double STALL_MIN_POWER = 0.05;
+    /** Slowest the Elevator can move and still count as moving, in inches per second. */
+    private static final double STOPPED_VELOCITY = 0.5;
+    private static final Debouncer dbcElevator_HardStop = new Debouncer(HOMING_TIME, DebounceType.kRising);
+    private static final Debouncer dbcElevator_Stall = new Debouncer(STALL_TIME, DebounceType.kRising);
+    private static final SoftwareLimitSwitchConfigs cfgElevator_SoftLimits = new SoftwareLimitSwitchConfigs()
+        .withForwardSoftLimitThreshold(Position.LEVEL4.getHeight() + 0.25)
+        .withForwardSoftLimitEnable(true)
+        .withReverseSoftLimitThreshold(Position.BOTTOM.getHeight() - 0.25)
+        .withReverseSoftLimitEnable(true);
+    private static boolean mIsHoming = false;
+    private static boolean mIsReverseSoftLimitOff = false;
+    private static boolean mIsHomed = false;
+    private static boolean mIsFaulted = false;
+    private static double mHomingStartTime = 0.0;
+
+    //Scoring cycle
+    private static final double SCORE_MOVE_TIMEOUT = 3.0;
+    private static final double SCORE_EJECT_TIMEOUT = 1.0;
+    private static final double SCORE_STOW_TIMEOUT = 3.0;
+    /** Time the Loaded photo-eye must hold a new value before it counts, in seconds. */
+    private static final double LOADED_DEBOUNCE_TIME = 0.05;
+    private static final Debouncer dbcLoaded = new Debouncer(LOADED_DEBOUNCE_TIME, DebounceType.kBoth);
+    private static final Timer tmrScore_State = new Timer();
+    private static final Timer tmrScore_Cycle = new Timer();
+    private static ScoreState mScoreState = ScoreState.IDLE;
+    private static Position mScorePosition = Position.BOTTOM;
+    private static boolean mIsLoadedDebounced = false;
+    private static boolean mIsCycleEjected = false;
+    private static boolean mIsCycleAborted = false;
+    private static double mLastCycleTime = Double.NaN;
+    private static double mTotalCycleTime = 0.0;
+    private static int mCycleCount = 0;
+    private static int mAbortCount = 0;
+
+    //Power Buffer Variables, also written by the photo-eye interrupts
+    private static volatile double mElevatorPower = 0.0;
+    private static volatile double mOuttakePower = 0.0;
+
+    private static volatile boolean mIsOutputSuppressed = false;
+
+    //Simulation
+    private static final double SIM_ELEVATOR_GEARING = 9.0;
+    private static final double SIM_ELEVATOR_CARRIAGE_MASS = 6.0;
+    private static final double SIM_ELEVATOR_DRUM_RADIUS = Units.inchesToMeters(1.0);
+    private static final double SIM_PHOTOEYE_RANGE = 0.25;
+    private static final double SIM_OUTTAKE_EJECT_TIME = 0.25;
+    private static ElevatorSim simElevator = null;
+    private static DIOSim simElevator_T = null;
+    private static DIOSim simElevator_B = null;
+    private static DIOSim simLoaded = null;
+    private static double mSimOuttakeTime = 0.0;
+    /** Height last written to the simulated encoder, and the height it was last zeroed at. */
+    private static double mSimElevatorHeight = 0.0;
+    private static double mSimElevatorZero = 0.0;
+    /** Inches the encoder may differ from what was written, from the resolution of the status signal. */
+    private static final double SIM_SYNC_TOLERANCE = 0.01;
 
     /** Unused Constructor. */
     private Manipulator() {}
@@ -85,11 +212,10 @@ public class Manipulator {
                 .withNeutralMode(NeutralModeValue.Brake))
             .withFeedback(new FeedbackConfigs()
                 .withSensorToMechanismRatio(ELEVATOR_GEAR_RATIO * ELEVATOR_SPROCKET_CIRCUMFERENCE))
-            .withSoftwareLimitSwitch(new SoftwareLimitSwitchConfigs()
-                .withForwardSoftLimitThreshold(Position.LEVEL4.getHeight() + 0.25)
-                .withForwardSoftLimitEnable(true)
-                .withReverseSoftLimitThreshold(Position.BOTTOM.getHeight() - 0.25)
-                .withReverseSoftLimitEnable(true)));
+            .withSoftwareLimitSwitch(cfgElevator_SoftLimits));
+
+        Console.logMsg("Configuring Status Signals...");
+        BaseStatusSignal.setUpdateFrequencyForAll(ELEVATOR_SIGNAL_FREQUENCY, sigElevator);
 
         mtrOuttake_L.setInverted(false);
         mtrOuttake_R.setInverted(true);
@@ -97,6 +223,16 @@ public class Manipulator {
         mtrOuttake_L.setNeutralMode(NeutralMode.Coast);
         mtrOuttake_R.setNeutralMode(NeutralMode.Coast);
 
+        Console.logMsg("Configuring Photo-eyes...");
+        fltPhotoEyes.setPeriodNanoSeconds(PHOTOEYE_FILTER_PERIOD);
+        phoElevator_T.configGlitchFilter(fltPhotoEyes);
+        phoElevator_B.configGlitchFilter(fltPhotoEyes);
+        phoLoaded.configGlitchFilter(fltPhotoEyes);
+
+        phoElevator_T.configInterrupt(Manipulator::onElevatorTopEdge);
+        phoElevator_B.configInterrupt(Manipulator::onElevatorBottomEdge);
+        phoLoaded.configInterrupt(Manipulator::onLoadedEdge);
+
         Console.logMsg("Configuring PIDs...");
         pidElevator_Height.setTolerance(0.5);
         pidElevator_Height.configOutputRange(-0.4, 0.5);
@@ -112,21 +248,50 @@ public class Manipulator {
 
     /** Call regularly to syncronize values between the robot and the Dashboard. */
     public static void syncDashboardValues() {
+        //Keep the Elevator signals fresh, even while disabled
+        BaseStatusSignal.refreshAll(sigElevator);
+
         //Push Sensor values
         dshElevator_Height.set(getHeight());
         dshElevator_AtTop.set(isAtTop());
         dshElevator_AtBottom.set(isAtBottom());
         dshLoaded.set(isLoaded());
+        dshElevator_Current.set(getElevatorCurrent());
+        dshElevator_Homed.set(mIsHomed);
+        dshElevator_Faulted.set(mIsFaulted);
+
+        //Push Scoring cycle statistics
+        dshScore_State.set(mScoreState.name());
+        dshScore_LastCycleTime.set(mLastCycleTime);
+        dshScore_MeanCycleTime.set(getMeanCycleTime());
+        dshScore_CycleCount.set((double)mCycleCount);
+        dshScore_AbortCount.set((double)mAbortCount);
 
         //Update PID values
-        pidElevator_Height.setP(dshElevator_Height_P.get());
-        pidElevator_Height.setI(dshElevator_Height_I.get());
-        pidElevator_Height.setD(dshElevator_Height_D.get());
+        pidElevator_Height.setP(dshElevator_Height_P.getDouble(pidElevator_Height.getP()));
+        pidElevator_Height.setI(dshElevator_Height_I.getDouble(pidElevator_Height.getI()));
+        pidElevator_Height.setD(dshElevator_Height_D.getDouble(pidElevator_Height.getD()));
         dshElevator_Height_OnTarget.set(pidElevator_Height.atSetpoint());
+
+        //Push Latency statistics
+        latElevator.publish();
     }
 
+    /** Print the Elevator latency statistics to the Console, then start a new set. */
+    public static void logLatency() {
+        latElevator.logSummary();
+        latElevator.reset();
+    }
+
+    /**
+     * Mark when the input controlling the Elevator last changed, to measure input to motor latency.
+     * @param timestamp FPGA time the input arrived at the robot, in seconds
+     */
+    public static void markElevatorInput(double timestamp) { latElevator.markInput(timestamp); }
+
     /** Disable the whole Subsystem. Stop all motors. */
     public static void disable() {
+        cancelScoring();
         disable_PIDs();
 
         disable_Elevator();
@@ -152,9 +317,24 @@ public class Manipulator {
      * Read the current position of the Elevator.
      * @return Height in inches
      */
-    public static double getHeight() { return mtrElevator.getPosition().getValueAsDouble(); }
+    public static double getHeight() { return sigElevator_Position.getValueAsDouble(); }
+    /**
+     * Read the current speed of the Elevator.
+     * @return Speed in inches per second, positive up
+     */
+    public static double getElevatorVelocity() { return sigElevator_Velocity.getValueAsDouble(); }
+    /**
+     * Read the current through the Elevator motor.
+     * @return Stator current in amps
+     */
+    public static double getElevatorCurrent() { return sigElevator_Current.getValueAsDouble(); }
+    /** Reads true if the Elevator is under PID control and has settled at its target height. */
+    public static boolean isAtHeight() { return pidElevator_Height.isEnabled() && pidElevator_Height.atSetpoint(); }
     /** Set Elevator position back to zero. */
-    public static void resetHeight() { mtrElevator.setPosition(0.0); }
+    public static void resetHeight() {
+        mtrElevator.setPosition(0.0);
+        mSimElevatorZero = mSimElevatorHeight;
+    }
 
     /** Reads true if the Elevator is fully raised. */
     public static boolean isAtTop() { return phoElevator_T.get(); }
@@ -168,7 +348,9 @@ public class Manipulator {
      * @param power Percent Output power to be applied
      */
     public static void setElevatorPower(double power) {
+        if(mIsHoming) endHoming();
         mElevatorPower = power;
+        if(!mIsOutputSuppressed) latElevator.markCommand();
     }
 
     /** Lower the Elevator with a predetermined power value. */
@@ -181,6 +363,7 @@ public class Manipulator {
      * @param height Target height the Elevator will move to
      */
     public static void goToHeight(double height) {
+        if(mIsHoming) endHoming();
         pidElevator_Height.enable();
         pidElevator_Height.setSetpoint(height);
     }
@@ -201,13 +384,322 @@ public class Manipulator {
     /** Reverse the Outtake with a predetermined power value. */
     public static void reverse_Outtake() { setOuttakePower(-1.0); }
 
+    /**
+     * Find the bottom of the Elevator and zero its height there.
+     * <p>The Elevator is lowered slowly until the bottom photo-eye sees it, or the motor current rises with the Elevator
+     * stopped, meaning it is resting on the hard stop. Clears a stall fault once homed.</p>
+     * <p><i>Runs from {@link #periodic()}. Any other Elevator command cancels it.</i></p>
+     */
+    public static void home() {
+        cancelScoring();
+        disable_ElevatorPID();
+        mIsHoming = true;
+        mHomingStartTime = Timer.getFPGATimestamp();
+        dbcElevator_HardStop.calculate(false);
+
+        //The stored zero may be wrong, so the reverse soft limit could stop the Elevator short of the bottom
+        if(!mIsOutputSuppressed) setReverseSoftLimitEnabled(false);
+        Console.logMsg("Homing Elevator...");
+    }
+
+    /** Stop homing, restoring the reverse soft limit if it was turned off. */
+    private static void endHoming() {
+        mIsHoming = false;
+        if(mIsReverseSoftLimitOff) setReverseSoftLimitEnabled(true);
+    }
+
+    /**
+     * Turn the Elevator's reverse soft limit on or off.
+     * <p><i>Blocks while the configuration is sent, so only call when homing starts and ends.</i></p>
+     */
+    private static void setReverseSoftLimitEnabled(boolean enabled) {
+        mIsReverseSoftLimitOff = !enabled;
+        mtrElevator.getConfigurator().apply(cfgElevator_SoftLimits.withReverseSoftLimitEnable(enabled));
+    }
+
+    /** True while the Elevator is homing. */
+    public static boolean isHoming() { return mIsHoming; }
+    /** True once the Elevator has been homed since startup. */
+    public static boolean isHomed() { return mIsHomed; }
+    /** True if the Elevator has stalled, and power is cut until it is homed. */
+    public static boolean isFaulted() { return mIsFaulted; }
+
+    /** True if the Elevator motor is drawing current without moving. */
+    private static boolean isElevatorStopped(double current) {
+        return getElevatorCurrent() >= current && Math.abs(getElevatorVelocity()) <= STOPPED_VELOCITY;
+    }
+
+    /** Lower the Elevator until it reaches the bottom, then zero the height. */
+    private static void updateHoming() {
+        boolean isHardStop = dbcElevator_HardStop.calculate(isElevatorStopped(HOMING_CURRENT));
+        if(isAtBottom() || isHardStop) {
+            mElevatorPower = 0.0;
+
+            //Nothing has actually moved while suppressed, so the Elevator is not really homed
+            if(mIsOutputSuppressed) {
+                endHoming();
+                return;
+            }
+
+            resetHeight();
+            endHoming();
+            mIsHomed = true;
+            mIsFaulted = false;
+            altElevator_Stall.set(false);
+            Console.logMsg("Elevator homed on the " + (isAtBottom() ? "photo-eye." : "hard stop."));
+        } else if(Timer.getFPGATimestamp() - mHomingStartTime >= HOMING_TIMEOUT) {
+            endHoming();
+            mElevatorPower = 0.0;
+            Console.logErr("Elevator homing timed out!");
+        } else {
+            mElevatorPower = HOMING_POWER;
+        }
+    }
+
+    /** Cut power to the Elevator if it has been pushing without moving. */
+    private static void updateStallDetection() {
+        boolean isPushing = Math.abs(mElevatorPower) >= STALL_MIN_POWER && !mIsHoming && !mIsOutputSuppressed;
+        if(!dbcElevator_Stall.calculate(isPushing && isElevatorStopped(STALL_CURRENT)) || mIsFaulted) return;
+
+        mIsFaulted = true;
+        altElevator_Stall.set(true);
+        Console.logErr("Elevator stalled at " + String.format("%.1f", getHeight()) + " inches! Cutting power until homed.");
+        cancelScoring();
+        disable_ElevatorPID();
+    }
+
+    /**
+     * Run a whole scoring cycle: raise the Elevator, eject the Coral once settled, then lower the Elevator.
+     * <p><i>Runs from {@link #periodic()}. Replaces any cycle already running. Refused if there is no Coral loaded.</i></p>
+     * @param position Height to score at
+     */
+    public static void score(Position position) {
+        if(!isLoaded()) {
+            Console.logErr("No Coral loaded! Not scoring at " + position.name() + ".");
+            return;
+        }
+
+        mScorePosition = position;
+        mIsCycleEjected = false;
+        mIsCycleAborted = false;
+        tmrScore_Cycle.restart();
+        setScoreState(ScoreState.MOVING);
+        goToPosition(position);
+        Console.logMsg("Scoring at " + position.name() + "...");
+    }
+
+    /** Stop a scoring cycle where it is, leaving the Elevator and Outtake stopped. Does nothing if not scoring. */
+    public static void cancelScoring() {
+        if(mScoreState == ScoreState.IDLE) return;
+        Console.logMsg("Scoring cycle cancelled during " + mScoreState.name() + ".");
+        abortCycle();
+        setScoreState(ScoreState.IDLE);
+        disable_Outtake();
+        disable_Elevator();
+    }
+
+    /** Current step of the scoring cycle. */
+    public static ScoreState getScoreState() { return mScoreState; }
+    /** True if a scoring cycle is running. */
+    public static boolean isScoring() { return mScoreState != ScoreState.IDLE; }
+    /** Time the last completed scoring cycle took, in seconds, or NaN if none has completed. */
+    public static double getLastCycleTime() { return mLastCycleTime; }
+    /** Average time of every completed scoring cycle, in seconds, or NaN if none have completed. */
+    public static double getMeanCycleTime() { return mCycleCount == 0 ? Double.NaN : mTotalCycleTime / mCycleCount; }
+    /** Number of completed scoring cycles. */
+    public static int getCycleCount() { return mCycleCount; }
+    /** Number of scoring cycles cancelled or timed out. */
+    public static int getAbortCount() { return mAbortCount; }
+
+    /** Print the scoring cycle statistics to the Console, then start a new set. */
+    public static void logScoringSummary() {
+        Console.logMsg("Scoring cycles: " + mCycleCount + " completed, " + mAbortCount + " aborted, mean " + String.format("%.2f", getMeanCycleTime()) + "s");
+        mLastCycleTime = Double.NaN;
+        mTotalCycleTime = 0.0;
+        mCycleCount = 0;
+        mAbortCount = 0;
+    }
+
+    private static void setScoreState(ScoreState state) {
+        mScoreState = state;
+        tmrScore_State.restart();
+    }
+
+    /** Move the scoring cycle along by the Elevator height, the debounced Loaded photo-eye, and timeouts. */
+    private static void updateScoring() {
+        mIsLoadedDebounced = dbcLoaded.calculate(isLoaded());
+
+        switch(mScoreState) {
+            case IDLE:
+                break;
+
+            case MOVING:
+                if(isAtHeight()) {
+                    setScoreState(ScoreState.SETTLED);
+                } else if(tmrScore_State.hasElapsed(SCORE_MOVE_TIMEOUT)) {
+                    Console.logErr("Elevator did not reach " + mScorePosition.name() + "! Stowing...");
+                    abortCycle();
+                    stow();
+                }
+                break;
+
+            case SETTLED:
+                setScoreState(ScoreState.EJECTING);
+                enable_Outtake();
+                break;
+
+            case EJECTING:
+                if(!mIsLoadedDebounced) {
+                    mIsCycleEjected = true;
+                    stow();
+                } else if(tmrScore_State.hasElapsed(SCORE_EJECT_TIMEOUT)) {
+                    Console.logErr("Coral did not leave the Manipulator! Stowing...");
+                    abortCycle();
+                    stow();
+                }
+                break;
+
+            case STOWING:
+                boolean isStowed = isAtBottom() || isAtHeight();
+                if(isStowed || tmrScore_State.hasElapsed(SCORE_STOW_TIMEOUT)) {
+                    setScoreState(ScoreState.IDLE);
+                    disable_Elevator();
+                    if(!isStowed) {
+                        Console.logErr("Elevator did not return to the bottom!");
+                        abortCycle();
+                    } else if(mIsCycleEjected && !mIsCycleAborted && !mIsOutputSuppressed) {
+                        mLastCycleTime = tmrScore_Cycle.get();
+                        mTotalCycleTime += mLastCycleTime;
+                        mCycleCount++;
+                        Console.logMsg("Scored at " + mScorePosition.name() + " in " + String.format("%.2f", mLastCycleTime) + "s");
+                    }
+                }
+                break;
+        }
+    }
+
+    /** Count the current scoring cycle as aborted, only once however many steps of it fail. Dry runs are not counted. */
+    private static void abortCycle() {
+        if(mIsCycleAborted || mIsOutputSuppressed) return;
+        mIsCycleAborted = true;
+        mAbortCount++;
+    }
+
+    /** Stop the Outtake and lower the Elevator to end a scoring cycle. */
+    private static void stow() {
+        setScoreState(ScoreState.STOWING);
+        disable_Outtake();
+        goToPosition(Position.BOTTOM);
+    }
+
+    /**
+     * Stop or resume applying power to the motors, so the control code can be exercised while disabled.
+     * <p><i>While suppressed, everything is calculated as usual, but the motors and encoders are not written to.</i></p>
+     * @param suppressed True to keep the motors from being set
+     */
+    public static void setOutputSuppressed(boolean suppressed) { mIsOutputSuppressed = suppressed; }
+
+    /** 
+     * Stop raising the Elevator the moment it reaches the top, rather than at the next loop.
+     * <p><i>Runs on the interrupt thread. The next loop clamps the power as usual.</i></p>
+     */
+    private static void onElevatorTopEdge(boolean isRising, double timestamp) {
+        if(!isRising || mElevatorPower <= 0.0) return;
+        mElevatorPower = 0.0;
+        if(!mIsOutputSuppressed) mtrElevator.set(0.0);
+    }
+
+    /** 
+     * Stop lowering the Elevator the moment it reaches the bottom, rather than at the next loop.
+     * <p><i>Runs on the interrupt thread. The next loop clamps the power and resets the height as usual.</i></p>
+     */
+    private static void onElevatorBottomEdge(boolean isRising, double timestamp) {
+        if(!isRising || mElevatorPower >= 0.0) return;
+        mElevatorPower = 0.0;
+        if(!mIsOutputSuppressed) mtrElevator.set(0.0);
+    }
+
+    /** 
+     * Stop the Outtake the moment the Coral has left, rather than at the next loop.
+     * <p><i>Runs on the interrupt thread. The Outtake stays off until it is turned on again.</i></p>
+     */
+    private static void onLoadedEdge(boolean isRising, double timestamp) {
+        if(isRising || mOuttakePower <= 0.0) return;
+        mOuttakePower = 0.0;
+        if(!mIsOutputSuppressed) mtrOuttake_L.set(ControlMode.PercentOutput, 0.0);
+    }
+
+    /** FPGA time the last Coral left the Manipulator, in seconds, or NaN if none has. */
+    public static double getUnloadedTimestamp() { return phoLoaded.getFallingTimestamp(); }
+
+    /** Call once at startup, in simulation only, to create the physics model of the Elevator and photo-eyes. */
+    public static void initSimulation() {
+        double maxHeight = Units.inchesToMeters(Position.LEVEL4.getHeight() + 1.0);
+        simElevator = new ElevatorSim(DCMotor.getKrakenX60(1), SIM_ELEVATOR_GEARING, SIM_ELEVATOR_CARRIAGE_MASS, SIM_ELEVATOR_DRUM_RADIUS, 0.0, maxHeight, true, 0.0);
+        simElevator_T = new DIOSim(phoElevator_T);
+        simElevator_B = new DIOSim(phoElevator_B);
+        simLoaded = new DIOSim(phoLoaded);
+
+        mtrElevator.getSimState().Orientation = ChassisReference.Clockwise_Positive;
+
+        //Start each match with a preloaded Coral
+        simLoaded.setValue(true);
+        mSimOuttakeTime = 0.0;
+    }
+
+    /**
+     * Call periodically, in simulation only, to move the physics model by the voltage the motors are applying
+     * and feed the result back to the encoder and photo-eyes.
+     * <p><i>The Coral is ejected once the Outtake has run forward long enough.</i></p>
+     * @param period Time to simulate, in seconds
+     */
+    public static void simulationPeriodic(double period) {
+        TalonFXSimState simElevatorMotor = mtrElevator.getSimState();
+        simElevatorMotor.setSupplyVoltage(RobotController.getBatteryVoltage());
+
+        simElevator.setInputVoltage(SimConfig.applyFriction(simElevatorMotor.getMotorVoltage()));
+        simElevator.update(period);
+
+        double height = Units.metersToInches(simElevator.getPositionMeters());
+        mSimElevatorHeight = height;
+        double rotationsPerInch = ELEVATOR_GEAR_RATIO * ELEVATOR_SPROCKET_CIRCUMFERENCE;
+        simElevatorMotor.setRawRotorPosition(height * rotationsPerInch);
+        simElevatorMotor.setRotorVelocity(Units.metersToInches(simElevator.getVelocityMetersPerSecond()) * rotationsPerInch);
+
+        simElevator_T.setValue(height >= Position.LEVEL4.getHeight() + 1.0 - SIM_PHOTOEYE_RANGE);
+        simElevator_B.setValue(height <= SIM_PHOTOEYE_RANGE);
+
+        if(mOuttakePower > 0.5 && !mIsOutputSuppressed) {
+            mSimOuttakeTime += period;
+            if(mSimOuttakeTime >= SIM_OUTTAKE_EJECT_TIME) simLoaded.setValue(false);
+        }
+    }
+
+    /** 
+     * True if the Elevator encoder reports what the physics model last wrote to it, less where it was last zeroed.
+     * <p><i>Phoenix publishes simulated status signals on its own real-time clock, so they fall behind when simulated time 
+     * is stepped faster than real time. Call from the thread stepping time, while the robot loop is waiting.</i></p>
+     */
+    public static boolean isSimSynced() {
+        BaseStatusSignal.refreshAll(sigElevator);
+        return Math.abs(getHeight() - (mSimElevatorHeight - mSimElevatorZero)) <= SIM_SYNC_TOLERANCE;
+    }
+
+    /** Current drawn by the simulated Elevator, in amps. */
+    public static double getSimCurrentDraw() { return simElevator == null ? 0.0 : simElevator.getCurrentDrawAmps(); }
+
     /** Call periodicallly to calculate PIDs, ensure safety measures, and apply power to the motors. */
     public static void periodic() {
+        BaseStatusSignal.refreshAll(sigElevator);
+        updateScoring();
+
         //Calculate PID Controller input
         if(pidElevator_Height.isEnabled()) {
             mElevatorPower = pidElevator_Height.calculate(getHeight());
         }
 
+        if(mIsHoming) updateHoming();
+
         //Safety Measures
         if(isAtTop()) {
             mElevatorPower = MathUtil.clamp(mElevatorPower, -1.0, 0.0);
@@ -215,11 +707,17 @@ public class Manipulator {
 
         if(isAtBottom()) {
             mElevatorPower = MathUtil.clamp(mElevatorPower, 0.0, 1.0);
-            resetHeight();
+            if(!mIsOutputSuppressed) resetHeight();
         }
 
+        updateStallDetection();
+        if(mIsFaulted && !mIsHoming) mElevatorPower = 0.0;
+
+        if(mIsOutputSuppressed) return;
+
         //Apply power to motors
         mtrElevator.set(mElevatorPower);
+        latElevator.markActuation();
         mtrOuttake_L.set(ControlMode.PercentOutput, mOuttakePower);
     }
 }
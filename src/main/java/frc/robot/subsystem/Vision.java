@@ -0,0 +1,241 @@
+package frc.robot.subsystem;
+
+import java.util.Arrays;
+
+import edu.wpi.first.apriltag.AprilTag;
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.apriltag.AprilTagFields;
+import edu.wpi.first.cscore.VideoSource;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.wpilibj.Timer;
+import frc.molib.Console;
+import frc.molib.Limelight;
+import frc.molib.camera.AprilTagProcessor;
+import frc.molib.camera.AprilTagResult;
+import frc.molib.camera.AprilTagThread;
+import frc.molib.dashboard.DashboardValue;
+import frc.robot.Robot;
+
+/** 
+ * The Vision Subsystem. Corrects the Chassis field pose with AprilTag poses from the Limelight cameras.
+ * <p>If the front Limelight stops sending frames, AprilTags are found in the Driver Camera instead, on a background thread.</p>
+ */
+public class Vision {
+    //Network Tables
+    private static final NetworkTable tblVision = Robot.tblSubsystems.getSubTable("Vision");
+
+    //Dashboard Objects
+    private static final DashboardValue<Boolean> dshEnabled = new DashboardValue<Boolean>(tblVision, "Enabled");
+    private static final DashboardValue<Double> dshAccepted = new DashboardValue<Double>(tblVision, "Accepted");
+    private static final DashboardValue<Double> dshRejected = new DashboardValue<Double>(tblVision, "Rejected");
+    private static final DashboardValue<Boolean> dshFallback = new DashboardValue<Boolean>(tblVision, "Fallback Active");
+
+    //Cameras
+    private static final Limelight limFront = new Limelight(Limelight.DEFAULT_NAME);
+    private static final Limelight[] CAMERAS = { limFront };
+
+    //Constants
+    private static final double MAX_TAG_DISTANCE = 5.0;
+
+    /** Position confidence of a single tag seen from one meter away, in meters. */
+    private static final double BASE_STD_DEV_XY = 0.3;
+    /** Heading confidence of multiple tags seen from one meter away, in radians. */
+    private static final double BASE_STD_DEV_HEADING = 0.5;
+
+    //Fallback AprilTag detection on the Driver Camera
+    private static final String FALLBACK_TAG_FAMILY = "tag36h11";
+    private static final double FALLBACK_TAG_SIZE = 0.1651;
+    /** Driver Camera intrinsics at 160x120, roughly a 60 degree field of view. */
+    private static final int FALLBACK_REFERENCE_WIDTH = 160;
+    private static final int FALLBACK_REFERENCE_HEIGHT = 120;
+    private static final double FALLBACK_FOCAL_LENGTH = 139.0;
+    private static final double FALLBACK_CENTER_X = 80.0;
+    private static final double FALLBACK_CENTER_Y = 60.0;
+    /** Driver Camera mounting: meters forward and left of the robot's center, and radians counter-clockwise from forward. */
+    private static final double FALLBACK_CAMERA_X = 0.3;
+    private static final double FALLBACK_CAMERA_Y = 0.0;
+    private static final double FALLBACK_CAMERA_YAW = 0.0;
+    /** How much less the Driver Camera is trusted than the Limelight. */
+    private static final double FALLBACK_STD_DEV_SCALE = 2.0;
+    /** Time without a Limelight frame before falling back, in seconds. */
+    private static final double LIMELIGHT_TIMEOUT = 1.0;
+
+    private static AprilTagThread thdFallback = null;
+    private static double[] mTagX = new double[0];
+    private static double[] mTagY = new double[0];
+    private static final double[] mSamplePose = new double[3];
+
+    /** Oldest target image the Chassis will still align to, in seconds. */
+    private static final double MAX_ALIGN_TARGET_AGE = 0.5;
+
+    private static boolean mIsEnabled = true;
+
+    //Alignment
+    private static boolean mIsAligning = false;
+    private static double mAlignTimestamp = Double.NaN;
+
+    /** Unused Constructor. */
+    private Vision() {}
+
+    /** 
+     * Call once at robot startup.
+     * @param fallbackCamera Camera to find AprilTags in if the Limelight is unavailable
+     */
+    public static void init(VideoSource fallbackCamera) {
+        Console.printHeader("Initializing Vision");
+
+        Console.logMsg("Loading AprilTag field layout...");
+        AprilTagFieldLayout layout = AprilTagFieldLayout.loadField(AprilTagFields.kDefaultField);
+        int maxID = 0;
+        for(AprilTag tag : layout.getTags()) maxID = Math.max(maxID, tag.ID);
+        mTagX = new double[maxID + 1];
+        mTagY = new double[maxID + 1];
+        Arrays.fill(mTagX, Double.NaN);
+        Arrays.fill(mTagY, Double.NaN);
+        for(AprilTag tag : layout.getTags()) {
+            mTagX[tag.ID] = tag.pose.getX();
+            mTagY[tag.ID] = tag.pose.getY();
+        }
+
+        Console.logMsg("Starting fallback AprilTag thread...");
+        AprilTagProcessor processor = new AprilTagProcessor(FALLBACK_TAG_FAMILY, FALLBACK_TAG_SIZE, FALLBACK_REFERENCE_WIDTH, FALLBACK_REFERENCE_HEIGHT, 
+            FALLBACK_FOCAL_LENGTH, FALLBACK_FOCAL_LENGTH, FALLBACK_CENTER_X, FALLBACK_CENTER_Y);
+        processor.configMounting(FALLBACK_CAMERA_X, FALLBACK_CAMERA_Y, FALLBACK_CAMERA_YAW);
+        thdFallback = new AprilTagThread(fallbackCamera, processor);
+
+        Console.logMsg("Initializing Dashboard values...");
+        dshEnabled.set(mIsEnabled);
+
+        Console.logMsg("Vision Initialization Complete!");
+    }
+
+    /** Call regularly to syncronize values between the robot and the Dashboard. */
+    public static void syncDashboardValues() {
+        mIsEnabled = dshEnabled.getBoolean(mIsEnabled);
+        dshAccepted.set((double)Chassis.getVisionAcceptedCount());
+        dshRejected.set((double)Chassis.getVisionRejectedCount());
+        dshFallback.set(thdFallback.isEnabled());
+    }
+
+    /**
+     * Call once per loop, before the Control Period updates the Chassis, to read every camera, feed new Limelight poses into the
+     * Chassis odometry, and send any new alignment setpoint.
+     * <p>Every pose received since the last loop is used, oldest first.</p>
+     */
+    public static void periodic() {
+        for(Limelight camera : CAMERAS) {
+            //Always read, so stale frames are not used once re-enabled
+            camera.update();
+            if(!mIsEnabled) continue;
+            for(int index = 0; index < camera.getBotPoseCount(); index++) addBotPose(camera.getBotPose(index));
+        }
+
+        updateFallback();
+        if(mIsAligning) updateAlign();
+    }
+
+    /** 
+     * Find AprilTags in the Driver Camera while the Limelight is lost, and feed them into the Chassis odometry.
+     * <p>Each tag gives a position from where it was seen relative to the robot, using the odometry heading at the time.
+     * Only used once the field pose is known, since the heading must already be right.</p>
+     * <p><i>A Limelight that has never sent a frame is not counted as lost, so the Driver Camera is not held open
+     * on a robot, or a simulation, without one.</i></p>
+     */
+    private static void updateFallback() {
+        boolean isNeeded = mIsEnabled && isLimelightLost();
+        if(isNeeded != thdFallback.isEnabled()) {
+            if(isNeeded) Console.logErr("Limelight unavailable! Falling back to the Driver Camera for AprilTags.");
+            else Console.logMsg("Limelight available. Stopping fallback AprilTag detection.");
+            thdFallback.setEnabled(isNeeded);
+        }
+        if(!isNeeded || !thdFallback.update() || !Chassis.isPoseKnown()) return;
+
+        AprilTagResult result = thdFallback.getResult();
+        double timestamp = result.getTimestamp();
+        if(!Chassis.samplePose(timestamp, mSamplePose)) return;
+        double cos = Math.cos(mSamplePose[2]);
+        double sin = Math.sin(mSamplePose[2]);
+
+        for(int index = 0; index < result.getCount(); index++) {
+            int id = result.getID(index);
+            double distance = result.getDistance(index);
+            if(id < 0 || id >= mTagX.length || Double.isNaN(mTagX[id]) || distance > MAX_TAG_DISTANCE) continue;
+
+            //The robot is wherever puts the tag at the position it was seen
+            double robotX = result.getRobotX(index);
+            double robotY = result.getRobotY(index);
+            double poseX = mTagX[id] - (robotX * cos - robotY * sin);
+            double poseY = mTagY[id] - (robotX * sin + robotY * cos);
+            if(poseX < 0.0 || poseX > Chassis.FIELD_LENGTH || poseY < 0.0 || poseY > Chassis.FIELD_WIDTH) continue;
+
+            double stdDevXY = BASE_STD_DEV_XY * FALLBACK_STD_DEV_SCALE * Math.max(1.0, distance * distance);
+            Chassis.addVisionMeasurement(poseX, poseY, mSamplePose[2], timestamp, stdDevXY, Double.POSITIVE_INFINITY);
+        }
+    }
+
+    /** True if the front camera sees a target. */
+    public static boolean hasTarget() { return limFront.hasTarget(); }
+
+    /**
+     * Start turning the Chassis to face the target seen by the front camera.
+     * <p>Each new image is turned into an absolute Chassis angle, using where the Chassis was facing when the image was captured.
+     * The Drive Angle PID then turns to that angle in one move, rather than chasing an offset that is already out of date.</p>
+     * <p><i>Does nothing if already aligning, so each image is still only used once.</i></p>
+     */
+    public static void enable_Align() {
+        if(mIsAligning) return;
+        mIsAligning = true;
+        mAlignTimestamp = Double.NaN;
+    }
+
+    /** Stop aligning the Chassis. Disables the Drive Angle PID if it was aligning. */
+    public static void disable_Align() {
+        if(mIsAligning) Chassis.disable_DriveAnglePID();
+        mIsAligning = false;
+    }
+
+    /**
+     * Determine if the Chassis is facing the target.
+     * @return True if a target has been seen since aligning began, and the Chassis has reached the angle it gave
+     */
+    public static boolean isAligned() { return mIsAligning && !Double.isNaN(mAlignTimestamp) && Chassis.isAtAngle(); }
+
+    /** True if the Limelight was sending frames, but has stopped. A robot without one running is not counted as losing it. */
+    public static boolean isLimelightLost() { return limFront.wasSeen() && !limFront.isAlive(LIMELIGHT_TIMEOUT); }
+
+    /** True if AprilTags are being found in the Driver Camera because the Limelight is unavailable. */
+    public static boolean isFallbackActive() { return thdFallback != null && thdFallback.isEnabled(); }
+
+    /** Send the Chassis to the angle of the newest target image, if there is one it has not already used. */
+    private static void updateAlign() {
+        double timestamp = limFront.getTargetTimestamp();
+        if(!limFront.hasTarget() || timestamp == mAlignTimestamp || Timer.getFPGATimestamp() - timestamp > MAX_ALIGN_TARGET_AGE) return;
+
+        //Target offset is clockwise positive, the same as the Chassis angle
+        double angle = Chassis.getAngleAt(timestamp);
+        if(Double.isNaN(angle)) return;
+        mAlignTimestamp = timestamp;
+        Chassis.goToAngle(angle + limFront.getPosX());
+    }
+
+    /**
+     * Feed a single Limelight pose into the Chassis odometry.
+     * <p>Poses are weighted by how many tags were seen and how far away they were.
+     * Poses that are off the field or too far away are ignored.</p>
+     */
+    private static void addBotPose(Limelight.BotPose botPose) {
+        double poseX = botPose.getX();
+        double poseY = botPose.getY();
+        double distance = botPose.getAverageDistance();
+        int tagCount = botPose.getTagCount();
+
+        if(poseX < 0.0 || poseX > Chassis.FIELD_LENGTH || poseY < 0.0 || poseY > Chassis.FIELD_WIDTH || distance > MAX_TAG_DISTANCE) return;
+
+        //Confidence falls off with the square of distance, and improves with more tags
+        double distanceFactor = Math.max(1.0, distance * distance) / tagCount;
+        double stdDevXY = BASE_STD_DEV_XY * distanceFactor;
+        double stdDevHeading = tagCount > 1 ? BASE_STD_DEV_HEADING * distanceFactor : Double.POSITIVE_INFINITY;
+
+        Chassis.addVisionMeasurement(poseX, poseY, Math.toRadians(botPose.getYaw()), botPose.getTimestamp(), stdDevXY, stdDevHeading);
+    }
+}
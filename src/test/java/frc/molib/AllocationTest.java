@@ -0,0 +1,73 @@
+package frc.molib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+import edu.wpi.first.networktables.NetworkTableInstance;
+import frc.molib.dashboard.DashboardValue;
+
+/**
+ * Checks that the calls made every loop by the robot code do not allocate once warmed up.
+ * <p>Each call is run enough times for the JIT to compile it first, then the bytes allocated by this thread
+ * are measured over a further run.</p>
+ */
+public class AllocationTest {
+    /** Calls made before measuring, so the measured calls are compiled. */
+    private static final int WARMUP_CALLS = 20000;
+    /** Calls measured. */
+    private static final int MEASURE_CALLS = 10000;
+
+    private static NetworkTableInstance mInstance;
+    private static ThreadMXBean mThreadBean;
+
+    @BeforeAll static void setup() {
+        java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean instanceof ThreadMXBean, "Allocation measurement is not supported on this JVM!");
+        mThreadBean = (ThreadMXBean)threadBean;
+        assumeTrue(mThreadBean.isThreadAllocatedMemorySupported(), "Allocation measurement is not supported on this JVM!");
+        mThreadBean.setThreadAllocatedMemoryEnabled(true);
+
+        mInstance = NetworkTableInstance.create();
+    }
+
+    @AfterAll static void cleanup() {
+        if(mInstance != null) mInstance.close();
+    }
+
+    @Test void dashboardDoubleDoesNotAllocate() {
+        DashboardValue<Double> dshValue = new DashboardValue<Double>(mInstance.getTable("Test"), "Value");
+        assertNoAllocation("DashboardValue.set(double)", (index) -> dshValue.set((double)index));
+    }
+
+    @Test void mutedConsoleDoesNotAllocate() {
+        Console.setMuted(true);
+        try {
+            assertNoAllocation("Console.logMsg while muted", (index) -> Console.logMsg("Muted message"));
+        } finally {
+            Console.setMuted(false);
+        }
+    }
+
+    /** Call under test, given the index of the call. */
+    private interface Call { void run(int index); }
+
+    /** Warm the call up, then check that calling it again allocates nothing. */
+    private static void assertNoAllocation(String name, Call call) {
+        for(int index = 0; index < WARMUP_CALLS; index++) call.run(index);
+
+        long threadId = Thread.currentThread().getId();
+        long startBytes = mThreadBean.getThreadAllocatedBytes(threadId);
+        for(int index = 0; index < MEASURE_CALLS; index++) call.run(index);
+        long allocatedBytes = mThreadBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+        assertEquals(0, allocatedBytes, name + " allocated " + allocatedBytes + " bytes over " + MEASURE_CALLS + " calls!");
+    }
+}
@@ -0,0 +1,110 @@
+package frc.robot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.molib.LoopMonitor;
+import frc.robot.period.Autonomous;
+import frc.robot.sim.MatchHarness;
+import frc.robot.subsystem.Chassis;
+
+/**
+ * Checks that the robot loop stays within its allocation and timing budget in Autonomous and Teleoperated.
+ * <p>The robot is run on the simulated HAL with time paused, and the main loop is stepped by hand, so every
+ * Control Period, robotPeriodic and simulationPeriodic runs exactly as it would on the robot. The first loops
+ * of each period are skipped, then the steady state is measured by the robot's own Loop Monitor. After each loop the test
+ * waits for the Phoenix devices to catch up, as the {@link MatchHarness} does, and fails if they do not.</p>
+ * <p>Budgets can be changed with <i>./gradlew test -PloopBudget=256 -PloopTimeBudget=5.0</i>.</p>
+ */
+public class LoopBudgetTest {
+    private static final double STEP_TIME = Robot.kDefaultPeriod;
+    private static final int ODOMETRY_STEPS = (int)Math.round(STEP_TIME / Chassis.ODOMETRY_PERIOD);
+
+    /** Loops at the start of each period before the loop is expected to settle. */
+    private static final int SETTLE_LOOPS = 50;
+    /** Loops measured against the budget. */
+    private static final int MEASURE_LOOPS = 500;
+
+    /** Average bytes each loop may allocate. */
+    private static final double BYTE_BUDGET = Double.parseDouble(System.getProperty("loopBudget", "256"));
+    /** Median milliseconds each loop may take. */
+    private static final double TIME_BUDGET = Double.parseDouble(System.getProperty("loopTimeBudget", "5.0"));
+
+    private static Robot mRobot;
+
+    @BeforeAll static void startRobot() {
+        assertTrue(HAL.initialize(500, 0), "HAL failed to initialize!");
+        SimHooks.pauseTiming();
+
+        DriverStationSim.setDsAttached(true);
+        DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
+        setMode(false, false);
+
+        mRobot = new Robot();
+        mRobot.robotInit();
+        mRobot.simulationInit();
+        Autonomous.select("Leave Zone", "Center", "-No Delay-");
+        step(SETTLE_LOOPS);
+    }
+
+    @AfterAll static void stopRobot() {
+        setMode(false, false);
+        step(1);
+        SimHooks.resumeTiming();
+    }
+
+    @Test void autonomousWithinBudget() {
+        setMode(true, true);
+        checkLoopBudget("Autonomous");
+        setMode(true, false);
+        step(SETTLE_LOOPS);
+    }
+
+    @Test void teleoperatedWithinBudget() {
+        setMode(false, true);
+        checkLoopBudget("Teleoperated");
+        setMode(false, false);
+        step(SETTLE_LOOPS);
+    }
+
+    /** Let the period settle, then measure its steady state against the budget. */
+    private static void checkLoopBudget(String period) {
+        step(SETTLE_LOOPS);
+        LoopMonitor monLoop = Robot.getLoopMonitor();
+        monLoop.reset();
+        step(MEASURE_LOOPS);
+
+        double meanBytes = monLoop.getMeanLoopBytes();
+        double medianTime = monLoop.getLoopTimePercentile(0.5);
+        assertEquals(MEASURE_LOOPS, monLoop.getLoopCount(), period + " did not run every loop!");
+        assertTrue(meanBytes <= BYTE_BUDGET, period + " loop allocated " + meanBytes + " bytes on average, over the budget of " + BYTE_BUDGET + "!");
+        assertTrue(medianTime <= TIME_BUDGET, period + " loop took " + medianTime + "ms at the median, over the budget of " + TIME_BUDGET + "ms!");
+    }
+
+    /** Change the simulated Driver Station mode and let the robot see it. */
+    private static void setMode(boolean isAutonomous, boolean isEnabled) {
+        DriverStationSim.setAutonomous(isAutonomous);
+        DriverStationSim.setEnabled(isEnabled);
+        DriverStationSim.notifyNewData();
+    }
+
+    /** Step robot time and run the main loop, with odometry updated between loops as the robot's own scheduler would. */
+    private static void step(int loops) {
+        for(int loop = 0; loop < loops; loop++) {
+            for(int update = 0; update < ODOMETRY_STEPS; update++) {
+                SimHooks.stepTiming(Chassis.ODOMETRY_PERIOD);
+                Chassis.updateOdometry();
+            }
+            mRobot.loopFunc();
+            MatchHarness.syncDevices();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package frc.robot.period;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.DifferentialDrivetrainSim;
+import frc.robot.subsystem.Chassis;
+
+/**
+ * Compares how quickly the Chassis stops turning once the steering is released, with Cheezy drive and with Arcade drive.
+ * <p>Both go through Teleoperated's own input shaping with the default Dashboard options, and drive the Chassis physics model through the same maneuver: driving forward while steering, then releasing
+ * the steering. The turn has settled once the turn rate stays within a small fraction of what it was while steering.</p>
+ */
+public class CurvatureDriveTest {
+    private static final double STEP_TIME = 0.02;
+    private static final double THROTTLE = 0.6;
+    private static final double STEERING = 0.5;
+    private static final double STEERING_TIME = 1.0;
+    private static final double RELEASE_TIME = 3.0;
+    /** Fraction of the steady turn rate within which the turn has settled. */
+    private static final double SETTLED_FRACTION = 0.05;
+
+    /** Power to each side of the Chassis for the given inputs. */
+    private interface DriveMapping { void calculate(double throttle, double steering, double[] output); }
+
+    @BeforeAll static void startHAL() {
+        assertTrue(HAL.initialize(500, 0), "HAL failed to initialize!");
+    }
+
+    @Test void cheezySettlesFasterThanArcade() {
+        double arcadeTime = getSettlingTime((throttle, steering, output) -> Teleoperated.calculateArcadeDrive(throttle, steering, 1.0, output));
+        double cheezyTime = getSettlingTime((throttle, steering, output) -> Teleoperated.calculateCheezyDrive(throttle, steering, false, 1.0, output));
+
+        assertTrue(arcadeTime < RELEASE_TIME, "Arcade drive never settled!");
+        assertTrue(cheezyTime < arcadeTime, "Cheezy drive settled in " + cheezyTime + "s, not faster than Arcade drive in " + arcadeTime + "s!");
+    }
+
+    /**
+     * Drive forward while steering, then release the steering.
+     * @param mapping Drive mapping under test
+     * @return Seconds from releasing the steering until the turn settled, or the release time if it never did
+     */
+    private static double getSettlingTime(DriveMapping mapping) {
+        DifferentialDrivetrainSim simDrive = Chassis.createDriveSim();
+        Teleoperated.configDriveShapers();
+        double[] power = new double[2];
+        double batteryVoltage = RobotController.getBatteryVoltage();
+
+        //Steer until the turn rate is steady
+        double steadyRate = 0.0;
+        for(double time = 0.0; time < STEERING_TIME; time += STEP_TIME) {
+            mapping.calculate(THROTTLE, STEERING, power);
+            steadyRate = step(simDrive, power, batteryVoltage);
+        }
+
+        //Release the steering, and find when the turn rate last left the settled band
+        double settledTime = 0.0;
+        for(double time = STEP_TIME; time <= RELEASE_TIME; time += STEP_TIME) {
+            mapping.calculate(THROTTLE, 0.0, power);
+            double rate = step(simDrive, power, batteryVoltage);
+            if(Math.abs(rate) > Math.abs(steadyRate) * SETTLED_FRACTION) settledTime = time;
+        }
+        return settledTime;
+    }
+
+    /** Move the physics model one step, and return the turn rate in radians per second. */
+    private static double step(DifferentialDrivetrainSim simDrive, double[] power, double batteryVoltage) {
+        simDrive.setInputs(power[0] * batteryVoltage, power[1] * batteryVoltage);
+        simDrive.update(STEP_TIME);
+        return (simDrive.getRightVelocityMetersPerSecond() - simDrive.getLeftVelocityMetersPerSecond()) / Chassis.TRACK_WIDTH;
+    }
+}